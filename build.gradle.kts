@@ -16,6 +16,8 @@ val pebbleVersion = "3.2.4"
 val commonsCsvVersion = "1.14.1"
 val snakeYmlVersion = "2.5"
 val directoryMatcherVersion = "0.19.1"
+val openHtmlToPdfVersion = "1.1.40"
+val jsoupVersion = "1.21.2"
 val javafxVersion = "21"
 val junitVersion = "6.0.1"
 
@@ -33,6 +35,9 @@ dependencies {
     implementation("org.openjfx:javafx-controls:$javafxVersion")
     implementation("org.openjfx:javafx-fxml:$javafxVersion")
     implementation("org.openjfx:javafx-web:$javafxVersion")
+    // --- Export ---
+    implementation("io.github.openhtmltopdf:openhtmltopdf-pdfbox:$openHtmlToPdfVersion")
+    implementation("org.jsoup:jsoup:$jsoupVersion")
     // --- Logging ---
     implementation("org.slf4j:slf4j-api:$slf4jVersion")
     implementation("ch.qos.logback:logback-classic:$logbackVersion")
@@ -55,4 +60,74 @@ application {
 }
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+// --- Class-data sharing ---
+// `cdsArchive` runs the application once in training mode (it opens a scratch copy of the default
+// project, renders it and exits) and dumps every class loaded on the way into an AppCDS archive.
+// `runWithCds` launches with that archive. Startup times of both are appended to
+// startup-times.csv in the log directory, tagged with the launch mode.
+val cdsDir = layout.buildDirectory.dir("cds")
+val cdsArchiveFile = cdsDir.map { it.file("deck-builder.jsa") }
+
+fun JavaExec.launchDeckBuilder(launch: String) {
+    val runtimeClasspath = sourceSets.main.get().runtimeClasspath
+    val isJavaFx = Spec<File> { it.name.startsWith("javafx-") }
+    mainClass = application.mainClass
+    classpath = runtimeClasspath.filter { !isJavaFx.isSatisfiedBy(it) }
+    jvmArgumentProviders.add(CommandLineArgumentProvider {
+        listOf(
+            "--module-path", runtimeClasspath.filter(isJavaFx).asPath,
+            "--add-modules", javafx.modules.joinToString(",")
+        )
+    })
+    systemProperty("deckbuilder.launch", launch)
+}
+
+val cdsArchive by tasks.registering(JavaExec::class) {
+    group = "application"
+    description = "Creates an AppCDS archive from a training run of the application."
+    launchDeckBuilder("cds-training")
+    systemProperty("deckbuilder.training", "true")
+    systemProperty("deckbuilder.configDir", cdsDir.get().dir("training-home").asFile.absolutePath)
+    inputs.files(sourceSets.main.get().runtimeClasspath)
+    outputs.file(cdsArchiveFile)
+    jvmArgumentProviders.add(CommandLineArgumentProvider {
+        listOf("-XX:ArchiveClassesAtExit=" + cdsArchiveFile.get().asFile.absolutePath)
+    })
+    doFirst {
+        delete(cdsArchiveFile)
+        cdsDir.get().asFile.mkdirs()
+    }
+}
+
+tasks.register<JavaExec>("runWithCds") {
+    group = "application"
+    description = "Runs the application with the AppCDS archive created by cdsArchive."
+    dependsOn(cdsArchive)
+    launchDeckBuilder("cds")
+    jvmArgumentProviders.add(CommandLineArgumentProvider {
+        listOf("-XX:SharedArchiveFile=" + cdsArchiveFile.get().asFile.absolutePath, "-Xshare:auto")
+    })
+}
+
+// --- Validation ---
+// `validateProject` renders every card of a project in every language without a window and fails
+// when a card has errors, e.g. `gradle validateProject -PdeckProject=path/to/deck
+// -PdeckLanguages=en,de -PdeckStrict` (strict mode also fails on missing translations).
+// `-PdeckTranslationReport=missing.yml` writes the missing and fallback translation keys.
+tasks.register<JavaExec>("validateProject") {
+    group = "verification"
+    description = "Checks every card of -PdeckProject in every language."
+    mainClass = "com.spinyowl.cards.HeadlessValidation"
+    classpath = sourceSets.main.get().runtimeClasspath
+    argumentProviders.add(CommandLineArgumentProvider {
+        val project = providers.gradleProperty("deckProject").orNull
+            ?: throw GradleException("Set the project directory with -PdeckProject=<dir>")
+        listOfNotNull(
+            file(project).absolutePath,
+            providers.gradleProperty("deckLanguages").orNull?.let { "--lang=$it" },
+            providers.gradleProperty("deckStrict").orNull?.let { "--strict" },
+            providers.gradleProperty("deckTranslationReport").orNull?.let { "--translation-report=" + file(it).absolutePath }
+        )
+    })
+}
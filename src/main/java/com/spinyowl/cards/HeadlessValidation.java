@@ -0,0 +1,134 @@
+package com.spinyowl.cards;
+
+import com.spinyowl.cards.logging.LoggingInitializer;
+import com.spinyowl.cards.model.RenderDiagnostic;
+import com.spinyowl.cards.service.CardRenderer;
+import com.spinyowl.cards.service.ProjectManager;
+import com.spinyowl.cards.service.RenderValidator;
+import com.spinyowl.cards.service.TranslationReport;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Checks every card of a project in every language without opening a window, for continuous
+ * integration. Prints one line per problem and exits with {@value #EXIT_OK} when no card has
+ * errors, {@value #EXIT_PROBLEMS} when one does (or has warnings, with {@code --strict}), and
+ * {@value #EXIT_USAGE} when the arguments are wrong or the project cannot be opened.
+ * {@code --translation-report} also writes the missing and fallback translation keys to a file.
+ * <pre>
+ * validate &lt;project dir&gt; [--lang=en,de] [--strict] [--translation-report=missing.yml]
+ * </pre>
+ */
+@Slf4j
+public final class HeadlessValidation {
+
+    /**
+     * Argument that makes {@link MainApp} validate instead of starting the user interface.
+     */
+    public static final String COMMAND = "--validate";
+
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_PROBLEMS = 1;
+    public static final int EXIT_USAGE = 2;
+
+    private HeadlessValidation() {
+    }
+
+    public static void main(String[] args) {
+        LoggingInitializer.initialize();
+        System.exit(run(args, System.out));
+    }
+
+    /**
+     * Validates the project named by {@code args} and returns the exit code.
+     */
+    public static int run(String[] args, PrintStream out) {
+        Path projectDir = null;
+        List<String> languages = null;
+        boolean strict = false;
+        Path translationReport = null;
+        for (String arg : args) {
+            if (arg.equals("--strict")) {
+                strict = true;
+            } else if (arg.startsWith("--lang=")) {
+                languages = Arrays.stream(arg.substring("--lang=".length()).split(","))
+                        .map(String::trim)
+                        .filter(lang -> !lang.isEmpty())
+                        .toList();
+            } else if (arg.startsWith("--translation-report=")) {
+                translationReport = Path.of(arg.substring("--translation-report=".length()));
+            } else if (!arg.startsWith("--") && projectDir == null) {
+                projectDir = Path.of(arg);
+            } else {
+                out.println("Unknown argument: " + arg);
+                return usage(out);
+            }
+        }
+        if (projectDir == null || (languages != null && languages.isEmpty())) {
+            return usage(out);
+        }
+        if (!Files.isRegularFile(projectDir.resolve("project.yml"))) {
+            out.println("Not a project: " + projectDir.toAbsolutePath());
+            return EXIT_USAGE;
+        }
+
+        ProjectManager manager = new ProjectManager();
+        try {
+            manager.openProject(projectDir);
+        } catch (IOException e) {
+            out.println("Failed to open " + projectDir.toAbsolutePath() + ": " + e.getMessage());
+            return EXIT_USAGE;
+        }
+        if (languages == null) {
+            languages = manager.discoverLanguages();
+        }
+
+        RenderValidator.Report report;
+        try (RenderValidator validator = new RenderValidator(manager, CardRenderer.create(manager),
+                Runtime.getRuntime().availableProcessors())) {
+            report = validator.validate(languages).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return EXIT_USAGE;
+        } catch (ExecutionException e) {
+            log.error("Validation of {} failed", projectDir, e.getCause());
+            out.println("Validation failed: " + e.getCause());
+            return EXIT_USAGE;
+        }
+
+        for (RenderDiagnostic diagnostic : report.diagnostics()) {
+            out.println(diagnostic.severity() + " " + diagnostic);
+        }
+        List<String> summary = new ArrayList<>();
+        summary.add(report.cardsWithErrors().size() + " of " + report.cardCount() + " card(s) with errors");
+        summary.add(report.warningCount() + " warning(s)");
+        out.println(String.join(", ", summary) + " in " + String.join(", ", report.languages()));
+
+        TranslationReport translations = TranslationReport.of(manager);
+        translations.summary().forEach(line -> out.println("Translations " + line));
+        if (translationReport != null) {
+            try {
+                translations.write(translationReport);
+            } catch (IOException e) {
+                out.println("Failed to write " + translationReport.toAbsolutePath() + ": " + e.getMessage());
+                return EXIT_USAGE;
+            }
+        }
+
+        boolean failed = report.hasErrors() || (strict && report.warningCount() > 0);
+        return failed ? EXIT_PROBLEMS : EXIT_OK;
+    }
+
+    private static int usage(PrintStream out) {
+        out.println("Usage: validate <project dir> [--lang=en,de] [--strict] [--translation-report=<file>]");
+        return EXIT_USAGE;
+    }
+}
@@ -1,18 +1,41 @@
 package com.spinyowl.cards;
 
+import com.spinyowl.cards.config.AppPaths;
 import com.spinyowl.cards.config.ConfigService;
+import com.spinyowl.cards.controller.StartupController;
+import com.spinyowl.cards.diagnostics.FlightRecordings;
 import com.spinyowl.cards.logging.LoggingInitializer;
+import com.spinyowl.cards.logging.StartupMetrics;
+import com.spinyowl.cards.service.OpenProjectTask;
+import com.spinyowl.cards.service.ProjectCreator;
+import javafx.animation.PauseTransition;
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.concurrent.Worker;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import javafx.util.Duration;
+import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+@Slf4j
 public class MainApp extends Application {
 
-    private final ConfigService configService = ConfigService.getInstance();
+    /**
+     * System property that turns the launch into a training run for the class-data-sharing
+     * archive: the application opens a scratch copy of the default project, renders it and exits.
+     */
+    public static final String TRAINING_PROPERTY = "deckbuilder.training";
+    private static final Duration TRAINING_SETTLE_TIME = Duration.seconds(3);
 
     @Override
     public void start(Stage stage) throws Exception {
+        ConfigService.loadAsync();
+
         FXMLLoader loader = new FXMLLoader(getClass().getResource("/main/ui/startup.fxml"));
         Scene scene = new Scene(loader.load(), 400, 400);
 
@@ -20,13 +43,53 @@ public class MainApp extends Application {
         stage.setScene(scene);
         stage.setResizable(false);
 
-        stage.setOnCloseRequest(event -> configService.save());
+        stage.setOnCloseRequest(event -> ConfigService.getInstance().save());
 
         stage.show();
+        Platform.runLater(StartupMetrics::firstWindowShown);
+
+        if (Boolean.getBoolean(TRAINING_PROPERTY)) {
+            runTraining(loader.getController());
+        }
+    }
+
+    private void runTraining(StartupController startupController) {
+        try {
+            Path projectDir = AppPaths.getConfigDirectory().resolve("training-project");
+            ProjectCreator.createDefaultProject(projectDir, "Training");
+            OpenProjectTask task = startupController.openProject(projectDir);
+            if (task == null) {
+                Platform.exit();
+                return;
+            }
+            task.stateProperty().addListener((obs, oldState, state) -> {
+                if (state == Worker.State.SUCCEEDED) {
+                    PauseTransition settle = new PauseTransition(TRAINING_SETTLE_TIME);
+                    settle.setOnFinished(event -> Platform.exit());
+                    settle.play();
+                } else if (state == Worker.State.FAILED || state == Worker.State.CANCELLED) {
+                    Platform.exit();
+                }
+            });
+        } catch (Exception e) {
+            log.error("Training run failed", e);
+            Platform.exit();
+        }
     }
 
     public static void main(String[] args) {
+        StartupMetrics.markMainEntered();
         LoggingInitializer.initialize();
+        if (args.length > 0 && args[0].equals(HeadlessValidation.COMMAND)) {
+            System.exit(HeadlessValidation.run(Arrays.copyOfRange(args, 1, args.length), System.out));
+        }
+        if (Arrays.asList(args).contains(FlightRecordings.RECORD_ARGUMENT)) {
+            try {
+                FlightRecordings.startForSession();
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to start the flight recording", e);
+            }
+        }
         launch(args);
     }
 }
@@ -7,11 +7,20 @@ import java.util.Locale;
 public final class AppPaths {
 
     public static final String APPLICATION_ID = "SpinyOwl.DeckBuilder";
+    /**
+     * System property overriding the configuration directory, used to keep configuration, logs
+     * and caches of scripted runs (such as the class-data-sharing training run) separate.
+     */
+    public static final String CONFIG_DIR_PROPERTY = "deckbuilder.configDir";
 
     private AppPaths() {
     }
 
     public static Path getConfigDirectory() {
+        String override = System.getProperty(CONFIG_DIR_PROPERTY);
+        if (override != null && !override.isBlank()) {
+            return Paths.get(override);
+        }
         String osName = System.getProperty("os.name", "").toLowerCase(Locale.ROOT);
         if (osName.contains("win")) {
             String appData = System.getenv("APPDATA");
@@ -38,6 +47,10 @@ public final class AppPaths {
         return getConfigDirectory().resolve("logs");
     }
 
+    public static Path getCacheDirectory() {
+        return getConfigDirectory().resolve("cache");
+    }
+
     public static Path getLatestLogFile() {
         return getLogDirectory().resolve("latest.log");
     }
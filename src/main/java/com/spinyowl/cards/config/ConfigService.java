@@ -17,6 +17,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 public class ConfigService {
@@ -24,7 +25,7 @@ public class ConfigService {
     private static final Path CONFIG_FILE = AppPaths.getConfigFile();
     private static final int MAX_RECENT_PROJECTS = 10;
 
-    private static final ConfigService INSTANCE = new ConfigService();
+    private static CompletableFuture<ConfigService> loading;
     @Getter
     private final AppConfig config = new AppConfig();
     private final Yaml yaml;
@@ -38,8 +39,32 @@ public class ConfigService {
         load();
     }
 
+    /**
+     * Returns the configuration service, loading the configuration file on first use.
+     */
     public static ConfigService getInstance() {
-        return INSTANCE;
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Loads the configuration on a background thread, so the first window does not wait for
+     * disk I/O. Returns the same future on every call.
+     */
+    public static synchronized CompletableFuture<ConfigService> loadAsync() {
+        if (loading == null) {
+            CompletableFuture<ConfigService> future = new CompletableFuture<>();
+            Thread thread = new Thread(() -> {
+                try {
+                    future.complete(getInstance());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            }, "config-loader");
+            thread.setDaemon(true);
+            thread.start();
+            loading = future;
+        }
+        return loading;
     }
 
     public void markProjectOpened(Path projectDir) {
@@ -245,4 +270,8 @@ public class ConfigService {
         }
         return fallback;
     }
+
+    private static final class Holder {
+        private static final ConfigService INSTANCE = new ConfigService();
+    }
 }
@@ -0,0 +1,148 @@
+package com.spinyowl.cards.controller;
+
+import com.spinyowl.cards.service.CardRenderer;
+import com.spinyowl.cards.util.DaemonThreadFactory;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.TilePane;
+import javafx.scene.layout.VBox;
+import javafx.scene.web.WebView;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Side-by-side preview that renders the current card in every project language at once. Each
+ * language is rendered concurrently on a worker pool and shown in its own cell of a grid that
+ * replaces the single-card web view while the mode is active.
+ */
+@Slf4j
+public class AllLanguagesPreviewController {
+
+    private static final double CELL_WIDTH = 280;
+    private static final double CELL_HEIGHT = 400;
+    private static final double CELL_ZOOM = 0.6;
+
+    private final BorderPane previewContainer;
+    private final WebView singleCardView;
+    private final TilePane grid = new TilePane(10, 10);
+    private final ScrollPane scrollPane = new ScrollPane(grid);
+    private final List<LanguageCell> cells = new ArrayList<>();
+    private final AtomicLong generation = new AtomicLong();
+    private ExecutorService renderExecutor;
+    private boolean active;
+
+    public AllLanguagesPreviewController(BorderPane previewContainer, WebView singleCardView) {
+        this.previewContainer = previewContainer;
+        this.singleCardView = singleCardView;
+        grid.setPadding(new Insets(10));
+        grid.setPrefTileWidth(CELL_WIDTH);
+        scrollPane.setFitToWidth(true);
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+        if (previewContainer == null) {
+            return;
+        }
+        if (active) {
+            previewContainer.setCenter(scrollPane);
+        } else {
+            generation.incrementAndGet();
+            previewContainer.setCenter(singleCardView);
+        }
+    }
+
+    /**
+     * Renders card {@code index} in each of {@code languages} concurrently and fills the grid as
+     * the results arrive. Results of a previous call that finish late are discarded.
+     */
+    public void show(CardRenderer renderer, int index, List<String> languages) {
+        if (renderer == null || languages == null) {
+            return;
+        }
+
+        long current = generation.incrementAndGet();
+        ensureCells(languages);
+        ExecutorService executor = ensureExecutor();
+        for (int i = 0; i < languages.size(); i++) {
+            String lang = languages.get(i);
+            LanguageCell cell = cells.get(i);
+            CompletableFuture.supplyAsync(() -> renderer.renderChecked(index, lang), executor)
+                    .whenComplete((rendered, error) -> {
+                        if (error != null) {
+                            log.warn("Failed to render card {} in language {}", index, lang, error);
+                        }
+                        String content = error == null && !rendered.failed()
+                                ? rendered.html()
+                                : errorPage(error == null ? rendered.diagnostics().get(0).toString() : null);
+                        Platform.runLater(() -> {
+                            if (generation.get() == current) {
+                                cell.webView.getEngine().loadContent(content);
+                            }
+                        });
+                    });
+        }
+    }
+
+    public void dispose() {
+        generation.incrementAndGet();
+        if (renderExecutor != null) {
+            renderExecutor.shutdownNow();
+            renderExecutor = null;
+        }
+    }
+
+    private void ensureCells(List<String> languages) {
+        while (cells.size() > languages.size()) {
+            cells.removeLast();
+        }
+        while (cells.size() < languages.size()) {
+            cells.add(new LanguageCell());
+        }
+        for (int i = 0; i < languages.size(); i++) {
+            cells.get(i).label.setText(languages.get(i));
+        }
+        grid.getChildren().setAll(cells.stream().map(cell -> cell.container).toList());
+    }
+
+    private ExecutorService ensureExecutor() {
+        if (renderExecutor == null) {
+            int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+            renderExecutor = Executors.newFixedThreadPool(threads, DaemonThreadFactory.numbered("language-preview"));
+        }
+        return renderExecutor;
+    }
+
+    private static String errorPage(String detail) {
+        if (detail == null) {
+            return "<p>Error rendering card.</p>";
+        }
+        String escaped = detail.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+        return "<p>Error rendering card.</p><pre style=\"white-space: pre-wrap; color: #b52b27;\">" + escaped + "</pre>";
+    }
+
+    private static final class LanguageCell {
+        private final Label label = new Label();
+        private final WebView webView = new WebView();
+        private final VBox container = new VBox(4, label, webView);
+
+        private LanguageCell() {
+            webView.setPrefSize(CELL_WIDTH, CELL_HEIGHT);
+            webView.setZoom(CELL_ZOOM);
+            webView.setContextMenuEnabled(false);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.spinyowl.cards.controller;
 import com.spinyowl.cards.config.AppConfig;
 import com.spinyowl.cards.config.AppPaths;
 import com.spinyowl.cards.config.ConfigService;
+import com.spinyowl.cards.util.DaemonThreadFactory;
 import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
 import javafx.scene.Node;
@@ -16,7 +17,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
@@ -74,7 +74,7 @@ public class ConsoleLogController {
         lastLogModified = -1L;
         lastLogSize = -1L;
         lastDisplayedLog = null;
-        logUpdateExecutor = Executors.newSingleThreadScheduledExecutor(new LogWatcherThreadFactory());
+        logUpdateExecutor = Executors.newSingleThreadScheduledExecutor(DaemonThreadFactory.named("log-viewer"));
         logUpdateExecutor.scheduleWithFixedDelay(this::refreshConsoleFromLog, 0, 1, TimeUnit.SECONDS);
     }
 
@@ -223,14 +223,5 @@ public class ConsoleLogController {
             log.warn("Failed to read log file {}", logFile, e);
         }
     }
-
-    private static class LogWatcherThreadFactory implements ThreadFactory {
-        @Override
-        public Thread newThread(Runnable r) {
-            Thread thread = new Thread(r, "log-viewer");
-            thread.setDaemon(true);
-            return thread;
-        }
-    }
 }
 
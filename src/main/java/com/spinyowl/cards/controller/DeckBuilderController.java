@@ -1,11 +1,27 @@
 package com.spinyowl.cards.controller;
 
 import com.spinyowl.cards.config.AppConfig;
+import com.spinyowl.cards.config.AppPaths;
 import com.spinyowl.cards.config.ConfigService;
+import com.spinyowl.cards.diagnostics.FlightRecordings;
+import com.spinyowl.cards.diagnostics.WatcherReloadEvent;
+import com.spinyowl.cards.model.CardDiff;
+import com.spinyowl.cards.service.CardQuery;
+import com.spinyowl.cards.service.CardRasterizer;
 import com.spinyowl.cards.service.CardRenderer;
+import com.spinyowl.cards.service.ExportTask;
+import com.spinyowl.cards.service.OpenProjectTask;
+import com.spinyowl.cards.service.PdfExporter;
+import com.spinyowl.cards.service.ProjectIgnoreRules;
 import com.spinyowl.cards.service.ProjectManager;
 import com.spinyowl.cards.service.ProjectWatcher;
+import com.spinyowl.cards.service.RasterExporter;
+import com.spinyowl.cards.service.RenderValidator;
+import com.spinyowl.cards.service.ThumbnailService;
+import com.spinyowl.cards.service.TranslationReport;
 import com.spinyowl.cards.ui.WindowStateHandler;
+import com.spinyowl.cards.util.DaemonThreadFactory;
+import com.spinyowl.cards.util.RenderDependencies;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -15,22 +31,46 @@ import javafx.scene.control.SplitPane;
 import javafx.scene.control.Spinner;
 import javafx.scene.control.SpinnerValueFactory;
 import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
 import javafx.scene.control.TitledPane;
+import javafx.scene.control.Tooltip;
 import javafx.scene.control.ToggleButton;
 import javafx.scene.control.TreeView;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.StackPane;
 import javafx.scene.web.WebView;
+import javafx.stage.DirectoryChooser;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.spinyowl.cards.config.AppPaths.APPLICATION_ID;
 
 @Slf4j
 public class DeckBuilderController {
 
+    private static final double THUMBNAIL_WIDTH = 150;
+    private static final int THUMBNAIL_RASTER_VIEWS = 2;
+
     @FXML private WebView webView;
     @FXML private Spinner<Integer> indexSpinner;
     @FXML private ComboBox<String> langBox;
@@ -41,27 +81,52 @@ public class DeckBuilderController {
     @FXML private SplitPane mainHorizontalSplit;
     @FXML private StackPane projectTreeContainer;
     @FXML private ToggleButton projectTreeToggle;
+    @FXML private StackPane middleContentContainer;
     @FXML private StackPane previewPane;
     @FXML private BorderPane previewContainer;
     @FXML private ToggleButton previewToggle;
     @FXML private ToggleButton zoomFitToggle;
+    @FXML private ToggleButton allLanguagesToggle;
+    @FXML private TextField filterField;
+    @FXML private ToggleButton recordingToggle;
 
     private ProjectManager projectManager;
     private CardRenderer renderer;
     private ProjectWatcher projectWatcher;
     private final AtomicBoolean reloadScheduled = new AtomicBoolean();
+    private final Set<Path> pendingChanges = ConcurrentHashMap.newKeySet();
     private final ConfigService configService = ConfigService.getInstance();
     private final AppConfig appConfig = configService.getConfig();
 
     private ProjectViewController projectViewController;
     private PreviewController previewController;
     private ConsoleLogController consoleLogController;
+    private AllLanguagesPreviewController allLanguagesPreviewController;
+    private ProjectLoadingController projectLoadingController;
+    private RenderDiagnosticsOverlay diagnosticsOverlay;
+    private RenderValidator renderValidator;
+    private OpenProjectTask openTask;
+    private DeckOverviewController deckOverviewController;
+    private CardRasterizer cardRasterizer;
+    private ThumbnailService thumbnailService;
+    private ExecutorService backgroundExecutor;
+    private CardQuery cardQuery = CardQuery.all();
+    private int[] visibleCards = new int[0];
+    /**
+     * The id of the card the preview shows and of the cards its render looked up, or {@code null}
+     * when the preview shows something else.
+     */
+    private List<String> previewCards;
 
     @FXML
     public void initialize() {
         previewController = new PreviewController(webView, previewPane, previewContainer, previewToggle, zoomFitToggle, mainHorizontalSplit, configService, appConfig);
         consoleLogController = new ConsoleLogController(configService, appConfig, consolePane, consoleTextArea, mainVerticalSplit);
         projectViewController = new ProjectViewController(projectTree, projectTreeContainer, projectTreeToggle, previewPane, mainHorizontalSplit, configService, appConfig, this::expandConsole);
+        allLanguagesPreviewController = new AllLanguagesPreviewController(previewContainer, webView);
+        deckOverviewController = new DeckOverviewController(middleContentContainer, () -> langBox.getValue(), this::selectCard);
+        projectLoadingController = new ProjectLoadingController(middleContentContainer);
+        diagnosticsOverlay = new RenderDiagnosticsOverlay(previewPane, this::openCard);
 
         previewController.setProjectViewController(projectViewController);
         projectViewController.setPreviewController(previewController);
@@ -69,6 +134,17 @@ public class DeckBuilderController {
         projectViewController.initialize();
         previewController.initialize();
         consoleLogController.initialize();
+        deckOverviewController.initialize();
+        if (recordingToggle != null) {
+            recordingToggle.setSelected(FlightRecordings.isRecording());
+        }
+        if (indexSpinner != null) {
+            indexSpinner.valueProperty().addListener((obs, oldIndex, newIndex) -> {
+                if (newIndex != null) {
+                    deckOverviewController.setSelectedIndex(cardAt(newIndex));
+                }
+            });
+        }
 
         Platform.runLater(() -> {
             consoleLogController.applyInitialState();
@@ -77,17 +153,83 @@ public class DeckBuilderController {
         });
     }
 
+    /**
+     * Opens the project in {@code dir} in the background. The window stays responsive while the
+     * project loads: the project tree appears once the configuration is read, and the preview and
+     * deck overview once everything is loaded. Failing or cancelling returns to the startup screen.
+     * Returns the opening task.
+     */
+    public OpenProjectTask openProject(Path dir) {
+        OpenProjectTask task = OpenProjectTask.create(dir, this::onConfigurationLoaded);
+        openTask = task;
+        projectLoadingController.show(task);
+        task.setOnSucceeded(event -> {
+            openTask = null;
+            projectLoadingController.hide();
+            configService.markProjectOpened(dir);
+            configService.setLastProjectsParent(dir.getParent());
+            OpenProjectTask.OpenedProject opened = task.getValue();
+            setProject(opened.manager(), opened.renderer());
+        });
+        task.setOnFailed(event -> {
+            openTask = null;
+            projectLoadingController.hide();
+            log.error("Failed to open project {}", dir, task.getException());
+            closeProject("Failed to open project: " + task.getException().getMessage());
+        });
+        task.setOnCancelled(event -> {
+            openTask = null;
+            projectLoadingController.hide();
+            log.info("Opening project {} cancelled", dir);
+            closeProject("Opening project cancelled");
+        });
+        consoleLogController.startLogUpdates();
+        ensureBackgroundExecutor().execute(task);
+        return task;
+    }
+
+    private void onConfigurationLoaded(ProjectManager pm) {
+        projectViewController.setProjectManager(pm);
+        projectViewController.initProjectTree();
+        if (webView.getScene() != null && webView.getScene().getWindow() instanceof Stage stage) {
+            stage.setTitle(APPLICATION_ID + " - " + pm.getProjectName());
+        }
+    }
+
     public void setProject(ProjectManager pm) {
+        setProject(pm, CardRenderer.create(pm));
+    }
+
+    public void setProject(ProjectManager pm, CardRenderer renderer) {
         this.projectManager = pm;
-        this.renderer = new CardRenderer(pm);
+        this.renderer = renderer;
+        this.cardRasterizer = new CardRasterizer(THUMBNAIL_RASTER_VIEWS);
+        this.thumbnailService = ThumbnailService.create(pm, renderer, cardRasterizer,
+                AppPaths.getCacheDirectory().resolve("thumbnails"), THUMBNAIL_WIDTH);
+        deckOverviewController.setThumbnailService(thumbnailService);
+        if (renderValidator != null) {
+            renderValidator.close();
+        }
+        renderValidator = new RenderValidator(pm, renderer);
+        diagnosticsOverlay.clear();
 
         projectViewController.setProjectManager(pm);
 
-        langBox.getItems().addAll("en");
+        langBox.getItems().setAll(pm.getDefaultLanguage());
         langBox.getSelectionModel().selectFirst();
+        langBox.valueProperty().addListener((obs, oldLang, newLang) -> {
+            if (newLang != null && !newLang.equals(oldLang)) {
+                refresh();
+                refreshDeckOverview();
+            }
+        });
+        discoverLanguages();
+        updateVisibleCards();
         configureIndexSpinner();
         projectViewController.initProjectTree();
         refresh();
+        refreshDeckOverview();
+        validateInBackground();
         startWatcher();
         consoleLogController.startLogUpdates();
         if (projectManager != null && projectManager.getProjectDir() != null) {
@@ -106,13 +248,157 @@ public class DeckBuilderController {
         refresh();
     }
 
+    @FXML
+    private void onApplyFilter() {
+        String text = filterField != null ? filterField.getText() : null;
+        try {
+            cardQuery = CardQuery.parse(text);
+            filterField.setStyle(null);
+            filterField.setTooltip(null);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid card filter '{}': {}", text, e.getMessage());
+            filterField.setStyle("-fx-border-color: #d9534f;");
+            filterField.setTooltip(new Tooltip(e.getMessage()));
+            return;
+        }
+
+        updateVisibleCards();
+        if (indexSpinner != null && indexSpinner.getValueFactory() != null) {
+            indexSpinner.getValueFactory().setValue(0);
+        }
+        configureIndexSpinner();
+        refresh();
+        refreshDeckOverview();
+        log.info("Showing {} card(s) for filter '{}'", visibleCards.length, cardQuery);
+    }
+
+    @FXML
+    private void onExportPdf() {
+        if (projectManager == null || renderer == null || visibleCards.length == 0) {
+            return;
+        }
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export PDF");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("PDF documents", "*.pdf"));
+        Path exportDir = projectManager.getExportDirectory();
+        if (Files.isDirectory(exportDir)) {
+            chooser.setInitialDirectory(exportDir.toFile());
+        }
+        chooser.setInitialFileName(projectManager.getProjectName().replaceAll("[\\\\/:*?\"<>|]", "_") + ".pdf");
+        File file = chooser.showSaveDialog(webView.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        PdfExporter exporter = new PdfExporter(projectManager, renderer, Runtime.getRuntime().availableProcessors());
+        int[] cards = visibleCards.clone();
+        String lang = langBox.getValue();
+        Path target = file.toPath();
+        runExport(ExportTask.create("Exporting " + file.getName(), cards.length,
+                progress -> exporter.export(cards, lang, target, progress),
+                result -> result.upToDate()
+                        ? "Up to date, " + result.pageCount() + " page(s)"
+                        : "Exported " + result.pageCount() + " page(s)"), target, PdfExporter.Result::translations);
+    }
+
+    @FXML
+    private void onExportImages() {
+        if (projectManager == null || renderer == null || visibleCards.length == 0) {
+            return;
+        }
+        Optional<RasterExporter.Options> options = new RasterExportDialog().showAndWait();
+        if (options.isEmpty()) {
+            return;
+        }
+        DirectoryChooser chooser = new DirectoryChooser();
+        chooser.setTitle("Export Images To");
+        Path exportDir = projectManager.getExportDirectory();
+        if (Files.isDirectory(exportDir)) {
+            chooser.setInitialDirectory(exportDir.toFile());
+        }
+        File dir = chooser.showDialog(webView.getScene().getWindow());
+        if (dir == null) {
+            return;
+        }
+
+        RasterExporter exporter = new RasterExporter(projectManager, renderer, Runtime.getRuntime().availableProcessors());
+        int[] cards = visibleCards.clone();
+        String lang = langBox.getValue();
+        Path target = dir.toPath();
+        runExport(ExportTask.create("Exporting images to " + dir.getName(), cards.length,
+                progress -> exporter.export(cards, lang, target, options.get(), progress),
+                result -> "Wrote " + result.rendered() + " image(s), " + result.reused() + " unchanged, "
+                        + result.removed() + " removed"), target, RasterExporter.Result::translations);
+    }
+
+    private <T> void runExport(ExportTask<T> task, Path target, Function<T, TranslationReport> translations) {
+        projectLoadingController.show(task);
+        task.setOnSucceeded(event -> {
+            projectLoadingController.hide();
+            log.info("{} - {}", task.getTitle(), task.getMessage());
+            logTranslationReport(translations.apply(task.getValue()));
+        });
+        task.setOnFailed(event -> {
+            projectLoadingController.hide();
+            log.error("Failed to export to {}", target, task.getException());
+            expandConsole();
+        });
+        task.setOnCancelled(event -> {
+            projectLoadingController.hide();
+            log.info("Export to {} cancelled", target);
+        });
+        ensureBackgroundExecutor().execute(task);
+    }
+
+    /**
+     * Logs, per language, the translation keys the cards rendered by an export could not find.
+     */
+    private static void logTranslationReport(TranslationReport translations) {
+        List<String> summary = translations.summary();
+        if (!summary.isEmpty()) {
+            log.warn("Translations missing or taken from the default language in this export:\n  {}",
+                    String.join("\n  ", summary));
+        }
+    }
+
     @FXML
     public void onCloseProject() {
+        closeProject(null);
+    }
+
+    private void closeProject(String status) {
+        if (openTask != null) {
+            openTask.setOnCancelled(null);
+            openTask.cancel(true);
+            openTask = null;
+            projectLoadingController.hide();
+        }
         stopWatcher();
+        allLanguagesPreviewController.dispose();
+        if (renderValidator != null) {
+            renderValidator.close();
+            renderValidator = null;
+        }
+        if (thumbnailService != null) {
+            thumbnailService.dispose();
+            thumbnailService = null;
+        }
+        if (cardRasterizer != null) {
+            cardRasterizer.dispose();
+            cardRasterizer = null;
+        }
+        if (backgroundExecutor != null) {
+            backgroundExecutor.shutdownNow();
+            backgroundExecutor = null;
+        }
         consoleLogController.stopLogUpdates();
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/main/ui/startup.fxml"));
             Scene scene = new Scene(loader.load(), 400, 400);
+            if (status != null) {
+                StartupController startupController = loader.getController();
+                startupController.showStatus(status);
+            }
             Stage stage = (Stage) webView.getScene().getWindow();
             WindowStateHandler.disable(stage);
             stage.setMaximized(false);
@@ -139,6 +425,27 @@ public class DeckBuilderController {
         previewController.onTogglePreview();
     }
 
+    @FXML
+    private void onToggleAllLanguages() {
+        allLanguagesPreviewController.setActive(allLanguagesToggle != null && allLanguagesToggle.isSelected());
+        refresh();
+    }
+
+    @FXML
+    private void onToggleRecording() {
+        try {
+            if (recordingToggle.isSelected()) {
+                FlightRecordings.start();
+            } else {
+                FlightRecordings.stopAndDump();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to toggle the flight recording", e);
+            recordingToggle.setSelected(FlightRecordings.isRecording());
+            expandConsole();
+        }
+    }
+
     @FXML
     private void onZoomIn() {
         previewController.zoomIn();
@@ -164,45 +471,246 @@ public class DeckBuilderController {
             return;
         }
 
-        int cardCount = renderer.getCardCount();
+        previewCards = null;
+        int cardCount = visibleCards.length;
         if (cardCount <= 0) {
-            Platform.runLater(() -> webView.getEngine().loadContent("<p>No cards available.</p>"));
+            String message = renderer.getCardCount() > 0 ? "<p>No cards match the filter.</p>" : "<p>No cards available.</p>";
+            Platform.runLater(() -> {
+                previewController.showContent(message);
+                diagnosticsOverlay.showCard(List.of());
+            });
             return;
         }
 
-        try {
-            int idx = getSelectedCardIndex(cardCount);
-            String html = renderer.renderCard(idx, langBox.getValue());
-            Platform.runLater(() -> webView.getEngine().loadContent(html));
-            log.info("Rendered card {} ({})", idx, langBox.getValue());
-        } catch (Exception e) {
-            log.error("Error rendering card", e);
-            expandConsole();
-            webView.getEngine().loadContent("<p>Error rendering card.</p>");
+        if (allLanguagesPreviewController.isActive()) {
+            int idx = cardAt(getSelectedCardIndex(cardCount));
+            allLanguagesPreviewController.show(renderer, idx, List.copyOf(langBox.getItems()));
+            return;
         }
+
+        int idx = cardAt(getSelectedCardIndex(cardCount));
+        RenderDependencies dependencies = new RenderDependencies();
+        CardRenderer.Checked rendered = renderer.renderChecked(idx, langBox.getValue(), dependencies);
+        previewCards = new ArrayList<>(dependencies.cards());
+        previewCards.addFirst(projectManager.getCards().get(idx).getId());
+        if (rendered.failed()) {
+            log.warn("Error rendering {}", rendered.diagnostics().get(0));
+        } else {
+            log.debug("Rendered card {} ({})", idx, langBox.getValue());
+        }
+        String html = rendered.failed() ? "<p>Error rendering card.</p>" : rendered.html();
+        Platform.runLater(() -> {
+            previewController.showContent(html);
+            diagnosticsOverlay.showCard(rendered.diagnostics());
+        });
+    }
+
+    /**
+     * Checks every card in every project language in the background and reports the cards with
+     * errors in the preview overlay. Only cards whose inputs changed since the last check are
+     * rendered again. A newer check replaces one still running.
+     */
+    private void validateInBackground() {
+        RenderValidator validator = renderValidator;
+        List<String> languages = List.copyOf(langBox.getItems());
+        if (validator == null || languages.isEmpty()) {
+            return;
+        }
+        validator.validate(languages).whenComplete((report, error) -> {
+            if (error == null) {
+                Platform.runLater(() -> {
+                    if (validator == renderValidator) {
+                        diagnosticsOverlay.showReport(report);
+                    }
+                });
+            } else if (!(error instanceof CancellationException || error.getCause() instanceof CancellationException)) {
+                log.warn("Background card check failed", error instanceof CompletionException ? error.getCause() : error);
+            }
+        });
+    }
+
+    /**
+     * Shows the card with id {@code id}, clearing the filter if it hides the card.
+     */
+    private void openCard(String id) {
+        int index = projectManager != null ? projectManager.indexOfCard(id) : -1;
+        if (index < 0) {
+            return;
+        }
+        boolean visible = false;
+        for (int visibleIndex : visibleCards) {
+            visible |= visibleIndex == index;
+        }
+        if (!visible) {
+            cardQuery = CardQuery.all();
+            if (filterField != null) {
+                filterField.clear();
+            }
+            updateVisibleCards();
+            configureIndexSpinner();
+            refreshDeckOverview();
+        }
+        selectCard(index);
     }
 
     private void performReload() {
+        pendingChanges.clear();
+        reloadProject(null);
+    }
+
+    private void reloadProject(Set<Path> changedPaths) {
         if (projectManager == null || renderer == null) {
             return;
         }
 
+        WatcherReloadEvent event = new WatcherReloadEvent();
+        if (changedPaths != null) {
+            event.begin();
+        }
+        ProjectIgnoreRules ignoreRules = projectManager.getIgnoreRules();
+
         try {
-            projectManager.reloadProject();
+            if (changedPaths == null) {
+                projectManager.reloadProject();
+            } else {
+                projectManager.reloadChanged(changedPaths);
+            }
         } catch (IOException e) {
             log.error("Failed to reload project configuration", e);
         }
+        if (!ignoreRules.equals(projectManager.getIgnoreRules())) {
+            // Directories that are no longer ignored were never registered.
+            startWatcher();
+        }
+        CardDiff diff = projectManager.isCardsOnlyReload() ? projectManager.getLastCardDiff() : null;
+        discoverLanguages();
+        updateVisibleCards();
         configureIndexSpinner();
         projectViewController.initProjectTree();
+        if (diff == null || previewAffectedBy(diff)) {
+            refresh();
+        }
+        if (diff == null || !diff.isEmpty()) {
+            refreshDeckOverview();
+        }
+        validateInBackground();
+
+        if (changedPaths != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.changedPathCount = changedPaths.size();
+                event.paths = changedPaths.stream().limit(20).map(Path::toString).collect(Collectors.joining(", "));
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Returns {@code true} unless the preview shows a single card that is still selected and that
+     * neither {@code diff} nor a change to a card it looked up affects.
+     */
+    private boolean previewAffectedBy(CardDiff diff) {
+        List<String> shown = previewCards;
+        if (shown == null || allLanguagesPreviewController.isActive() || visibleCards.length == 0) {
+            return true;
+        }
+        int idx = cardAt(getSelectedCardIndex(visibleCards.length));
+        if (idx < 0 || !projectManager.getCards().get(idx).getId().equals(shown.getFirst())) {
+            return true;
+        }
+        for (String id : shown) {
+            if (diff.affects(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void refreshDeckOverview() {
+        if (renderer != null) {
+            deckOverviewController.refresh(visibleCards);
+        }
+    }
+
+    /**
+     * Re-evaluates the card filter against the loaded cards. The index spinner walks positions in
+     * the resulting view; {@link #cardAt(int)} maps a position back to a card index.
+     */
+    private void updateVisibleCards() {
+        visibleCards = projectManager != null ? projectManager.queryCards(cardQuery) : new int[0];
+    }
+
+    private int cardAt(int position) {
+        return position >= 0 && position < visibleCards.length ? visibleCards[position] : -1;
+    }
+
+    private void selectCard(int cardIndex) {
+        int position = -1;
+        for (int i = 0; i < visibleCards.length; i++) {
+            if (visibleCards[i] == cardIndex) {
+                position = i;
+                break;
+            }
+        }
+        if (position >= 0 && indexSpinner != null && indexSpinner.getValueFactory() != null) {
+            indexSpinner.getValueFactory().setValue(position);
+        }
         refresh();
     }
 
+    private void discoverLanguages() {
+        if (projectManager == null) {
+            return;
+        }
+        ProjectManager pm = projectManager;
+        String selected = langBox.getValue();
+        CompletableFuture.supplyAsync(pm::discoverLanguages, ensureBackgroundExecutor())
+                .thenAccept(languages -> {
+                    List<String> preload = new ArrayList<>(languages.size() + 1);
+                    if (selected != null) {
+                        preload.add(selected);
+                    }
+                    preload.addAll(languages);
+                    pm.getTranslations().preload(preload);
+                    pm.getCardTranslations().preload(preload);
+                    Platform.runLater(() -> applyLanguages(pm, languages));
+                })
+                .exceptionally(e -> {
+                    log.warn("Failed to discover project languages", e);
+                    return null;
+                });
+    }
+
+    private void applyLanguages(ProjectManager pm, List<String> languages) {
+        if (pm != projectManager || languages.equals(langBox.getItems())) {
+            return;
+        }
+        String selected = langBox.getValue();
+        langBox.getItems().setAll(languages);
+        if (selected != null && languages.contains(selected)) {
+            langBox.setValue(selected);
+        } else {
+            langBox.getSelectionModel().selectFirst();
+        }
+        validateInBackground();
+        if (allLanguagesPreviewController.isActive()) {
+            refresh();
+        }
+    }
+
+    private ExecutorService ensureBackgroundExecutor() {
+        if (backgroundExecutor == null) {
+            backgroundExecutor = Executors.newSingleThreadExecutor(DaemonThreadFactory.named("deck-builder-background"));
+        }
+        return backgroundExecutor;
+    }
+
     private void configureIndexSpinner() {
         if (indexSpinner == null) {
             return;
         }
 
-        int cardCount = renderer != null ? renderer.getCardCount() : 0;
+        int cardCount = visibleCards.length;
         int maxIndex = Math.max(cardCount - 1, 0);
 
         SpinnerValueFactory<Integer> valueFactory = indexSpinner.getValueFactory();
@@ -259,11 +767,8 @@ public class DeckBuilderController {
             return;
         }
 
-        try {
-            projectWatcher = new ProjectWatcher(projectManager.getProjectDir(), path -> scheduleReload());
-        } catch (IOException e) {
-            log.warn("Unable to start project watcher", e);
-        }
+        ProjectManager pm = projectManager;
+        projectWatcher = new ProjectWatcher(pm.getProjectDir(), pm::isIgnored, pm::affectsRendering, this::scheduleReload);
     }
 
     private void stopWatcher() {
@@ -277,16 +782,20 @@ public class DeckBuilderController {
         }
     }
 
-    private void scheduleReload() {
+    private void scheduleReload(Path changedPath) {
+        if (changedPath != null) {
+            pendingChanges.add(changedPath);
+        }
         if (!reloadScheduled.compareAndSet(false, true)) {
             return;
         }
 
         Platform.runLater(() -> {
-            try {
-                performReload();
-            } finally {
-                reloadScheduled.set(false);
+            reloadScheduled.set(false);
+            Set<Path> changes = new HashSet<>(pendingChanges);
+            pendingChanges.removeAll(changes);
+            if (!changes.isEmpty()) {
+                reloadProject(changes);
             }
         });
     }
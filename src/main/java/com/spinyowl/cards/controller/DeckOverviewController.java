@@ -0,0 +1,213 @@
+package com.spinyowl.cards.controller;
+
+import com.spinyowl.cards.service.ThumbnailService;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.StackPane;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Deck overview showing the cards of the current view, in view order, as thumbnails. The grid is
+ * a {@link ListView} of rows, so JavaFX virtualizes it: only rows that are on screen have cells,
+ * and only those cells request thumbnails. Requests of cells that scroll away before their thumbnail is ready are cancelled.
+ * Thumbnails the service still holds are shown at once, so refreshing after a reload only visibly
+ * changes the cards the reload changed.
+ */
+@Slf4j
+public class DeckOverviewController {
+
+    private static final double CELL_SPACING = 8;
+
+    private final StackPane container;
+    private final IntConsumer onCardSelected;
+    private final Supplier<String> languageSupplier;
+    private final ListView<Integer> rows = new ListView<>();
+    private final List<ThumbnailRowCell> cells = new ArrayList<>();
+
+    private ThumbnailService thumbnailService;
+    private int[] cardIndexes = new int[0];
+    private int columns = 1;
+    private int selectedIndex = -1;
+
+    public DeckOverviewController(StackPane container,
+                                  Supplier<String> languageSupplier,
+                                  IntConsumer onCardSelected) {
+        this.container = container;
+        this.languageSupplier = languageSupplier;
+        this.onCardSelected = onCardSelected;
+    }
+
+    public void initialize() {
+        if (container == null) {
+            return;
+        }
+        rows.setFocusTraversable(false);
+        rows.setCellFactory(list -> {
+            ThumbnailRowCell cell = new ThumbnailRowCell();
+            cells.add(cell);
+            return cell;
+        });
+        rows.widthProperty().addListener((obs, oldWidth, newWidth) -> updateColumns());
+        container.getChildren().setAll(rows);
+    }
+
+    public void setThumbnailService(ThumbnailService thumbnailService) {
+        this.thumbnailService = thumbnailService;
+        if (thumbnailService != null) {
+            rows.setFixedCellSize(thumbnailService.getThumbnailHeight() + CELL_SPACING * 2);
+        }
+    }
+
+    /**
+     * Highlights the card {@code index}, updating the shown thumbnails in place rather than
+     * requesting them again.
+     */
+    public void setSelectedIndex(int index) {
+        if (selectedIndex != index) {
+            selectedIndex = index;
+            for (ThumbnailRowCell cell : cells) {
+                cell.updateSelection();
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the grid for the given card indexes, in order, requesting every visible thumbnail
+     * again.
+     */
+    public void refresh(int[] cardIndexes) {
+        this.cardIndexes = cardIndexes.clone();
+        if (thumbnailService != null) {
+            rows.setFixedCellSize(thumbnailService.getThumbnailHeight() + CELL_SPACING * 2);
+        }
+        updateRows();
+        rows.refresh();
+    }
+
+    private void updateColumns() {
+        if (thumbnailService == null) {
+            return;
+        }
+        double cellWidth = thumbnailService.getThumbnailWidth() + CELL_SPACING;
+        int newColumns = Math.max(1, (int) ((rows.getWidth() - CELL_SPACING * 3) / cellWidth));
+        if (newColumns != columns) {
+            columns = newColumns;
+            updateRows();
+        }
+    }
+
+    private void updateRows() {
+        int rowCount = (cardIndexes.length + columns - 1) / columns;
+        if (rows.getItems().size() != rowCount) {
+            rows.getItems().setAll(IntStream.range(0, rowCount).boxed().toList());
+        } else {
+            rows.refresh();
+        }
+    }
+
+    private class ThumbnailRowCell extends ListCell<Integer> {
+        private final HBox box = new HBox(CELL_SPACING);
+        private final List<ImageView> views = new ArrayList<>();
+        private final List<CompletableFuture<?>> requests = new ArrayList<>();
+
+        private ThumbnailRowCell() {
+            box.setPadding(new Insets(CELL_SPACING / 2, CELL_SPACING, CELL_SPACING / 2, CELL_SPACING));
+        }
+
+        @Override
+        protected void updateItem(Integer row, boolean empty) {
+            super.updateItem(row, empty);
+            cancelRequests();
+            if (empty || row == null || thumbnailService == null) {
+                views.forEach(view -> view.setUserData(null));
+                setGraphic(null);
+                return;
+            }
+
+            ensureViews();
+            String lang = languageSupplier.get();
+            int first = row * columns;
+            for (int column = 0; column < columns; column++) {
+                ImageView view = views.get(column);
+                int slot = first + column;
+                view.setVisible(slot < cardIndexes.length);
+                if (slot >= cardIndexes.length) {
+                    view.setUserData(null);
+                    view.setImage(null);
+                    continue;
+                }
+                int index = cardIndexes[slot];
+                view.setUserData(index);
+                view.setOpacity(index == selectedIndex ? 0.6 : 1.0);
+                view.setOnMouseClicked(event -> onCardSelected.accept(index));
+                CompletableFuture<Image> request = thumbnailService.getThumbnail(index, lang);
+                if (request.isDone() && !request.isCompletedExceptionally()) {
+                    view.setImage(request.join());
+                    continue;
+                }
+                view.setImage(null);
+                request.whenComplete((image, error) -> {
+                    if (error != null) {
+                        log.debug("Thumbnail for card {} unavailable", index, error);
+                        return;
+                    }
+                    Platform.runLater(() -> {
+                        if (getItem() != null && getItem() * columns + views.indexOf(view) == slot) {
+                            view.setImage(image);
+                        }
+                    });
+                });
+                requests.add(request);
+            }
+            setGraphic(box);
+        }
+
+        private void updateSelection() {
+            for (ImageView view : views) {
+                if (view.getUserData() instanceof Integer index) {
+                    view.setOpacity(index == selectedIndex ? 0.6 : 1.0);
+                }
+            }
+        }
+
+        private void ensureViews() {
+            double width = thumbnailService.getThumbnailWidth();
+            double height = thumbnailService.getThumbnailHeight();
+            while (views.size() < columns) {
+                ImageView view = new ImageView();
+                view.setPreserveRatio(true);
+                view.setSmooth(true);
+                views.add(view);
+            }
+            while (views.size() > columns) {
+                views.removeLast();
+            }
+            for (ImageView view : views) {
+                view.setFitWidth(width);
+                view.setFitHeight(height);
+            }
+            if (box.getChildren().size() != views.size()) {
+                box.getChildren().setAll(views);
+            }
+        }
+
+        private void cancelRequests() {
+            for (CompletableFuture<?> request : requests) {
+                request.cancel(false);
+            }
+            requests.clear();
+        }
+    }
+}
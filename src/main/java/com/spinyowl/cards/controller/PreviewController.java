@@ -4,12 +4,14 @@ import com.spinyowl.cards.config.AppConfig;
 import com.spinyowl.cards.config.ConfigService;
 import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
+import javafx.concurrent.Worker;
 import javafx.scene.control.SplitPane;
 import javafx.scene.control.ToggleButton;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.StackPane;
 import javafx.scene.web.WebView;
+import netscape.javascript.JSObject;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
@@ -21,6 +23,49 @@ public class PreviewController {
     private static final double MAX_ZOOM = 3.0;
     private static final double ZOOM_STEP = 0.1;
 
+    /**
+     * Persistent page the preview stays on. Cards are swapped into it by {@code __deckUpdate},
+     * which copies the card's root and body attributes, replaces head and body content only when
+     * they differ, and returns the laid-out content size in the same call. Scripts inside card
+     * templates are not executed by the swap. Images and stylesheets that finish loading later
+     * change the size again, so their load events are reported to {@code __deckContent}.
+     */
+    private static final String SHELL_HTML = """
+            <!DOCTYPE html>
+            <html><head><script>
+            (function () {
+              function copyAttributes(from, to) {
+                for (var i = to.attributes.length - 1; i >= 0; i--) {
+                  var name = to.attributes[i].name;
+                  if (!from.hasAttribute(name)) { to.removeAttribute(name); }
+                }
+                for (var j = 0; j < from.attributes.length; j++) {
+                  var attr = from.attributes[j];
+                  if (to.getAttribute(attr.name) !== attr.value) { to.setAttribute(attr.name, attr.value); }
+                }
+              }
+              window.__deckMeasure = function () {
+                var body = document.body, root = document.documentElement;
+                return {
+                  width: Math.max(body ? body.scrollWidth : 0, root ? root.scrollWidth : 0),
+                  height: Math.max(body ? body.scrollHeight : 0, root ? root.scrollHeight : 0)
+                };
+              };
+              window.__deckUpdate = function (html) {
+                var doc = new DOMParser().parseFromString(html, 'text/html');
+                copyAttributes(doc.documentElement, document.documentElement);
+                if (document.head.innerHTML !== doc.head.innerHTML) { document.head.innerHTML = doc.head.innerHTML; }
+                copyAttributes(doc.body, document.body);
+                if (document.body.innerHTML !== doc.body.innerHTML) { document.body.innerHTML = doc.body.innerHTML; }
+                return window.__deckMeasure();
+              };
+              document.addEventListener('load', function (event) {
+                if (event.target !== document && window.__deckContent) { window.__deckContent.resourceLoaded(); }
+              }, true);
+            })();
+            </script></head><body></body></html>
+            """;
+
     private final ConfigService configService;
     private final AppConfig appConfig;
     private final WebView webView;
@@ -33,11 +78,22 @@ public class PreviewController {
     private ChangeListener<Number> previewDividerListener;
     private SplitPane.Divider previewDivider;
     private double currentZoom = DEFAULT_ZOOM;
+    private boolean shellReady;
+    private boolean shellLoading;
+    private boolean shellUnsupported;
+    private String pendingContent;
     private final ChangeListener<Number> previewResizeListener = (obs, oldVal, newVal) -> {
         if (isFitToContainerActive()) {
             fitPreviewToContainer();
         }
     };
+    private boolean fitScheduled;
+    private double contentWidth = Double.NaN;
+    private double contentHeight = Double.NaN;
+    /**
+     * Kept here because WebKit holds objects exposed to scripts only weakly.
+     */
+    private final ContentListener contentListener = new ContentListener();
 
     @Setter
     private ProjectViewController projectViewController;
@@ -61,6 +117,10 @@ public class PreviewController {
     }
 
     public void initialize() {
+        if (webView != null) {
+            webView.getEngine().getLoadWorker().stateProperty().addListener((obs, oldState, newState) -> onLoadStateChanged(newState));
+        }
+
         if (previewToggle != null) {
             previewToggle.setSelected(appConfig.isPreviewVisible());
         }
@@ -86,6 +146,28 @@ public class PreviewController {
         updatePreviewVisibility(previewToggle.isSelected(), true);
     }
 
+    /**
+     * Shows rendered card HTML in the preview. The first call loads the shell page; afterwards a
+     * card switch is a DOM update inside the already loaded document. Must be called on the FX
+     * application thread.
+     */
+    public void showContent(String html) {
+        if (webView == null) {
+            return;
+        }
+        pendingContent = html != null ? html : "";
+        if (shellUnsupported) {
+            invalidateContentSize();
+            webView.getEngine().loadContent(pendingContent);
+            pendingContent = null;
+        } else if (shellReady) {
+            flushPendingContent();
+        } else if (!shellLoading) {
+            shellLoading = true;
+            webView.getEngine().loadContent(SHELL_HTML);
+        }
+    }
+
     public void zoomIn() {
         disableFitToContainer();
         adjustZoom(ZOOM_STEP);
@@ -211,43 +293,102 @@ public class PreviewController {
         webView.setZoom(clamped);
     }
 
+    private void onLoadStateChanged(Worker.State state) {
+        if (state == Worker.State.SUCCEEDED) {
+            boolean loadedShell = shellLoading;
+            shellLoading = false;
+            shellReady = loadedShell && isShellLoaded();
+            if (shellReady) {
+                ((JSObject) webView.getEngine().executeScript("window")).setMember("__deckContent", contentListener);
+                flushPendingContent();
+            } else if (loadedShell) {
+                log.warn("Preview shell page unavailable - falling back to full page loads");
+                shellUnsupported = true;
+                if (pendingContent != null) {
+                    webView.getEngine().loadContent(pendingContent);
+                    pendingContent = null;
+                }
+            } else if (isFitToContainerActive()) {
+                fitPreviewToContainer();
+            }
+        } else if (state == Worker.State.SCHEDULED || state == Worker.State.RUNNING) {
+            shellReady = false;
+            invalidateContentSize();
+        } else if (state == Worker.State.FAILED || state == Worker.State.CANCELLED) {
+            shellReady = false;
+            shellLoading = false;
+        }
+    }
+
+    private boolean isShellLoaded() {
+        try {
+            return Boolean.TRUE.equals(webView.getEngine().executeScript("typeof window.__deckUpdate === 'function'"));
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private void flushPendingContent() {
+        String html = pendingContent;
+        pendingContent = null;
+        if (html == null) {
+            return;
+        }
+        try {
+            JSObject window = (JSObject) webView.getEngine().executeScript("window");
+            Object size = window.call("__deckUpdate", html);
+            if (size instanceof JSObject measured) {
+                cacheContentSize(toDouble(measured.getMember("width")), toDouble(measured.getMember("height")));
+            } else {
+                invalidateContentSize();
+            }
+            if (isFitToContainerActive()) {
+                fitToContent(contentWidth, contentHeight);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to update preview document, loading the card as a page instead", e);
+            shellReady = false;
+            invalidateContentSize();
+            webView.getEngine().loadContent(html);
+        }
+    }
+
+    /**
+     * Receives the load events of resources inside the shell page, which run on the FX application
+     * thread. Public so that scripts can call it.
+     */
+    public final class ContentListener {
+        private ContentListener() {
+        }
+
+        public void resourceLoaded() {
+            invalidateContentSize();
+            fitPreviewToContainer();
+        }
+    }
+
+    /**
+     * Schedules a fit for the next pulse. Any number of resize notifications within one pulse
+     * result in a single computation, which only touches WebKit when the content size of the
+     * current document is not known yet.
+     */
     private void fitPreviewToContainer() {
-        if (webView == null || previewContainer == null || !isFitToContainerActive()) {
+        if (webView == null || previewContainer == null || !isFitToContainerActive() || fitScheduled) {
             return;
         }
 
+        fitScheduled = true;
         Platform.runLater(() -> {
+            fitScheduled = false;
             if (!isFitToContainerActive()) {
                 return;
             }
-            double containerWidth = previewContainer.getWidth();
-            double containerHeight = previewContainer.getHeight();
-            if (containerWidth <= 0 || containerHeight <= 0) {
-                return;
-            }
 
             try {
-                Object widthObj = webView.getEngine().executeScript(
-                        "Math.max(document.body ? document.body.scrollWidth : 0, document.documentElement ? document.documentElement.scrollWidth : 0)"
-                );
-                Object heightObj = webView.getEngine().executeScript(
-                        "Math.max(document.body ? document.body.scrollHeight : 0, document.documentElement ? document.documentElement.scrollHeight : 0)"
-                );
-
-                double contentWidth = toDouble(widthObj);
-                double contentHeight = toDouble(heightObj);
-
-                if (contentWidth <= 0 || contentHeight <= 0) {
-                    applyZoom(DEFAULT_ZOOM);
-                    return;
-                }
-
-                double targetZoom = Math.min(containerWidth / contentWidth, containerHeight / contentHeight);
-
-                log.info("Zooming on autofit: {},{},{},{},{}", containerWidth, containerHeight, contentWidth, contentHeight, targetZoom);
-                if (Double.isFinite(targetZoom) && targetZoom > 0) {
-                    applyZoom(targetZoom);
+                if (!hasContentSize()) {
+                    measureContentSize();
                 }
+                fitToContent(contentWidth, contentHeight);
             } catch (RuntimeException ex) {
                 log.warn("Failed to fit preview to container", ex);
                 applyZoom(DEFAULT_ZOOM);
@@ -255,6 +396,57 @@ public class PreviewController {
         });
     }
 
+    private void measureContentSize() {
+        if (shellReady) {
+            JSObject size = (JSObject) webView.getEngine().executeScript("window.__deckMeasure()");
+            cacheContentSize(toDouble(size.getMember("width")), toDouble(size.getMember("height")));
+        } else {
+            Object size = webView.getEngine().executeScript(
+                    "[Math.max(document.body ? document.body.scrollWidth : 0, document.documentElement ? document.documentElement.scrollWidth : 0),"
+                            + " Math.max(document.body ? document.body.scrollHeight : 0, document.documentElement ? document.documentElement.scrollHeight : 0)]");
+            if (size instanceof JSObject array) {
+                cacheContentSize(toDouble(array.getSlot(0)), toDouble(array.getSlot(1)));
+            }
+        }
+    }
+
+    private boolean hasContentSize() {
+        return contentWidth > 0 && contentHeight > 0;
+    }
+
+    private void cacheContentSize(double width, double height) {
+        contentWidth = width;
+        contentHeight = height;
+    }
+
+    private void invalidateContentSize() {
+        contentWidth = Double.NaN;
+        contentHeight = Double.NaN;
+    }
+
+    private void fitToContent(double contentWidth, double contentHeight) {
+        if (previewContainer == null) {
+            return;
+        }
+        double containerWidth = previewContainer.getWidth();
+        double containerHeight = previewContainer.getHeight();
+        if (containerWidth <= 0 || containerHeight <= 0) {
+            return;
+        }
+
+        if (!(contentWidth > 0) || !(contentHeight > 0)) {
+            applyZoom(DEFAULT_ZOOM);
+            return;
+        }
+
+        double targetZoom = Math.min(containerWidth / contentWidth, containerHeight / contentHeight);
+
+        log.debug("Zooming on autofit: {},{},{},{},{}", containerWidth, containerHeight, contentWidth, contentHeight, targetZoom);
+        if (Double.isFinite(targetZoom) && targetZoom > 0) {
+            applyZoom(targetZoom);
+        }
+    }
+
     private double toDouble(Object value) {
         if (value instanceof Number number) {
             return number.doubleValue();
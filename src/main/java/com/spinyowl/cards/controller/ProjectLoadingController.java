@@ -0,0 +1,57 @@
+package com.spinyowl.cards.controller;
+
+import javafx.concurrent.Task;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+
+/**
+ * Overlay shown on top of the deck builder while a project is being opened. It follows the
+ * progress and message of the opening task and offers to cancel it.
+ */
+public class ProjectLoadingController {
+
+    private final StackPane container;
+    private final Label titleLabel = new Label();
+    private final Label messageLabel = new Label();
+    private final ProgressBar progressBar = new ProgressBar();
+    private final Button cancelButton = new Button("Cancel");
+    private final VBox overlay = new VBox(10, titleLabel, progressBar, messageLabel, cancelButton);
+
+    public ProjectLoadingController(StackPane container) {
+        this.container = container;
+        titleLabel.setStyle("-fx-font-size: 16px; -fx-font-weight: bold;");
+        messageLabel.setStyle("-fx-text-fill: gray;");
+        progressBar.setPrefWidth(240);
+        overlay.setAlignment(Pos.CENTER);
+        overlay.setPadding(new Insets(20));
+        overlay.setStyle("-fx-background-color: -fx-background;");
+    }
+
+    public void show(Task<?> task) {
+        if (container == null) {
+            return;
+        }
+        titleLabel.textProperty().bind(task.titleProperty());
+        messageLabel.textProperty().bind(task.messageProperty());
+        progressBar.progressProperty().bind(task.progressProperty());
+        cancelButton.setOnAction(event -> task.cancel(true));
+        if (!container.getChildren().contains(overlay)) {
+            container.getChildren().add(overlay);
+        }
+    }
+
+    public void hide() {
+        titleLabel.textProperty().unbind();
+        messageLabel.textProperty().unbind();
+        progressBar.progressProperty().unbind();
+        cancelButton.setOnAction(null);
+        if (container != null) {
+            container.getChildren().remove(overlay);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.spinyowl.cards.controller;
+
+import com.spinyowl.cards.service.RasterExporter;
+import javafx.geometry.Insets;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.layout.GridPane;
+
+/**
+ * Asks for the resolution of an image export and whether to assemble sprite sheets.
+ */
+public final class RasterExportDialog extends Dialog<RasterExporter.Options> {
+
+    public RasterExportDialog() {
+        setTitle("Export Images");
+        setHeaderText("Export the cards as PNG images");
+
+        ComboBox<Integer> dpiBox = new ComboBox<>();
+        dpiBox.getItems().setAll(150, 300, 600);
+        dpiBox.setValue(300);
+        CheckBox sheetsBox = new CheckBox("Also build 10 x 7 sprite sheets for Tabletop Simulator");
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(10));
+        grid.addRow(0, new Label("Resolution (DPI):"), dpiBox);
+        grid.add(sheetsBox, 0, 1, 2, 1);
+        getDialogPane().setContent(grid);
+        getDialogPane().getButtonTypes().setAll(ButtonType.OK, ButtonType.CANCEL);
+
+        setResultConverter(button -> {
+            if (button != ButtonType.OK) {
+                return null;
+            }
+            double dpi = dpiBox.getValue();
+            return sheetsBox.isSelected()
+                    ? RasterExporter.Options.withTabletopSheets(dpi)
+                    : RasterExporter.Options.cardsOnly(dpi);
+        });
+    }
+}
@@ -0,0 +1,147 @@
+package com.spinyowl.cards.controller;
+
+import com.spinyowl.cards.model.RenderDiagnostic;
+import com.spinyowl.cards.service.RenderValidator;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Hyperlink;
+import javafx.scene.control.Label;
+import javafx.scene.layout.FlowPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Panel laid over the top of the preview listing what went wrong with the card shown, with the
+ * template and line of each problem, and the cards the background check found errors in. Those
+ * cards can be opened from the panel. The panel hides itself when there is nothing to report and
+ * can be dismissed until the next problem appears.
+ */
+public class RenderDiagnosticsOverlay {
+
+    private static final int MAX_LINES = 8;
+    private static final int MAX_CARD_LINKS = 10;
+
+    private final StackPane container;
+    private final Consumer<String> openCard;
+    private final VBox cardProblems = new VBox(2);
+    private final Label projectSummary = new Label();
+    private final FlowPane errorCardLinks = new FlowPane(6, 2);
+    private final VBox overlay;
+
+    private List<RenderDiagnostic> cardDiagnostics = List.of();
+    private RenderValidator.Report report;
+    private boolean dismissed;
+
+    public RenderDiagnosticsOverlay(StackPane container, Consumer<String> openCard) {
+        this.container = container;
+        this.openCard = openCard;
+
+        Label title = new Label("Render problems");
+        title.setStyle("-fx-font-weight: bold;");
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        Button close = new Button("×");
+        close.setFocusTraversable(false);
+        close.setOnAction(event -> {
+            dismissed = true;
+            update();
+        });
+        HBox header = new HBox(6, title, spacer, close);
+        header.setAlignment(Pos.CENTER_LEFT);
+
+        overlay = new VBox(4, header, cardProblems, projectSummary, errorCardLinks);
+        overlay.setPadding(new Insets(8));
+        overlay.setMaxHeight(Region.USE_PREF_SIZE);
+        overlay.setStyle("-fx-background-color: rgba(255, 248, 240, 0.95); -fx-border-color: #d9534f;"
+                + " -fx-border-width: 0 0 0 4;");
+        StackPane.setAlignment(overlay, Pos.TOP_CENTER);
+        StackPane.setMargin(overlay, new Insets(8));
+    }
+
+    /**
+     * Shows the problems of the card in the preview. Must be called on the FX application thread.
+     */
+    public void showCard(List<RenderDiagnostic> diagnostics) {
+        List<RenderDiagnostic> shown = diagnostics != null ? List.copyOf(diagnostics) : List.of();
+        if (!shown.equals(cardDiagnostics)) {
+            dismissed = false;
+        }
+        cardDiagnostics = shown;
+        update();
+    }
+
+    /**
+     * Shows the result of the latest background check. Must be called on the FX application
+     * thread.
+     */
+    public void showReport(RenderValidator.Report report) {
+        if (report != null && this.report != null
+                && !report.cardsWithErrors().equals(this.report.cardsWithErrors())) {
+            dismissed = false;
+        }
+        this.report = report;
+        update();
+    }
+
+    public void clear() {
+        cardDiagnostics = List.of();
+        report = null;
+        dismissed = false;
+        update();
+    }
+
+    private void update() {
+        if (container == null) {
+            return;
+        }
+        cardProblems.getChildren().clear();
+        int shown = Math.min(MAX_LINES, cardDiagnostics.size());
+        for (RenderDiagnostic diagnostic : cardDiagnostics.subList(0, shown)) {
+            cardProblems.getChildren().add(line(diagnostic));
+        }
+        if (cardDiagnostics.size() > shown) {
+            cardProblems.getChildren().add(new Label("… and " + (cardDiagnostics.size() - shown) + " more"));
+        }
+
+        errorCardLinks.getChildren().clear();
+        boolean projectFailures = report != null && report.hasErrors();
+        if (projectFailures) {
+            List<String> ids = report.cardsWithErrors();
+            projectSummary.setText(ids.size() + " of " + report.cardCount() + " card(s) have errors in "
+                    + String.join(", ", report.languages()) + " (" + report.warningCount() + " warning(s)):");
+            for (String id : ids.subList(0, Math.min(MAX_CARD_LINKS, ids.size()))) {
+                Hyperlink link = new Hyperlink(id);
+                link.setOnAction(event -> openCard.accept(id));
+                errorCardLinks.getChildren().add(link);
+            }
+        }
+        projectSummary.setVisible(projectFailures);
+        projectSummary.setManaged(projectFailures);
+        errorCardLinks.setVisible(projectFailures);
+        errorCardLinks.setManaged(projectFailures);
+
+        boolean visible = !dismissed && (!cardDiagnostics.isEmpty() || projectFailures);
+        if (visible && !container.getChildren().contains(overlay)) {
+            container.getChildren().add(overlay);
+        } else if (!visible) {
+            container.getChildren().remove(overlay);
+        }
+    }
+
+    private static Label line(RenderDiagnostic diagnostic) {
+        String location = diagnostic.location();
+        Label label = new Label((location.isEmpty() ? "" : location + "  ") + diagnostic.message());
+        label.setWrapText(true);
+        label.setStyle(diagnostic.isError()
+                ? "-fx-text-fill: #b52b27; -fx-font-family: monospace;"
+                : "-fx-text-fill: #8a6d3b; -fx-font-family: monospace;");
+        return label;
+    }
+}
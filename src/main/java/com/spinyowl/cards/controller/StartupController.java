@@ -1,9 +1,10 @@
 package com.spinyowl.cards.controller;
 
 import com.spinyowl.cards.config.ConfigService;
+import com.spinyowl.cards.service.OpenProjectTask;
 import com.spinyowl.cards.service.ProjectCreator;
-import com.spinyowl.cards.service.ProjectManager;
 import com.spinyowl.cards.ui.WindowStateHandler;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -40,7 +41,6 @@ public class StartupController {
     @FXML
     private ListView<String> recentProjectsList;
 
-    private final ConfigService configService = ConfigService.getInstance();
     private final ObservableList<String> recentProjectsItems = FXCollections.observableArrayList();
 
     @FXML
@@ -48,7 +48,7 @@ public class StartupController {
         if (recentProjectsList != null) {
             recentProjectsList.setItems(recentProjectsItems);
             recentProjectsList.setCellFactory(list -> new RecentProjectCell());
-            refreshRecentProjects();
+            ConfigService.loadAsync().thenAccept(service -> Platform.runLater(this::refreshRecentProjects));
         }
     }
 
@@ -56,7 +56,7 @@ public class StartupController {
     public void onCreateProject() {
         DirectoryChooser chooser = new DirectoryChooser();
         chooser.setTitle("Select Project Folder");
-        File parent = configService.getLastProjectsParentDirectory();
+        File parent = configService().getLastProjectsParentDirectory();
         if (parent != null) {
             chooser.setInitialDirectory(parent);
         }
@@ -79,11 +79,11 @@ public class StartupController {
     public void onOpenProject() {
         DirectoryChooser chooser = new DirectoryChooser();
         chooser.setTitle("Open Project Folder");
-        File recent = configService.getMostRecentProjectDirectory();
+        File recent = configService().getMostRecentProjectDirectory();
         if (recent != null) {
             chooser.setInitialDirectory(recent);
         } else {
-            File parent = configService.getLastProjectsParentDirectory();
+            File parent = configService().getLastProjectsParentDirectory();
             if (parent != null) {
                 chooser.setInitialDirectory(parent);
             }
@@ -94,30 +94,44 @@ public class StartupController {
     }
 
     private void refreshRecentProjects() {
-        recentProjectsItems.setAll(configService.getConfig().getRecentProjects());
+        recentProjectsItems.setAll(configService().getConfig().getRecentProjects());
     }
 
-    private void openProject(Path dir) {
-        try {
-            ProjectManager pm = new ProjectManager();
-            pm.openProject(dir);
-            configService.markProjectOpened(dir);
-            configService.setLastProjectsParent(dir.getParent());
+    private ConfigService configService() {
+        return ConfigService.getInstance();
+    }
+
+    /**
+     * Shows a status message, for example why the previous project could not be opened.
+     */
+    public void showStatus(String message) {
+        if (statusLabel != null) {
+            statusLabel.setText(message);
+        }
+    }
 
+    /**
+     * Switches to the deck builder and starts opening the project in {@code dir}. Returns the
+     * opening task, or {@code null} if the deck builder could not be shown.
+     */
+    public OpenProjectTask openProject(Path dir) {
+        try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/main/ui/deck-builder.fxml"));
             Stage stage = (Stage) statusLabel.getScene().getWindow();
             Scene scene = new Scene(loader.load());
             DeckBuilderController controller = loader.getController();
-            controller.setProject(pm);
 
             stage.setScene(scene);
             stage.setResizable(true);
-            WindowStateHandler.enable(stage, configService);
-            stage.setTitle(APPLICATION_ID + " - " + pm.getProjectName());
+            WindowStateHandler.enable(stage, configService());
+            Path fileName = dir.getFileName();
+            stage.setTitle(APPLICATION_ID + " - " + (fileName != null ? fileName : dir));
             stage.show();
+            return controller.openProject(dir);
         } catch (Exception e) {
             log.error("Failed to open project", e);
             statusLabel.setText("Failed to open project: " + e.getMessage());
+            return null;
         }
     }
 
@@ -139,7 +153,7 @@ public class StartupController {
         private void onClickOnDelete(ActionEvent event) {
             String item = getItem();
             if (item != null) {
-                configService.removeRecentProject(item);
+                configService().removeRecentProject(item);
                 refreshRecentProjects();
             }
             event.consume();
@@ -166,14 +180,14 @@ public class StartupController {
                 Path path = Path.of(projectPath);
                 if (!Files.isDirectory(path)) {
                     statusLabel.setText("Project directory not found: " + projectPath);
-                    configService.removeRecentProject(projectPath);
+                    configService().removeRecentProject(projectPath);
                     refreshRecentProjects();
                     return;
                 }
                 openProject(path);
             } catch (InvalidPathException e) {
                 statusLabel.setText("Invalid project path: " + projectPath);
-                configService.removeRecentProject(projectPath);
+                configService().removeRecentProject(projectPath);
                 refreshRecentProjects();
             }
         }
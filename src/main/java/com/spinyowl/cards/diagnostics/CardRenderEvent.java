@@ -0,0 +1,29 @@
+package com.spinyowl.cards.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Rendering one card.
+ */
+@Name("com.spinyowl.cards.CardRender")
+@Label("Card Render")
+@Category({"Deck Builder", "Rendering"})
+@StackTrace(false)
+public class CardRenderEvent extends jdk.jfr.Event {
+    @Label("Card Id")
+    public String cardId;
+
+    @Label("Template")
+    public String template;
+
+    @Label("Language")
+    public String language;
+
+    @Label("Output Length")
+    @Description("Number of characters written")
+    public long outputLength;
+}
@@ -0,0 +1,24 @@
+package com.spinyowl.cards.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Parsing one card CSV file.
+ */
+@Name("com.spinyowl.cards.CsvParse")
+@Label("CSV Parse")
+@Category({"Deck Builder", "Project"})
+@StackTrace(false)
+public class CsvParseEvent extends jdk.jfr.Event {
+    @Label("File")
+    public String file;
+
+    @Label("Card Count")
+    public int cardCount;
+
+    @Label("Cell Errors")
+    public int cellErrors;
+}
@@ -0,0 +1,106 @@
+package com.spinyowl.cards.diagnostics;
+
+import com.spinyowl.cards.config.AppPaths;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Starts and dumps JDK Flight Recorder recordings with the application's events and the JDK's
+ * {@code profile} settings. Recordings are written to {@code recordings/} next to the logs, so
+ * they can be attached to bug reports. A recording is started from the deck builder toolbar or
+ * for a whole session with the {@value #RECORD_ARGUMENT} command line argument.
+ */
+@Slf4j
+public final class FlightRecordings {
+
+    public static final String RECORD_ARGUMENT = "--record";
+
+    private static final List<Class<? extends jdk.jfr.Event>> EVENT_TYPES = List.of(
+            ProjectLoadEvent.class, CsvParseEvent.class, TranslationLoadEvent.class,
+            TemplateCompileEvent.class, CardRenderEvent.class, WatcherReloadEvent.class);
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static Recording recording;
+
+    private FlightRecordings() {
+    }
+
+    public static synchronized boolean isRecording() {
+        return recording != null;
+    }
+
+    /**
+     * Starts a recording unless one is already running.
+     */
+    public static synchronized void start() throws IOException {
+        if (recording != null) {
+            return;
+        }
+        recording = newRecording();
+        recording.start();
+        log.info("Flight recording started");
+    }
+
+    /**
+     * Starts a recording that is written to disk when the application exits, for
+     * {@value #RECORD_ARGUMENT}.
+     */
+    public static synchronized void startForSession() throws IOException {
+        start();
+        Path destination = nextRecordingFile();
+        recording.setDestination(destination);
+        recording.setDumpOnExit(true);
+        log.info("Flight recording of this session will be written to {}", destination);
+    }
+
+    /**
+     * Stops the running recording and writes it to a new file. Returns the file, or {@code null}
+     * when nothing was recording.
+     */
+    public static synchronized Path stopAndDump() throws IOException {
+        if (recording == null) {
+            return null;
+        }
+        Recording stopping = recording;
+        recording = null;
+        try {
+            Path destination = stopping.getDestination() != null ? stopping.getDestination() : nextRecordingFile();
+            stopping.stop();
+            stopping.dump(destination);
+            log.info("Flight recording written to {}", destination);
+            return destination;
+        } finally {
+            stopping.close();
+        }
+    }
+
+    private static Recording newRecording() throws IOException {
+        Recording created;
+        try {
+            created = new Recording(Configuration.getConfiguration("profile"));
+        } catch (ParseException e) {
+            throw new IOException("Failed to read the JFR profile settings", e);
+        }
+        created.setName("deck-builder");
+        created.setToDisk(true);
+        for (Class<? extends jdk.jfr.Event> type : EVENT_TYPES) {
+            created.enable(type);
+        }
+        return created;
+    }
+
+    private static Path nextRecordingFile() throws IOException {
+        Path directory = AppPaths.getLogDirectory().resolve("recordings");
+        Files.createDirectories(directory);
+        return directory.resolve("deck-builder-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr");
+    }
+}
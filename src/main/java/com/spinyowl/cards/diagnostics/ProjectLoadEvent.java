@@ -0,0 +1,40 @@
+package com.spinyowl.cards.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Opening or reloading a project, with the time spent in each phase.
+ */
+@Name("com.spinyowl.cards.ProjectLoad")
+@Label("Project Load")
+@Category({"Deck Builder", "Project"})
+@Description("Opening or reloading a project")
+@StackTrace(false)
+public class ProjectLoadEvent extends jdk.jfr.Event {
+    @Label("Project")
+    public String project;
+
+    @Label("Operation")
+    @Description("open, reload or incremental reload")
+    public String operation;
+
+    @Label("Card Count")
+    public int cardCount;
+
+    @Label("Configuration")
+    @Timespan
+    public long configurationDuration;
+
+    @Label("Cards")
+    @Timespan
+    public long cardsDuration;
+
+    @Label("Translations")
+    @Timespan
+    public long translationsDuration;
+}
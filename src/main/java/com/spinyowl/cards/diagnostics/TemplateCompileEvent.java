@@ -0,0 +1,23 @@
+package com.spinyowl.cards.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Looking up a template in the Pebble engine. Lookups served from the engine's cache finish
+ * below the threshold, so recorded events are effectively compilations.
+ */
+@Name("com.spinyowl.cards.TemplateCompile")
+@Label("Template Compile")
+@Category({"Deck Builder", "Rendering"})
+@Description("Loading and compiling a Pebble template")
+@Threshold("1 ms")
+@StackTrace(false)
+public class TemplateCompileEvent extends jdk.jfr.Event {
+    @Label("Template")
+    public String template;
+}
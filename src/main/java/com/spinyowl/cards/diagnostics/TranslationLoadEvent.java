@@ -0,0 +1,21 @@
+package com.spinyowl.cards.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Reading one translation file.
+ */
+@Name("com.spinyowl.cards.TranslationLoad")
+@Label("Translation Load")
+@Category({"Deck Builder", "Project"})
+@StackTrace(false)
+public class TranslationLoadEvent extends jdk.jfr.Event {
+    @Label("File")
+    public String file;
+
+    @Label("Top-level Keys")
+    public int keyCount;
+}
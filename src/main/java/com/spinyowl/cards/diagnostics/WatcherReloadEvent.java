@@ -0,0 +1,22 @@
+package com.spinyowl.cards.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A reload triggered by file changes reported by the project watcher, covering the project reload
+ * and the refresh of the views.
+ */
+@Name("com.spinyowl.cards.WatcherReload")
+@Label("Watcher Reload")
+@Category({"Deck Builder", "Project"})
+@StackTrace(false)
+public class WatcherReloadEvent extends jdk.jfr.Event {
+    @Label("Changed Paths")
+    public int changedPathCount;
+
+    @Label("Paths")
+    public String paths;
+}
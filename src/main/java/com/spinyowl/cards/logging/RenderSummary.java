@@ -0,0 +1,84 @@
+package com.spinyowl.cards.logging;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates per-item timings from a hot loop into one periodic info line such as
+ * {@code Rendered 4,000 cards in 3.1s (12.3s render time, 2 failed)}, instead of logging every
+ * item. The first figure is the wall-clock span from the earliest item started to the latest one
+ * finished; the render time adds up the items, so it exceeds the span when several threads
+ * render at once. A summary is written by the first {@link #record} after the interval has
+ * elapsed, or explicitly by {@link #flush()} at the end of a batch. Safe to use from several
+ * threads.
+ */
+@Slf4j
+public final class RenderSummary {
+
+    private final String verb;
+    private final String noun;
+    private final long intervalNanos;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicLong firstStarted = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong lastFinished = new AtomicLong(Long.MIN_VALUE);
+
+    public RenderSummary(String verb, String noun, long interval, TimeUnit unit) {
+        this.verb = verb;
+        this.noun = noun;
+        this.intervalNanos = unit.toNanos(interval);
+    }
+
+    /**
+     * Records one item that started at {@code startedNanos}, as returned by
+     * {@link System#nanoTime()}, and has just finished.
+     */
+    public void record(long startedNanos, boolean failed) {
+        long now = System.nanoTime();
+        count.increment();
+        busyNanos.add(now - startedNanos);
+        firstStarted.accumulateAndGet(startedNanos, Math::min);
+        lastFinished.accumulateAndGet(now, Math::max);
+        if (failed) {
+            failures.increment();
+        }
+        long start = windowStart.get();
+        if (now - start >= intervalNanos && windowStart.compareAndSet(start, now)) {
+            logSummary();
+        }
+    }
+
+    /**
+     * Logs what has been recorded since the last summary, if anything.
+     */
+    public void flush() {
+        windowStart.set(System.nanoTime());
+        logSummary();
+    }
+
+    private void logSummary() {
+        long items = count.sumThenReset();
+        long failed = failures.sumThenReset();
+        long nanos = busyNanos.sumThenReset();
+        long first = firstStarted.getAndSet(Long.MAX_VALUE);
+        long last = lastFinished.getAndSet(Long.MIN_VALUE);
+        if (items == 0) {
+            return;
+        }
+        if (log.isInfoEnabled()) {
+            log.info(format(verb, noun, items, failed, Math.max(0, last - first), nanos));
+        }
+    }
+
+    static String format(String verb, String noun, long items, long failed, long elapsedNanos, long busyNanos) {
+        String text = String.format(Locale.ROOT, "%s %,d %s in %.1fs (%.1fs render time", verb, items, noun,
+                elapsedNanos / 1e9, busyNanos / 1e9);
+        return failed > 0 ? text + ", " + failed + " failed)" : text + ")";
+    }
+}
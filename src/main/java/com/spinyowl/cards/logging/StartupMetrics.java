@@ -0,0 +1,67 @@
+package com.spinyowl.cards.logging;
+
+import com.spinyowl.cards.config.AppPaths;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures the time from process start to the first visible window and keeps a history of the
+ * measurements in {@code startup-times.csv} next to the logs, so regressions in cold start show
+ * up over time. Each line records the timestamp, the milliseconds to the first window, the Java
+ * version and the launch mode given by the {@value #LAUNCH_PROPERTY} system property.
+ */
+@Slf4j
+public final class StartupMetrics {
+
+    public static final String LAUNCH_PROPERTY = "deckbuilder.launch";
+    private static final String HISTORY_FILE = "startup-times.csv";
+
+    private static final AtomicBoolean RECORDED = new AtomicBoolean();
+    private static volatile long mainEnteredNanos = System.nanoTime();
+
+    private StartupMetrics() {
+    }
+
+    /**
+     * Marks the entry into {@code main}, used when the process start time is unavailable.
+     */
+    public static void markMainEntered() {
+        mainEnteredNanos = System.nanoTime();
+    }
+
+    /**
+     * Records the time to the first window. Only the first call has an effect.
+     */
+    public static void firstWindowShown() {
+        if (!RECORDED.compareAndSet(false, true)) {
+            return;
+        }
+        long millis = ProcessHandle.current().info().startInstant()
+                .map(start -> Instant.now().toEpochMilli() - start.toEpochMilli())
+                .orElseGet(() -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - mainEnteredNanos));
+        String launch = System.getProperty(LAUNCH_PROPERTY, "default");
+        log.info("Time to first window: {} ms ({} launch)", millis, launch);
+        append(millis, launch);
+    }
+
+    private static void append(long millis, String launch) {
+        Path history = AppPaths.getLogDirectory().resolve(HISTORY_FILE);
+        String line = "%s,%d,%s,%s%n".formatted(Instant.now(), millis, Runtime.version(), launch);
+        try {
+            Files.createDirectories(history.getParent());
+            if (!Files.exists(history)) {
+                Files.writeString(history, "timestamp,millis,java,launch" + System.lineSeparator());
+            }
+            Files.writeString(history, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.debug("Failed to record startup time in {}", history, e);
+        }
+    }
+}
@@ -68,6 +68,22 @@ public class Card {
         return asString(key);
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Card other)) {
+            return false;
+        }
+        return properties.equals(other.properties);
+    }
+
+    @Override
+    public int hashCode() {
+        return properties.hashCode();
+    }
+
     private String asString(String key) {
         Object value = properties.get(key);
         return value != null ? value.toString() : null;
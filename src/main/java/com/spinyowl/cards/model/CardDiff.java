@@ -0,0 +1,198 @@
+package com.spinyowl.cards.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Row-level difference between two card lists, keyed by card {@code id}. Cards are reported as
+ * added, removed or modified (present in both with different properties). Cards whose relative
+ * order changed are reported as moved; a card that merely shifted because rows were inserted or
+ * removed around it is not considered moved.
+ */
+public final class CardDiff {
+
+    private static final CardDiff EMPTY = new CardDiff(List.of(), List.of(), List.of(), List.of());
+
+    private final List<Card> added;
+    private final List<Card> removed;
+    private final List<Card> modified;
+    private final List<Card> moved;
+    private final Set<String> affectedIds = new HashSet<>();
+
+    private CardDiff(List<Card> added, List<Card> removed, List<Card> modified, List<Card> moved) {
+        this.added = Collections.unmodifiableList(added);
+        this.removed = Collections.unmodifiableList(removed);
+        this.modified = Collections.unmodifiableList(modified);
+        this.moved = Collections.unmodifiableList(moved);
+        for (List<Card> cards : List.of(added, removed, modified, moved)) {
+            for (Card card : cards) {
+                affectedIds.add(card.getId());
+            }
+        }
+    }
+
+    public static CardDiff empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Computes the difference from {@code previous} to {@code current}. When an id occurs more than
+     * once in a list only its first occurrence takes part in the comparison.
+     */
+    public static CardDiff compute(List<Card> previous, List<Card> current) {
+        Map<String, Card> oldById = indexById(previous);
+        Map<String, Card> newById = indexById(current);
+
+        List<Card> added = new ArrayList<>();
+        List<Card> modified = new ArrayList<>();
+        for (Card card : newById.values()) {
+            Card old = oldById.get(card.getId());
+            if (old == null) {
+                added.add(card);
+            } else if (!old.equals(card)) {
+                modified.add(card);
+            }
+        }
+
+        List<Card> removed = new ArrayList<>();
+        for (Card card : oldById.values()) {
+            if (!newById.containsKey(card.getId())) {
+                removed.add(card);
+            }
+        }
+
+        List<Card> moved = findMoved(oldById, newById);
+
+        if (added.isEmpty() && removed.isEmpty() && modified.isEmpty() && moved.isEmpty()) {
+            return EMPTY;
+        }
+        return new CardDiff(added, removed, modified, moved);
+    }
+
+    public List<Card> getAdded() {
+        return added;
+    }
+
+    public List<Card> getRemoved() {
+        return removed;
+    }
+
+    public List<Card> getModified() {
+        return modified;
+    }
+
+    public List<Card> getMoved() {
+        return moved;
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && modified.isEmpty() && moved.isEmpty();
+    }
+
+    public int size() {
+        return added.size() + removed.size() + modified.size() + moved.size();
+    }
+
+    /**
+     * Returns {@code true} when the card with the given id was added, removed, modified or moved.
+     */
+    public boolean affects(String cardId) {
+        return cardId != null && affectedIds.contains(cardId);
+    }
+
+    @Override
+    public String toString() {
+        return "CardDiff{added=" + added.size()
+                + ", removed=" + removed.size()
+                + ", modified=" + modified.size()
+                + ", moved=" + moved.size() + "}";
+    }
+
+    private static Map<String, Card> indexById(List<Card> cards) {
+        Map<String, Card> byId = new LinkedHashMap<>();
+        if (cards != null) {
+            for (Card card : cards) {
+                byId.putIfAbsent(card.getId(), card);
+            }
+        }
+        return byId;
+    }
+
+    /**
+     * Cards kept in both lists are ordered by their previous position and mapped to their new
+     * position. The longest increasing run of new positions is the set of cards that stayed in
+     * relative order; every other retained card has moved.
+     */
+    private static List<Card> findMoved(Map<String, Card> oldById, Map<String, Card> newById) {
+        Map<String, Integer> newPositions = new HashMap<>();
+        int position = 0;
+        for (String id : newById.keySet()) {
+            newPositions.put(id, position++);
+        }
+
+        List<Card> retained = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (String id : oldById.keySet()) {
+            Integer newPosition = newPositions.get(id);
+            if (newPosition != null) {
+                retained.add(newById.get(id));
+                positions.add(newPosition);
+            }
+        }
+
+        boolean[] stable = longestIncreasingSubsequence(positions);
+        List<Card> moved = new ArrayList<>();
+        for (int i = 0; i < retained.size(); i++) {
+            if (!stable[i]) {
+                moved.add(retained.get(i));
+            }
+        }
+        moved.sort((a, b) -> Integer.compare(newPositions.get(a.getId()), newPositions.get(b.getId())));
+        return moved;
+    }
+
+    private static boolean[] longestIncreasingSubsequence(List<Integer> values) {
+        int n = values.size();
+        boolean[] member = new boolean[n];
+        if (n == 0) {
+            return member;
+        }
+
+        int[] tails = new int[n];
+        int[] previous = new int[n];
+        Arrays.fill(previous, -1);
+        int length = 0;
+        for (int i = 0; i < n; i++) {
+            int value = values.get(i);
+            int lo = 0;
+            int hi = length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values.get(tails[mid]) < value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            if (lo > 0) {
+                previous[i] = tails[lo - 1];
+            }
+            tails[lo] = i;
+            if (lo == length) {
+                length++;
+            }
+        }
+
+        for (int i = tails[length - 1]; i >= 0; i = previous[i]) {
+            member[i] = true;
+        }
+        return member;
+    }
+}
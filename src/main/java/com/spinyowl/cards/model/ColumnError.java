@@ -0,0 +1,23 @@
+package com.spinyowl.cards.model;
+
+import java.nio.file.Path;
+
+/**
+ * A cell that could not be converted to the type declared for its column. The cell is loaded as
+ * {@code null}.
+ *
+ * @param file   the card file containing the cell
+ * @param row    the record number within the file, starting at 1 for the first card
+ * @param cardId the id of the card, if it has one
+ * @param column the column name
+ * @param value  the raw cell value
+ * @param reason why the value was rejected
+ */
+public record ColumnError(Path file, long row, String cardId, String column, String value, String reason) {
+
+    @Override
+    public String toString() {
+        return "%s record %d (card %s), column '%s': '%s' is %s"
+                .formatted(file != null ? file.getFileName() : "?", row, cardId, column, value, reason);
+    }
+}
@@ -0,0 +1,73 @@
+package com.spinyowl.cards.model;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Column types declared under {@code columns} in {@code project.yml}, for example:
+ * <pre>
+ * columns:
+ *   cost: int
+ *   weight: decimal
+ *   unique: bool
+ *   tags: {type: list, separator: "|"}
+ * </pre>
+ * Columns without a declaration stay strings. The {@code id} and {@code template} columns are
+ * always strings.
+ */
+@Slf4j
+public record ColumnSchema(Map<String, ColumnType> types) {
+
+    private static final Set<String> RESERVED_COLUMNS = Set.of("id", "template");
+    private static final ColumnSchema EMPTY = new ColumnSchema(Map.of());
+
+    public ColumnSchema {
+        types = Collections.unmodifiableMap(new LinkedHashMap<>(types));
+    }
+
+    public static ColumnSchema empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds the schema from the {@code columns} configuration value. Invalid declarations are
+     * reported and skipped.
+     */
+    public static ColumnSchema fromConfig(Object columnsConfig) {
+        if (!(columnsConfig instanceof Map<?, ?> map) || map.isEmpty()) {
+            return EMPTY;
+        }
+        Map<String, ColumnType> types = new LinkedHashMap<>();
+        map.forEach((key, declaration) -> {
+            if (key == null) {
+                return;
+            }
+            String column = key.toString();
+            if (RESERVED_COLUMNS.contains(column)) {
+                log.warn("Column '{}' cannot be typed and stays a string", column);
+                return;
+            }
+            try {
+                ColumnType type = ColumnType.fromConfig(declaration);
+                if (type.kind() != ColumnType.Kind.STRING) {
+                    types.put(column, type);
+                }
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring type of column '{}': {}", column, e.getMessage());
+            }
+        });
+        return types.isEmpty() ? EMPTY : new ColumnSchema(types);
+    }
+
+    public boolean isEmpty() {
+        return types.isEmpty();
+    }
+
+    public ColumnType typeOf(String column) {
+        return types.getOrDefault(column, ColumnType.STRING);
+    }
+}
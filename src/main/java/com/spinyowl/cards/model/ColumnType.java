@@ -0,0 +1,132 @@
+package com.spinyowl.cards.model;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Type of a card column declared under {@code columns} in {@code project.yml}. Typed cells are
+ * converted once when the cards are loaded: {@code int} values become {@link Long},
+ * {@code decimal} values {@link BigDecimal}, {@code bool} values {@link Boolean}, and
+ * {@code list} values an immutable {@link List} of elements that may themselves be typed.
+ * <p>
+ * A type is declared either as a plain name ({@code cost: int}) or as a map
+ * ({@code tags: {type: list, separator: "|", of: string}}).
+ */
+public record ColumnType(Kind kind, String separator, Kind elementKind) {
+
+    public static final String DEFAULT_LIST_SEPARATOR = ";";
+
+    public enum Kind {
+        STRING, INT, DECIMAL, BOOL, LIST;
+
+        static Kind parse(String name) {
+            return switch (name.trim().toLowerCase(Locale.ROOT)) {
+                case "string", "text" -> STRING;
+                case "int", "integer", "long" -> INT;
+                case "decimal", "number", "float", "double" -> DECIMAL;
+                case "bool", "boolean" -> BOOL;
+                case "list" -> LIST;
+                default -> throw new IllegalArgumentException("unknown column type '" + name + "'");
+            };
+        }
+    }
+
+    public static final ColumnType STRING = new ColumnType(Kind.STRING, null, null);
+
+    public ColumnType {
+        if (kind == Kind.LIST) {
+            if (separator == null || separator.isEmpty()) {
+                separator = DEFAULT_LIST_SEPARATOR;
+            }
+            if (elementKind == null) {
+                elementKind = Kind.STRING;
+            }
+            if (elementKind == Kind.LIST) {
+                throw new IllegalArgumentException("nested list columns are not supported");
+            }
+        } else {
+            separator = null;
+            elementKind = null;
+        }
+    }
+
+    /**
+     * Parses a declaration from {@code project.yml}.
+     *
+     * @throws IllegalArgumentException if the declaration is not understood
+     */
+    public static ColumnType fromConfig(Object declaration) {
+        if (declaration instanceof Map<?, ?> map) {
+            Object type = map.get("type");
+            if (type == null) {
+                throw new IllegalArgumentException("missing 'type'");
+            }
+            Object separator = map.get("separator");
+            Object of = map.get("of");
+            return new ColumnType(Kind.parse(type.toString()),
+                    separator != null ? separator.toString() : null,
+                    of != null ? Kind.parse(of.toString()) : null);
+        }
+        if (declaration == null) {
+            throw new IllegalArgumentException("missing type");
+        }
+        return new ColumnType(Kind.parse(declaration.toString()), null, null);
+    }
+
+    /**
+     * Converts a raw cell. Blank cells become {@code null}, or an empty list for list columns.
+     *
+     * @throws IllegalArgumentException if the cell does not match the type
+     */
+    public Object parse(String raw) {
+        if (kind == Kind.STRING) {
+            return raw;
+        }
+        String value = raw != null ? raw.trim() : "";
+        if (kind == Kind.LIST) {
+            if (value.isEmpty()) {
+                return List.of();
+            }
+            List<Object> elements = new ArrayList<>();
+            for (String part : value.split(Pattern.quote(separator), -1)) {
+                String element = part.trim();
+                if (!element.isEmpty()) {
+                    elements.add(parseScalar(elementKind, element));
+                }
+            }
+            return Collections.unmodifiableList(elements);
+        }
+        return value.isEmpty() ? null : parseScalar(kind, value);
+    }
+
+    private static Object parseScalar(Kind kind, String value) {
+        return switch (kind) {
+            case STRING -> value;
+            case INT -> {
+                try {
+                    yield Long.parseLong(value);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("not an integer");
+                }
+            }
+            case DECIMAL -> {
+                try {
+                    yield new BigDecimal(value);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("not a decimal number");
+                }
+            }
+            case BOOL -> switch (value.toLowerCase(Locale.ROOT)) {
+                case "true", "yes", "y", "1" -> Boolean.TRUE;
+                case "false", "no", "n", "0" -> Boolean.FALSE;
+                default -> throw new IllegalArgumentException("not a boolean");
+            };
+            case LIST -> throw new IllegalStateException("nested list");
+        };
+    }
+}
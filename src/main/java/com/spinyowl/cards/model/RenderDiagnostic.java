@@ -0,0 +1,80 @@
+package com.spinyowl.cards.model;
+
+/**
+ * A problem found while rendering a card: the render failed, or it completed but looked up a
+ * translation that does not exist or referenced a file that is not there.
+ *
+ * @param kind     what went wrong
+ * @param cardId   the card being rendered
+ * @param lang     the language it was rendered in
+ * @param template the template reporting the problem, which may be one included by the card's
+ *                 template, or {@code null} when unknown
+ * @param line     the line within {@code template}, or {@code 0} when unknown
+ * @param key      the missing translation key or file, or {@code null}
+ * @param message  a description of the problem
+ */
+public record RenderDiagnostic(Kind kind, String cardId, String lang, String template, int line, String key,
+                               String message) {
+
+    public enum Severity {
+        ERROR,
+        WARNING
+    }
+
+    public enum Kind {
+        /**
+         * The template failed to compile or evaluate; the card has no output.
+         */
+        RENDER_FAILED(Severity.ERROR),
+        /**
+         * The card names a template that does not exist; the card has no output.
+         */
+        UNKNOWN_TEMPLATE(Severity.ERROR),
+        /**
+         * The output references a local file that does not exist.
+         */
+        BROKEN_ASSET(Severity.ERROR),
+        /**
+         * A {@code t} key resolved in no language, so the key itself was rendered.
+         */
+        MISSING_TRANSLATION(Severity.WARNING),
+        /**
+         * A {@code card_t} key resolved in no language, so the card file value was rendered.
+         */
+        MISSING_CARD_TRANSLATION(Severity.WARNING);
+
+        private final Severity severity;
+
+        Kind(Severity severity) {
+            this.severity = severity;
+        }
+
+        public Severity severity() {
+            return severity;
+        }
+    }
+
+    public Severity severity() {
+        return kind.severity();
+    }
+
+    public boolean isError() {
+        return kind.severity() == Severity.ERROR;
+    }
+
+    /**
+     * Returns where the problem is, as {@code template:line}, or as much of it as is known.
+     */
+    public String location() {
+        if (template == null || template.isBlank()) {
+            return "";
+        }
+        return line > 0 ? template + ":" + line : template;
+    }
+
+    @Override
+    public String toString() {
+        String location = location();
+        return "card %s (%s)%s: %s".formatted(cardId, lang, location.isEmpty() ? "" : " at " + location, message);
+    }
+}
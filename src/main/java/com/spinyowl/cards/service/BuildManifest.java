@@ -0,0 +1,222 @@
+package com.spinyowl.cards.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Records, in an export directory, which inputs every artifact was built from: the card rows, the
+ * translation keys and cards they looked up, and the files they referenced, together with a hash
+ * of all of them. Exports compare the recorded hash with one computed from the current project to
+ * rebuild only artifacts whose inputs changed, and use the recorded artifacts to delete outputs
+ * whose cards no longer exist.
+ * <p>
+ * The manifest is plain YAML with every list and map in sorted order, so the same inputs always
+ * produce the same file. Entries may be read and replaced from several workers; {@link #save()}
+ * writes a consistent snapshot.
+ */
+@Slf4j
+public class BuildManifest {
+
+    public static final String FILE_NAME = ".deckbuilder-manifest.yml";
+
+    private static final int VERSION = 1;
+
+    private final Path directory;
+    private final SortedMap<String, Entry> entries = new TreeMap<>();
+
+    /**
+     * What one card render read.
+     *
+     * @param translations     {@code lang:key} pairs looked up with {@code t}
+     * @param cardTranslations {@code lang:key} pairs looked up with {@code card_t}
+     * @param cards            ids of the cards looked up with {@code card}
+     * @param assets           project-relative paths of the local files the output references
+     */
+    public record Source(String cardId, String lang, List<String> translations, List<String> cardTranslations,
+                         List<String> cards, List<String> assets) {
+        public Source {
+            translations = sorted(translations);
+            cardTranslations = sorted(cardTranslations);
+            cards = sorted(cards);
+            assets = sorted(assets);
+        }
+
+        public static Source of(String cardId, String lang) {
+            return new Source(cardId, lang, List.of(), List.of(), List.of(), List.of());
+        }
+    }
+
+    /**
+     * @param scope     the export that owns the artifact; artifacts are removed per scope
+     * @param inputHash hash of everything the artifact was built from
+     */
+    public record Entry(String scope, String inputHash, List<Source> sources) {
+        public Entry {
+            sources = List.copyOf(sources);
+        }
+    }
+
+    private BuildManifest(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Reads the manifest of {@code directory}. A missing, unreadable or outdated manifest yields an
+     * empty one, so everything is rebuilt.
+     */
+    public static BuildManifest load(Path directory) {
+        BuildManifest manifest = new BuildManifest(directory);
+        Path file = directory.resolve(FILE_NAME);
+        if (!Files.isRegularFile(file)) {
+            return manifest;
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            if (new Yaml().load(in) instanceof Map<?, ?> root
+                    && root.get("version") instanceof Number version && version.intValue() == VERSION
+                    && root.get("artifacts") instanceof Map<?, ?> artifacts) {
+                artifacts.forEach((name, value) -> {
+                    if (name instanceof String artifact && value instanceof Map<?, ?> entry) {
+                        manifest.entries.put(artifact, readEntry(entry));
+                    }
+                });
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable build manifest {}", file, e);
+            manifest.entries.clear();
+        }
+        return manifest;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public synchronized Entry get(String artifact) {
+        return entries.get(artifact);
+    }
+
+    public synchronized void put(String artifact, Entry entry) {
+        entries.put(artifact, entry);
+    }
+
+    /**
+     * Forgets the artifacts of {@code scope} that are not in {@code produced} and returns them,
+     * so the caller can delete their files.
+     */
+    public synchronized List<String> retainScope(String scope, Collection<String> produced) {
+        Set<String> keep = Set.copyOf(produced);
+        List<String> orphans = new ArrayList<>();
+        entries.entrySet().removeIf(e -> {
+            if (e.getValue().scope().equals(scope) && !keep.contains(e.getKey())) {
+                orphans.add(e.getKey());
+                return true;
+            }
+            return false;
+        });
+        return orphans;
+    }
+
+    /**
+     * Writes the manifest through a sibling temporary file, so an interrupted write leaves the
+     * previous manifest in place.
+     */
+    public void save() throws IOException {
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("version", VERSION);
+        Map<String, Object> artifacts = new LinkedHashMap<>();
+        synchronized (this) {
+            entries.forEach((artifact, entry) -> artifacts.put(artifact, writeEntry(entry)));
+        }
+        root.put("artifacts", artifacts);
+
+        DumperOptions options = new DumperOptions();
+        options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        options.setIndent(2);
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, FILE_NAME, ".tmp");
+        try {
+            try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                new Yaml(options).dump(root, out);
+            }
+            Files.move(temp, directory.resolve(FILE_NAME), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static Map<String, Object> writeEntry(Entry entry) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("scope", entry.scope());
+        map.put("input", entry.inputHash());
+        List<Map<String, Object>> sources = new ArrayList<>(entry.sources().size());
+        for (Source source : entry.sources()) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("card", source.cardId());
+            values.put("lang", source.lang());
+            putIfNotEmpty(values, "translations", source.translations());
+            putIfNotEmpty(values, "card_translations", source.cardTranslations());
+            putIfNotEmpty(values, "cards", source.cards());
+            putIfNotEmpty(values, "assets", source.assets());
+            sources.add(values);
+        }
+        map.put("sources", sources);
+        return map;
+    }
+
+    private static Entry readEntry(Map<?, ?> map) {
+        List<Source> sources = new ArrayList<>();
+        if (map.get("sources") instanceof List<?> list) {
+            for (Object item : list) {
+                if (item instanceof Map<?, ?> values) {
+                    sources.add(new Source(string(values.get("card")), string(values.get("lang")),
+                            strings(values.get("translations")), strings(values.get("card_translations")),
+                            strings(values.get("cards")), strings(values.get("assets"))));
+                }
+            }
+        }
+        return new Entry(string(map.get("scope")), string(map.get("input")), sources);
+    }
+
+    private static void putIfNotEmpty(Map<String, Object> map, String key, List<String> values) {
+        if (!values.isEmpty()) {
+            map.put(key, values);
+        }
+    }
+
+    private static String string(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static List<String> strings(Object value) {
+        List<String> values = new ArrayList<>();
+        if (value instanceof List<?> list) {
+            for (Object item : list) {
+                values.add(string(item));
+            }
+        }
+        return values;
+    }
+
+    private static List<String> sorted(Collection<String> values) {
+        return values == null ? List.of() : List.copyOf(new TreeSet<>(values));
+    }
+}
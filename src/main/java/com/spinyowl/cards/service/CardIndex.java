@@ -0,0 +1,413 @@
+package com.spinyowl.cards.service;
+
+import com.spinyowl.cards.model.Card;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Evaluates {@link CardQuery queries} over an immutable list of cards. Per-column indexes are built
+ * lazily the first time a column is queried or sorted and kept for the lifetime of the index: a
+ * hash index for equality and a sorted index for ranges and sorting. List values are indexed per
+ * element, so {@code tags=fire} matches every card whose {@code tags} contain {@code fire}.
+ * <p>
+ * A column is numeric when every non-blank value is a number or parses as one; other columns
+ * compare as case-insensitive strings. Instances are safe to use from several threads.
+ */
+public class CardIndex {
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private final List<Card> cards;
+    private final Map<String, ColumnIndex> columns = new ConcurrentHashMap<>();
+
+    public CardIndex(List<Card> cards) {
+        this.cards = List.copyOf(cards);
+    }
+
+    public int size() {
+        return cards.size();
+    }
+
+    /**
+     * Returns the positions of the matching cards, in deck order unless the query sorts them.
+     */
+    public int[] select(CardQuery query) {
+        BitSet matches = new BitSet(cards.size());
+        matches.set(0, cards.size());
+        for (CardQuery.Condition condition : query.conditions()) {
+            matches.and(column(condition.column()).matching(condition));
+            if (matches.isEmpty()) {
+                break;
+            }
+        }
+
+        int[] positions = matches.stream().toArray();
+        if (query.sortKeys().isEmpty() || positions.length < 2) {
+            return positions;
+        }
+
+        List<CardQuery.SortKey> sortKeys = query.sortKeys();
+        int[][] ranks = new int[sortKeys.size()][];
+        boolean[] descending = new boolean[sortKeys.size()];
+        for (int i = 0; i < ranks.length; i++) {
+            ranks[i] = column(sortKeys.get(i).column()).ranks();
+            descending[i] = sortKeys.get(i).descending();
+        }
+        sort(positions, positions.clone(), 0, positions.length, ranks, descending);
+        return positions;
+    }
+
+    /**
+     * Stable merge sort of {@code positions[from, to)} by the sort keys' ranks, using
+     * {@code buffer} (a copy of {@code positions}) as scratch space, without boxing.
+     */
+    private static void sort(int[] positions, int[] buffer, int from, int to, int[][] ranks, boolean[] descending) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int position = positions[i];
+                int j = i;
+                while (j > from && compare(positions[j - 1], position, ranks, descending) > 0) {
+                    positions[j] = positions[j - 1];
+                    j--;
+                }
+                positions[j] = position;
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        sort(buffer, positions, from, middle, ranks, descending);
+        sort(buffer, positions, middle, to, ranks, descending);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && compare(buffer[left], buffer[right], ranks, descending) <= 0)) {
+                positions[i] = buffer[left++];
+            } else {
+                positions[i] = buffer[right++];
+            }
+        }
+    }
+
+    private static int compare(int a, int b, int[][] ranks, boolean[] descending) {
+        for (int i = 0; i < ranks.length; i++) {
+            int result = compareRanks(ranks[i][a], ranks[i][b], descending[i]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    private static int compareRanks(int a, int b, boolean descending) {
+        if (a == b) {
+            return 0;
+        }
+        if (a == ColumnIndex.NO_RANK || b == ColumnIndex.NO_RANK) {
+            return a == ColumnIndex.NO_RANK ? 1 : -1;
+        }
+        return descending ? Integer.compare(b, a) : Integer.compare(a, b);
+    }
+
+    private ColumnIndex column(String name) {
+        return columns.computeIfAbsent(name, ColumnIndex::new);
+    }
+
+    private final class ColumnIndex {
+        static final int NO_RANK = Integer.MAX_VALUE;
+
+        private final String name;
+        private boolean numeric;
+        private List<Key[]> keys;
+        private Map<Key, int[]> equality;
+        private Key[] sortedKeys;
+        private int[] sortedPositions;
+        private int[] ranks;
+
+        private ColumnIndex(String name) {
+            this.name = name;
+        }
+
+        BitSet matching(CardQuery.Condition condition) {
+            return switch (condition.operator()) {
+                case EQ -> equal(condition.value());
+                case NE -> {
+                    BitSet result = new BitSet(cards.size());
+                    result.set(0, cards.size());
+                    result.andNot(equal(condition.value()));
+                    yield result;
+                }
+                case LT, LE, GT, GE -> range(condition.operator(), condition.value());
+                case CONTAINS -> contains(condition.value());
+            };
+        }
+
+        private synchronized BitSet equal(String value) {
+            ensureKeys();
+            if (equality == null) {
+                Map<Key, IntList> postings = new HashMap<>();
+                for (int i = 0; i < keys.size(); i++) {
+                    for (Key key : keys.get(i)) {
+                        postings.computeIfAbsent(key, k -> new IntList()).add(i);
+                    }
+                }
+                equality = new HashMap<>(postings.size() * 2);
+                postings.forEach((key, list) -> equality.put(key, list.toArray()));
+            }
+
+            BitSet result = new BitSet(cards.size());
+            Key key = queryKey(value);
+            if (key != null) {
+                for (int position : equality.getOrDefault(key, new int[0])) {
+                    result.set(position);
+                }
+            }
+            return result;
+        }
+
+        private synchronized BitSet range(CardQuery.Operator operator, String value) {
+            ensureSorted();
+            BitSet result = new BitSet(cards.size());
+            Key key = queryKey(value);
+            if (key == null) {
+                return result;
+            }
+            int from;
+            int to;
+            switch (operator) {
+                case LT -> {
+                    from = 0;
+                    to = lowerBound(key);
+                }
+                case LE -> {
+                    from = 0;
+                    to = upperBound(key);
+                }
+                case GT -> {
+                    from = upperBound(key);
+                    to = sortedKeys.length;
+                }
+                default -> {
+                    from = lowerBound(key);
+                    to = sortedKeys.length;
+                }
+            }
+            for (int i = from; i < to; i++) {
+                result.set(sortedPositions[i]);
+            }
+            return result;
+        }
+
+        private BitSet contains(String value) {
+            String needle = value.toLowerCase(Locale.ROOT);
+            BitSet result = new BitSet(cards.size());
+            for (int i = 0; i < cards.size(); i++) {
+                Object cell = cards.get(i).getProperty(name);
+                if (cell != null && cell.toString().toLowerCase(Locale.ROOT).contains(needle)) {
+                    result.set(i);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Returns, per card, the rank of its first value in the sorted index; equal values share a
+         * rank and cards without a value get {@link #NO_RANK}.
+         */
+        synchronized int[] ranks() {
+            if (ranks == null) {
+                ensureSorted();
+                ranks = new int[cards.size()];
+                Arrays.fill(ranks, NO_RANK);
+                int rank = -1;
+                Key previous = null;
+                for (int i = 0; i < sortedKeys.length; i++) {
+                    if (previous == null || sortedKeys[i].compareTo(previous) != 0) {
+                        rank++;
+                        previous = sortedKeys[i];
+                    }
+                    int position = sortedPositions[i];
+                    Key[] cardKeys = keys.get(position);
+                    if (ranks[position] == NO_RANK && cardKeys.length > 0 && cardKeys[0] == sortedKeys[i]) {
+                        ranks[position] = rank;
+                    }
+                }
+            }
+            return ranks;
+        }
+
+        private void ensureSorted() {
+            ensureKeys();
+            if (sortedKeys != null) {
+                return;
+            }
+            List<Map.Entry<Key, Integer>> entries = new ArrayList<>();
+            for (int i = 0; i < keys.size(); i++) {
+                for (Key key : keys.get(i)) {
+                    entries.add(Map.entry(key, i));
+                }
+            }
+            entries.sort(Map.Entry.comparingByKey());
+            Key[] sorted = new Key[entries.size()];
+            int[] positions = new int[entries.size()];
+            for (int i = 0; i < entries.size(); i++) {
+                sorted[i] = entries.get(i).getKey();
+                positions[i] = entries.get(i).getValue();
+            }
+            sortedKeys = sorted;
+            sortedPositions = positions;
+        }
+
+        private int lowerBound(Key key) {
+            int low = 0;
+            int high = sortedKeys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sortedKeys[mid].compareTo(key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int upperBound(Key key) {
+            int low = 0;
+            int high = sortedKeys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (sortedKeys[mid].compareTo(key) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void ensureKeys() {
+            if (keys != null) {
+                return;
+            }
+            numeric = true;
+            boolean anyValue = false;
+            for (Card card : cards) {
+                for (Object element : elements(card.getProperty(name))) {
+                    anyValue = true;
+                    if (toNumber(element) == null) {
+                        numeric = false;
+                        break;
+                    }
+                }
+                if (!numeric) {
+                    break;
+                }
+            }
+            numeric &= anyValue;
+
+            List<Key[]> built = new ArrayList<>(cards.size());
+            for (Card card : cards) {
+                List<Object> elements = elements(card.getProperty(name));
+                Key[] cardKeys = new Key[elements.size()];
+                for (int i = 0; i < cardKeys.length; i++) {
+                    cardKeys[i] = key(elements.get(i));
+                }
+                built.add(cardKeys);
+            }
+            keys = built;
+        }
+
+        private Key queryKey(String value) {
+            if (value == null) {
+                return null;
+            }
+            if (numeric) {
+                BigDecimal number = toNumber(value);
+                return number != null ? new Key(number, null) : null;
+            }
+            return new Key(null, value.trim().toLowerCase(Locale.ROOT));
+        }
+
+        private Key key(Object element) {
+            return numeric
+                    ? new Key(toNumber(element), null)
+                    : new Key(null, element.toString().trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * An indexed value: a number in numeric columns, otherwise lower-case text. All keys of one
+     * column are of the same kind.
+     */
+    private record Key(BigDecimal number, String text) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            return number != null ? number.compareTo(other.number) : text.compareTo(other.text);
+        }
+    }
+
+    /**
+     * Returns the non-blank values of a cell, one per list element for list cells.
+     */
+    private static List<Object> elements(Object cell) {
+        if (cell == null) {
+            return List.of();
+        }
+        List<Object> elements = new ArrayList<>();
+        if (cell instanceof Collection<?> collection) {
+            for (Object element : collection) {
+                if (element != null && !element.toString().isBlank()) {
+                    elements.add(element);
+                }
+            }
+        } else if (!cell.toString().isBlank()) {
+            elements.add(cell);
+        }
+        return elements;
+    }
+
+    private static BigDecimal toNumber(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal.stripTrailingZeros();
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return BigDecimal.valueOf(((Number) value).longValue()).stripTrailingZeros();
+        }
+        if (value instanceof Number number) {
+            return toNumber(number.toString());
+        }
+        if (value instanceof String str) {
+            try {
+                return new BigDecimal(str.trim()).stripTrailingZeros();
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static final class IntList {
+        private int[] values = new int[2];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.spinyowl.cards.service;
+
+import com.openhtmltopdf.extend.FSStream;
+import com.openhtmltopdf.extend.FSStreamFactory;
+import com.openhtmltopdf.extend.impl.FSDefaultCacheStore;
+import com.openhtmltopdf.outputdevice.helper.BaseRendererBuilder.FontStyle;
+import com.openhtmltopdf.pdfboxout.PDFontSupplier;
+import com.openhtmltopdf.pdfboxout.PdfBoxRenderer;
+import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import com.spinyowl.cards.util.ContentHash;
+import com.spinyowl.cards.util.HtmlReferences;
+import com.spinyowl.cards.util.RenderDependencies;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.fontbox.ttf.NamingTable;
+import org.apache.fontbox.ttf.TTFParser;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.jsoup.Jsoup;
+import org.jsoup.helper.W3CDom;
+import org.jsoup.nodes.Document;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Lays out rendered card HTML as card-sized PDF pages with openhtmltopdf, an embedded pure-Java
+ * HTML/CSS renderer. One instance serves one export and may be shared by its workers: it holds
+ * the page size, the project fonts, font metrics and the bytes of local files the cards
+ * reference, so each of those is read once per export. Documents and the fonts loaded into them
+ * belong to a single worker.
+ * <p>
+ * openhtmltopdf implements CSS 2.1, so templates relying on flexbox or other newer CSS may lay out
+ * differently than in the preview.
+ */
+@Slf4j
+final class CardPageLayout {
+
+    private static final long SHARED_FILE_BUDGET = 64L * 1024 * 1024;
+
+    private final Path projectDir;
+    private final String baseUri;
+    private final ThreadLocal<HtmlBuffer> htmlBuffers = ThreadLocal.withInitial(HtmlBuffer::new);
+    private final String pageStyle;
+    private final List<FontFace> fonts;
+    private final FSDefaultCacheStore fontMetrics = new FSDefaultCacheStore();
+    private final CachingFileStreamFactory files = new CachingFileStreamFactory();
+    private final Map<Path, String> fileHashes = new ConcurrentHashMap<>();
+
+    CardPageLayout(ProjectManager projectManager) {
+        this.projectDir = projectManager.getProjectDir().toAbsolutePath().normalize();
+        this.baseUri = projectDir.toUri().toString();
+        this.pageStyle = pageStyle(projectManager.getProjectProperties());
+        this.fonts = findFonts(projectManager.getFontsDirectory());
+    }
+
+    String pageStyle() {
+        return pageStyle;
+    }
+
+    List<FontFace> fonts() {
+        return fonts;
+    }
+
+    /**
+     * Returns a hash of the project fonts' faces and contents.
+     */
+    String fontsHash() throws IOException {
+        ContentHash hash = new ContentHash();
+        for (FontFace face : fonts) {
+            hash.add(face.family()).add(face.weight()).add(face.style().name()).add(ContentHash.ofFile(face.file()));
+        }
+        return hash.hex();
+    }
+
+    /**
+     * Renders a card as UTF-8 into a buffer reused by the calling thread and parses it from there,
+     * so no string of the whole document is built. The rendered bytes are added to {@code html}
+     * when it is not {@code null}.
+     */
+    Document render(CardRenderer renderer, int index, String lang, RenderDependencies dependencies,
+                    ContentHash html) throws IOException {
+        HtmlBuffer buffer = htmlBuffers.get();
+        buffer.reset();
+        renderer.renderCard(index, lang, buffer, dependencies);
+        if (html != null) {
+            buffer.addTo(html);
+        }
+        Document document = Jsoup.parse(buffer.input(), StandardCharsets.UTF_8.name(), baseUri);
+        document.head().prependElement("style").text(pageStyle);
+        return document;
+    }
+
+    /**
+     * Loads the project fonts into {@code document}, so all pages added to it share them.
+     */
+    List<PDFont> loadFonts(PDDocument document) throws IOException {
+        List<PDFont> loaded = new ArrayList<>(fonts.size());
+        for (FontFace face : fonts) {
+            loaded.add(PDType0Font.load(document, face.file().toFile()));
+        }
+        return loaded;
+    }
+
+    /**
+     * Appends the pages of one card to {@code document}; normally one, more if the card overflows.
+     */
+    void addPages(PDDocument document, List<PDFont> loadedFonts, Document card) throws IOException {
+        PdfRendererBuilder builder = new PdfRendererBuilder()
+                .usePDDocument(document)
+                .withW3cDocument(W3CDom.convert(card), baseUri)
+                .useCacheStore(PdfRendererBuilder.CacheStore.PDF_FONT_METRICS, fontMetrics)
+                .useProtocolsStreamImplementation(files, "file");
+        for (int i = 0; i < fonts.size(); i++) {
+            FontFace face = fonts.get(i);
+            builder.useFont(new PDFontSupplier(loadedFonts.get(i)), face.family(), face.weight(), face.style(), true);
+        }
+        try (PdfBoxRenderer pdf = builder.buildPdfRenderer()) {
+            pdf.createPDFWithoutClosing();
+        }
+    }
+
+    /**
+     * Returns the local files a card references through {@code src} and {@code href} attributes,
+     * as project-relative paths mapped to content hashes, in path order. Missing files hash as
+     * {@code missing}.
+     */
+    SortedMap<String, String> localResources(Document card) {
+        SortedMap<String, String> resources = new TreeMap<>();
+        for (Path file : HtmlReferences.localFiles(card)) {
+            String relative = file.startsWith(projectDir) ? projectDir.relativize(file).toString() : file.toString();
+            resources.put(relative.replace('\\', '/'), fileHash(file));
+        }
+        return resources;
+    }
+
+    /**
+     * Returns the current content hash of a path as returned by {@link #localResources(Document)}.
+     */
+    String resourceHash(String path) {
+        return fileHash(projectDir.resolve(path).toAbsolutePath().normalize());
+    }
+
+    private String fileHash(Path file) {
+        return fileHashes.computeIfAbsent(file, path -> {
+            try {
+                return Files.isRegularFile(path) ? ContentHash.ofFile(path) : "missing";
+            } catch (IOException e) {
+                return "unreadable";
+            }
+        });
+    }
+
+    /**
+     * Sizes every page to the card. Templates may still override it with their own {@code @page}.
+     */
+    static String pageStyle(Map<String, Object> projectProperties) {
+        if (projectProperties.get("card") instanceof Map<?, ?> card) {
+            return "@page { size: " + card.get("width") + " " + card.get("height") + "; margin: 0; }";
+        }
+        throw new IllegalStateException("Project card size is not available");
+    }
+
+    /**
+     * Lists the {@code .ttf} fonts of a directory with the family, weight and style from their
+     * naming tables.
+     */
+    static List<FontFace> findFonts(Path fontsDir) {
+        if (!Files.isDirectory(fontsDir)) {
+            return List.of();
+        }
+        List<Path> fontFiles;
+        try (Stream<Path> stream = Files.list(fontsDir)) {
+            fontFiles = stream.filter(file -> file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".ttf"))
+                    .sorted(Comparator.comparing(Path::getFileName))
+                    .toList();
+        } catch (IOException e) {
+            log.warn("Failed to list fonts in {}", fontsDir, e);
+            return List.of();
+        }
+
+        List<FontFace> faces = new ArrayList<>(fontFiles.size());
+        for (Path file : fontFiles) {
+            try (TrueTypeFont font = new TTFParser().parse(new RandomAccessReadBufferedFile(file.toFile()))) {
+                NamingTable naming = font.getNaming();
+                String fileName = file.getFileName().toString();
+                String family = naming != null && naming.getFontFamily() != null
+                        ? naming.getFontFamily()
+                        : fileName.substring(0, fileName.lastIndexOf('.'));
+                String subFamily = naming != null && naming.getFontSubFamily() != null
+                        ? naming.getFontSubFamily().toLowerCase(Locale.ROOT)
+                        : "";
+                int weight = subFamily.contains("bold") ? 700 : 400;
+                FontStyle style = subFamily.contains("italic") || subFamily.contains("oblique")
+                        ? FontStyle.ITALIC
+                        : FontStyle.NORMAL;
+                faces.add(new FontFace(file, family, weight, style));
+            } catch (IOException e) {
+                log.warn("Skipping unreadable font {}", file, e);
+            }
+        }
+        return faces;
+    }
+
+    /**
+     * Rendered card bytes, kept between cards so the array grows only to the largest card.
+     */
+    private static final class HtmlBuffer extends ByteArrayOutputStream {
+        private HtmlBuffer() {
+            super(16 * 1024);
+        }
+
+        private InputStream input() {
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+
+        private void addTo(ContentHash hash) {
+            hash.add(buf, 0, count);
+        }
+    }
+
+    record FontFace(Path file, String family, int weight, FontStyle style) {
+    }
+
+    /**
+     * Serves {@code file:} resources from memory once they have been read, up to
+     * {@link #SHARED_FILE_BUDGET} bytes in total; files beyond the budget are read from disk each
+     * time.
+     */
+    private static final class CachingFileStreamFactory implements FSStreamFactory {
+        private final Map<String, byte[]> cache = new ConcurrentHashMap<>();
+        private final AtomicLong cachedBytes = new AtomicLong();
+
+        @Override
+        public FSStream getUrl(String url) {
+            return new FSStream() {
+                @Override
+                public InputStream getStream() {
+                    byte[] bytes = read(url);
+                    return bytes != null ? new ByteArrayInputStream(bytes) : null;
+                }
+
+                @Override
+                public Reader getReader() {
+                    InputStream stream = getStream();
+                    return stream != null ? new InputStreamReader(stream, StandardCharsets.UTF_8) : null;
+                }
+            };
+        }
+
+        private byte[] read(String url) {
+            byte[] bytes = cache.get(url);
+            if (bytes != null) {
+                return bytes;
+            }
+            try {
+                bytes = Files.readAllBytes(Path.of(URI.create(url)));
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("Failed to read {}", url);
+                return null;
+            }
+            if (cachedBytes.addAndGet(bytes.length) <= SHARED_FILE_BUDGET) {
+                byte[] previous = cache.putIfAbsent(url, bytes);
+                if (previous != null) {
+                    cachedBytes.addAndGet(-bytes.length);
+                    return previous;
+                }
+            } else {
+                cachedBytes.addAndGet(-bytes.length);
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.spinyowl.cards.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A filter and sort over card columns, written as space separated terms:
+ * <pre>
+ * rarity=rare faction="Dark Elves" cost&lt;=3 sort:cost,-name
+ * </pre>
+ * A condition is {@code column operator value} with one of the operators {@code =}, {@code !=},
+ * {@code <}, {@code <=}, {@code >}, {@code >=} and {@code ~} (contains). Values with spaces are
+ * quoted. All conditions must match; the optional word {@code and} between terms is ignored.
+ * {@code sort:} lists the sort columns, a leading {@code -} sorting that column descending.
+ * Comparisons ignore case, and columns whose values are all numbers compare numerically.
+ */
+public record CardQuery(List<Condition> conditions, List<SortKey> sortKeys) {
+
+    private static final CardQuery ALL = new CardQuery(List.of(), List.of());
+
+    public enum Operator {
+        EQ("="), NE("!="), LT("<"), LE("<="), GT(">"), GE(">="), CONTAINS("~");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String symbol() {
+            return symbol;
+        }
+    }
+
+    public record Condition(String column, Operator operator, String value) {
+        @Override
+        public String toString() {
+            return column + operator.symbol() + value;
+        }
+    }
+
+    public record SortKey(String column, boolean descending) {
+        @Override
+        public String toString() {
+            return (descending ? "-" : "") + column;
+        }
+    }
+
+    public CardQuery {
+        conditions = List.copyOf(conditions);
+        sortKeys = List.copyOf(sortKeys);
+    }
+
+    public static CardQuery all() {
+        return ALL;
+    }
+
+    public boolean isAll() {
+        return conditions.isEmpty() && sortKeys.isEmpty();
+    }
+
+    /**
+     * Parses a query string; a blank string selects every card in deck order.
+     *
+     * @throws IllegalArgumentException if the string is not a valid query
+     */
+    public static CardQuery parse(String text) {
+        if (text == null || text.isBlank()) {
+            return ALL;
+        }
+        return new Parser(text).parse();
+    }
+
+    @Override
+    public String toString() {
+        List<String> terms = new ArrayList<>();
+        conditions.forEach(condition -> terms.add(condition.toString()));
+        if (!sortKeys.isEmpty()) {
+            terms.add("sort:" + String.join(",", sortKeys.stream().map(SortKey::toString).toList()));
+        }
+        return String.join(" ", terms);
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        private Parser(String text) {
+            this.text = text;
+        }
+
+        private CardQuery parse() {
+            List<Condition> conditions = new ArrayList<>();
+            List<SortKey> sortKeys = new ArrayList<>();
+            while (true) {
+                skipWhitespace();
+                if (pos >= text.length()) {
+                    break;
+                }
+                if (startsWithWord("sort:")) {
+                    pos += "sort:".length();
+                    parseSortKeys(readUntilWhitespace(), sortKeys);
+                } else if (startsWithWord("and") && isTermEnd(pos + 3)) {
+                    pos += 3;
+                } else {
+                    conditions.add(parseCondition());
+                }
+            }
+            return new CardQuery(conditions, sortKeys);
+        }
+
+        private Condition parseCondition() {
+            int start = pos;
+            while (pos < text.length() && !Character.isWhitespace(text.charAt(pos)) && "=!<>~".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            String column = text.substring(start, pos);
+            if (column.isEmpty()) {
+                throw error("expected a column name");
+            }
+            Operator operator = parseOperator();
+            if (operator == null) {
+                throw error("expected an operator after '" + column + "'");
+            }
+            String value = pos < text.length() && text.charAt(pos) == '"' ? readQuoted() : readUntilWhitespace();
+            return new Condition(column, operator, value);
+        }
+
+        private Operator parseOperator() {
+            for (String symbol : List.of("!=", "<=", ">=", "=", "<", ">", "~")) {
+                if (text.startsWith(symbol, pos)) {
+                    pos += symbol.length();
+                    for (Operator operator : Operator.values()) {
+                        if (operator.symbol.equals(symbol)) {
+                            return operator;
+                        }
+                    }
+                }
+            }
+            return null;
+        }
+
+        private void parseSortKeys(String spec, List<SortKey> sortKeys) {
+            for (String part : spec.split(",")) {
+                String column = part.trim();
+                boolean descending = column.startsWith("-");
+                if (descending || column.startsWith("+")) {
+                    column = column.substring(1);
+                }
+                if (column.isEmpty()) {
+                    throw error("expected a sort column");
+                }
+                sortKeys.add(new SortKey(column, descending));
+            }
+        }
+
+        private String readQuoted() {
+            StringBuilder value = new StringBuilder();
+            pos++;
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c == '\\' && pos < text.length()) {
+                    c = text.charAt(pos++);
+                }
+                value.append(c);
+            }
+            throw error("unterminated quoted value");
+        }
+
+        private String readUntilWhitespace() {
+            int start = pos;
+            while (pos < text.length() && !Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+            return text.substring(start, pos);
+        }
+
+        private boolean startsWithWord(String word) {
+            return text.regionMatches(true, pos, word, 0, word.length());
+        }
+
+        private boolean isTermEnd(int index) {
+            return index >= text.length() || Character.isWhitespace(text.charAt(index));
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + (pos + 1));
+        }
+    }
+}
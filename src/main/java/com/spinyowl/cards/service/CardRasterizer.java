@@ -0,0 +1,191 @@
+package com.spinyowl.cards.service;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.concurrent.Worker;
+import javafx.scene.Group;
+import javafx.scene.Scene;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Scale;
+import javafx.scene.web.WebView;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Rasterizes rendered card HTML into images using a small pool of offscreen {@link WebView}s.
+ * WebKit may only be driven from the FX application thread, so requests are queued from any
+ * thread and processed there, at most {@code poolSize} at a time. The views are never shown;
+ * they live in detached scenes and are captured with {@link WebView#snapshot}.
+ * <p>
+ * Cancelling a returned future drops its request from the queue. At most {@value #MAX_PENDING}
+ * requests wait; beyond that the oldest waiting one is cancelled, as it was most likely made for a
+ * card that is no longer on screen.
+ */
+@Slf4j
+public class CardRasterizer {
+
+    private static final int SETTLE_PULSES = 2;
+    static final int MAX_PENDING = 256;
+
+    private final int poolSize;
+    private final Queue<Job> pending = new ConcurrentLinkedQueue<>();
+    private final Deque<WebView> idleViews = new ArrayDeque<>();
+    private int createdViews;
+    private boolean disposed;
+
+    public CardRasterizer(int poolSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("poolSize must be positive");
+        }
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * Lays out {@code html} in a viewport of {@code width} x {@code height} CSS pixels and captures
+     * it scaled by {@code scale}. The returned future completes on the FX application thread.
+     */
+    public CompletableFuture<Image> rasterize(String html, double width, double height, double scale) {
+        CompletableFuture<Image> result = new CompletableFuture<>();
+        if (width <= 0 || height <= 0 || scale <= 0) {
+            result.completeExceptionally(new IllegalArgumentException("Raster size must be positive"));
+            return result;
+        }
+        Job job = new Job(html, width, height, scale, result);
+        pending.add(job);
+        result.whenComplete((image, error) -> {
+            if (result.isCancelled()) {
+                pending.remove(job);
+            }
+        });
+        while (pending.size() > MAX_PENDING) {
+            Job oldest = pending.poll();
+            if (oldest != null) {
+                oldest.result.cancel(false);
+            }
+        }
+        Platform.runLater(this::drain);
+        return result;
+    }
+
+    public void dispose() {
+        Platform.runLater(() -> {
+            disposed = true;
+            idleViews.clear();
+            Job job;
+            while ((job = pending.poll()) != null) {
+                job.result.cancel(false);
+            }
+        });
+    }
+
+    private void drain() {
+        while (!disposed && !pending.isEmpty()) {
+            WebView view = acquireView();
+            if (view == null) {
+                return;
+            }
+            Job job = pending.poll();
+            if (job == null) {
+                idleViews.push(view);
+                return;
+            }
+            if (job.result.isDone()) {
+                idleViews.push(view);
+                continue;
+            }
+            start(view, job);
+        }
+    }
+
+    private WebView acquireView() {
+        if (!idleViews.isEmpty()) {
+            return idleViews.pop();
+        }
+        if (createdViews >= poolSize) {
+            return null;
+        }
+        createdViews++;
+        WebView view = new WebView();
+        view.setContextMenuEnabled(false);
+        new Scene(new Group(view));
+        return view;
+    }
+
+    private void start(WebView view, Job job) {
+        view.setMinSize(job.width, job.height);
+        view.setPrefSize(job.width, job.height);
+        view.setMaxSize(job.width, job.height);
+        view.resize(job.width, job.height);
+
+        Worker<Void> loadWorker = view.getEngine().getLoadWorker();
+        ChangeListener<Worker.State> listener = new ChangeListener<>() {
+            @Override
+            public void changed(ObservableValue<? extends Worker.State> obs,
+                                Worker.State oldState,
+                                Worker.State newState) {
+                if (newState == Worker.State.SUCCEEDED) {
+                    loadWorker.stateProperty().removeListener(this);
+                    captureAfterLayout(view, job);
+                } else if (newState == Worker.State.FAILED || newState == Worker.State.CANCELLED) {
+                    loadWorker.stateProperty().removeListener(this);
+                    job.result.completeExceptionally(new IllegalStateException(
+                            "Failed to load card content: " + newState));
+                    release(view);
+                }
+            }
+        };
+        loadWorker.stateProperty().addListener(listener);
+        view.getEngine().loadContent(job.html);
+    }
+
+    /**
+     * WebKit paints asynchronously after the load completes, so the capture waits a couple of
+     * pulses for layout and painting to settle.
+     */
+    private void captureAfterLayout(WebView view, Job job) {
+        new AnimationTimer() {
+            private int pulses;
+
+            @Override
+            public void handle(long now) {
+                if (++pulses < SETTLE_PULSES) {
+                    return;
+                }
+                stop();
+                try {
+                    SnapshotParameters params = new SnapshotParameters();
+                    params.setFill(Color.TRANSPARENT);
+                    params.setTransform(new Scale(job.scale, job.scale));
+                    WritableImage image = view.snapshot(params, null);
+                    job.result.complete(image);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to capture card image", e);
+                    job.result.completeExceptionally(e);
+                } finally {
+                    release(view);
+                }
+            }
+        }.start();
+    }
+
+    private void release(WebView view) {
+        if (!disposed) {
+            idleViews.push(view);
+            drain();
+        }
+    }
+
+    private record Job(String html, double width, double height, double scale,
+                       CompletableFuture<Image> result) {
+    }
+}
@@ -1,33 +1,64 @@
 package com.spinyowl.cards.service;
 
+import com.spinyowl.cards.diagnostics.CardRenderEvent;
+import com.spinyowl.cards.diagnostics.TemplateCompileEvent;
+import com.spinyowl.cards.logging.RenderSummary;
 import com.spinyowl.cards.model.Card;
+import com.spinyowl.cards.model.CardDiff;
+import com.spinyowl.cards.model.RenderDiagnostic;
+import com.spinyowl.cards.util.HtmlReferences;
+import com.spinyowl.cards.util.PebbleCardLookupFunction;
 import com.spinyowl.cards.util.PebbleCardTranslationFunction;
 import com.spinyowl.cards.util.PebbleTranslationFunction;
+import com.spinyowl.cards.util.PooledStreamWriter;
+import com.spinyowl.cards.util.RenderDependencies;
 import io.pebbletemplates.pebble.PebbleEngine;
+import io.pebbletemplates.pebble.error.PebbleException;
 import io.pebbletemplates.pebble.loader.FileLoader;
 import io.pebbletemplates.pebble.template.PebbleTemplate;
 import io.pebbletemplates.pebble.extension.AbstractExtension;
 import io.pebbletemplates.pebble.extension.Function;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 public class CardRenderer implements ProjectManager.ReloadListener {
     private final ProjectManager projectManager;
-    private PebbleEngine engine;
-    private List<Card> cards = List.of();
-    private PebbleTranslationFunction translationFunction;
-    private PebbleCardTranslationFunction cardTranslationFunction;
+    private volatile PebbleEngine engine;
+    private volatile List<Card> cards = List.of();
+    private volatile PebbleTranslationFunction translationFunction;
+    private volatile PebbleCardTranslationFunction cardTranslationFunction;
+    private final PebbleCardLookupFunction cardLookupFunction;
+    private final RenderSummary renderSummary = new RenderSummary("Rendered", "cards", 10, TimeUnit.SECONDS);
 
-    public CardRenderer(ProjectManager pm) {
+    private CardRenderer(ProjectManager pm) {
         this.projectManager = pm;
-        projectManager.addReloadListener(this);
-        rebuildFromProject();
+        this.cardLookupFunction = new PebbleCardLookupFunction(pm::getCard);
+    }
+
+    /**
+     * Creates a renderer for the project of {@code pm} that follows its reloads.
+     */
+    public static CardRenderer create(ProjectManager pm) {
+        CardRenderer renderer = new CardRenderer(pm);
+        pm.addReloadListener(renderer);
+        renderer.rebuildFromProject();
+        return renderer;
     }
 
     @Override
@@ -35,6 +66,15 @@ public class CardRenderer implements ProjectManager.ReloadListener {
         rebuildFromProject();
     }
 
+    /**
+     * Only card rows changed, so the engine and its compiled templates are kept.
+     */
+    @Override
+    public void onCardsChanged(ProjectManager manager, CardDiff diff) {
+        log.debug("Card changes since last load: {}", diff);
+        cards = projectManager.getCards();
+    }
+
     private void rebuildFromProject() {
         log.info("Rebuilding renderer using project data from {}", projectManager.getProjectDir());
         try {
@@ -58,6 +98,7 @@ public class CardRenderer implements ProjectManager.ReloadListener {
                             Map<String, Function> functions = new HashMap<>();
                             functions.put("t", translationFunction);
                             functions.put("card_t", cardTranslationFunction);
+                            functions.put("card", cardLookupFunction);
                             return functions;
                         }
                     })
@@ -71,6 +112,45 @@ public class CardRenderer implements ProjectManager.ReloadListener {
         }
     }
 
+    /**
+     * Compiles the default template and every template referenced by a card, so that the first
+     * renders find them in the engine's cache. Failures are logged and left for the render to
+     * report. Returns the number of templates compiled.
+     */
+    public int precompileTemplates() {
+        PebbleEngine engine = this.engine;
+        if (engine == null) {
+            return 0;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        names.add(projectManager.getDefaultTemplate());
+        for (Card card : cards) {
+            String template = card.getTemplate();
+            if (template != null && !template.isBlank()) {
+                names.add(template);
+            }
+        }
+
+        int compiled = 0;
+        for (String name : names) {
+            try {
+                compileTemplate(engine, name);
+                compiled++;
+            } catch (Exception e) {
+                log.warn("Failed to compile template {}", name, e);
+            }
+        }
+        log.debug("Precompiled {} of {} templates", compiled, names.size());
+        return compiled;
+    }
+
+    /**
+     * Logs the renders since the last summary; batch callers invoke this when they finish.
+     */
+    public void flushRenderSummary() {
+        renderSummary.flush();
+    }
+
     public int getCardCount() {
         return cards != null ? cards.size() : 0;
     }
@@ -81,39 +161,253 @@ public class CardRenderer implements ProjectManager.ReloadListener {
             return "<p>No such card index</p>";
         }
 
-        if (engine == null || translationFunction == null || cardTranslationFunction == null) {
-            log.error("Renderer not initialized correctly");
+        StringWriter sw = new StringWriter(1024);
+        try {
+            renderCard(index, lang, sw);
+            return sw.toString();
+        } catch (Exception e) {
+            log.error("Error rendering card {}", index, e);
             return "<p>Error rendering card.</p>";
         }
+    }
+
+    /**
+     * The outcome of {@link #renderChecked(int, String)}.
+     *
+     * @param html        the rendered card, or {@code null} when rendering failed
+     * @param diagnostics the failure, or the translations and files the card asked for but that do
+     *                    not exist
+     * @param assets      the project-relative paths of the local files the card refers to
+     */
+    public record Checked(String html, List<RenderDiagnostic> diagnostics, List<String> assets) {
+        public boolean failed() {
+            return html == null;
+        }
+    }
+
+    /**
+     * Renders a card and reports what went wrong in a form that can be shown next to the card: the
+     * template and line of a failure or of a lookup of a missing translation, a template that does
+     * not exist, and referenced files that do not exist. Never throws for a render failure.
+     */
+    public Checked renderChecked(int index, String lang) {
+        return renderChecked(index, lang, new RenderDependencies());
+    }
+
+    /**
+     * Renders a card like {@link #renderChecked(int, String)}, recording what it read into
+     * {@code dependencies}.
+     */
+    public Checked renderChecked(int index, String lang, RenderDependencies dependencies) {
+        List<Card> cards = this.cards;
+        Card card = index >= 0 && index < cards.size() ? cards.get(index) : null;
+        String cardId = card != null ? card.getId() : String.valueOf(index);
+        String template = card != null ? templateOf(card) : null;
+        if (template != null && !Files.isRegularFile(projectManager.getTemplatesDirectory().resolve(template))) {
+            return new Checked(null, List.of(new RenderDiagnostic(RenderDiagnostic.Kind.UNKNOWN_TEMPLATE, cardId, lang,
+                    template, 0, template, "Template '" + template + "' does not exist")), List.of());
+        }
+
+        StringWriter sw = new StringWriter(1024);
+        try {
+            renderCard(index, lang, sw, dependencies);
+        } catch (Exception e) {
+            log.debug("Error rendering card {}", cardId, e);
+            return new Checked(null, List.of(failure(cardId, lang, template, e)), List.of());
+        }
+        String html = sw.toString();
+
+        List<RenderDiagnostic> diagnostics = new ArrayList<>(dependencies.misses().size());
+        for (RenderDependencies.Miss miss : dependencies.misses()) {
+            diagnostics.add(miss.cardTranslation()
+                    ? new RenderDiagnostic(RenderDiagnostic.Kind.MISSING_CARD_TRANSLATION, cardId, lang,
+                            miss.template(), miss.line(), miss.key(),
+                            "No card translation '" + miss.key() + "', showing the card file value")
+                    : new RenderDiagnostic(RenderDiagnostic.Kind.MISSING_TRANSLATION, cardId, lang,
+                            miss.template(), miss.line(), miss.key(), "No translation '" + miss.key() + "'"));
+        }
+        List<String> assets = new ArrayList<>();
+        if (projectManager.getProjectDir() != null) {
+            Path projectDir = projectManager.getProjectDir().toAbsolutePath().normalize();
+            Set<Path> files = HtmlReferences.localFiles(html, projectDir);
+            projectManager.addReferencedFiles(files);
+            for (Path file : files) {
+                String path = (file.startsWith(projectDir) ? projectDir.relativize(file) : file).toString()
+                        .replace('\\', '/');
+                assets.add(path);
+                if (!Files.isRegularFile(file)) {
+                    diagnostics.add(new RenderDiagnostic(RenderDiagnostic.Kind.BROKEN_ASSET, cardId, lang, template, 0,
+                            path, path.isEmpty() ? "Empty file reference" : "Missing file '" + path + "'"));
+                }
+            }
+        }
+        return new Checked(html, diagnostics, assets);
+    }
+
+    /**
+     * Describes a render failure, taking the template and line from the innermost Pebble error.
+     */
+    static RenderDiagnostic failure(String cardId, String lang, String template, Throwable error) {
+        PebbleException pebble = null;
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PebbleException candidate) {
+                pebble = candidate;
+            }
+        }
+        if (pebble == null) {
+            return new RenderDiagnostic(RenderDiagnostic.Kind.RENDER_FAILED, cardId, lang, template, 0, null,
+                    String.valueOf(error.getMessage() != null ? error.getMessage() : error));
+        }
+        String file = pebble.getFileName() != null ? pebble.getFileName() : template;
+        int line = pebble.getLineNumber() != null ? pebble.getLineNumber() : 0;
+        return new RenderDiagnostic(RenderDiagnostic.Kind.RENDER_FAILED, cardId, lang, file, line, null,
+                pebble.getPebbleMessage());
+    }
+
+    /**
+     * Renders a card straight into {@code out} instead of building a string, for exports and other
+     * callers that write to files or sockets. Output written before a failure is not retracted.
+     *
+     * @throws IndexOutOfBoundsException if there is no card at {@code index}
+     * @throws IllegalStateException     if the renderer failed to initialize
+     * @throws IOException               if writing fails
+     */
+    public void renderCard(int index, String lang, Writer out) throws IOException {
+        renderCard(index, lang, out, null);
+    }
+
+    /**
+     * Renders a card into {@code out} like {@link #renderCard(int, String, Writer)}, recording the
+     * translation keys and cards it reads into {@code dependencies} when not {@code null}.
+     */
+    public void renderCard(int index, String lang, Writer out, RenderDependencies dependencies) throws IOException {
+        List<Card> cards = this.cards;
+        PebbleEngine engine = this.engine;
+        PebbleTranslationFunction translationFunction = this.translationFunction;
+        PebbleCardTranslationFunction cardTranslationFunction = this.cardTranslationFunction;
+        if (index < 0 || index >= cards.size()) {
+            throw new IndexOutOfBoundsException("Card index " + index + " out of bounds");
+        }
+        if (engine == null || translationFunction == null || cardTranslationFunction == null) {
+            throw new IllegalStateException("Renderer not initialized correctly");
+        }
 
         Card card = cards.get(index);
-        String tpl = Optional.ofNullable(card.getTemplate())
-                .filter(s -> !s.isBlank())
-                .orElse(projectManager.getDefaultTemplate());
+        String tpl = templateOf(card);
 
+        long started = System.nanoTime();
+        CardRenderEvent event = new CardRenderEvent();
+        event.begin();
+        CountingWriter counter = event.isEnabled() ? new CountingWriter(out) : null;
+
+        Map<String, Object> ctx = new HashMap<>(card.asMap());
+        ctx.put("lang", lang);
+        ctx.put("project", projectManager.getProjectProperties());
+
+        PebbleTemplate template = compileTemplate(engine, tpl);
+        translationFunction.setLanguage(lang);
+        cardTranslationFunction.setLanguage(lang);
+        cardTranslationFunction.setCardContext(card.getId(), ctx);
+        if (dependencies != null) {
+            translationFunction.setDependencies(dependencies);
+            cardTranslationFunction.setDependencies(dependencies);
+            cardLookupFunction.setDependencies(dependencies);
+        }
+        boolean failed = true;
         try {
-            Map<String, Object> ctx = new HashMap<>(card.asMap());
-            ctx.put("lang", lang);
-            ctx.put("project", projectManager.getProjectProperties());
-
-            PebbleTemplate template = engine.getTemplate(tpl);
-            StringWriter sw = new StringWriter();
-            translationFunction.setLanguage(lang);
-            cardTranslationFunction.setLanguage(lang);
-            cardTranslationFunction.setCardContext(card.getId(), ctx);
-            try {
-                template.evaluate(sw, ctx);
-            } finally {
-                translationFunction.clearLanguage();
-                cardTranslationFunction.clearLanguage();
-                cardTranslationFunction.clearCardContext();
+            template.evaluate(counter != null ? counter : out, ctx);
+            failed = false;
+        } finally {
+            renderSummary.record(started, failed);
+            translationFunction.clearLanguage();
+            cardTranslationFunction.clearLanguage();
+            cardTranslationFunction.clearCardContext();
+            if (dependencies != null) {
+                translationFunction.setDependencies(null);
+                cardTranslationFunction.setDependencies(null);
+                cardLookupFunction.setDependencies(null);
             }
+        }
 
-            log.debug("Rendered card {} with template {}", index, tpl);
-            return sw.toString();
-        } catch (Exception e) {
-            log.error("Error rendering card {}", index, e);
-            return "<p>Error rendering card.</p>";
+        event.end();
+        if (event.shouldCommit()) {
+            event.cardId = card.getId();
+            event.template = tpl;
+            event.language = lang;
+            event.outputLength = counter != null ? counter.count : -1;
+            event.commit();
+        }
+        log.debug("Rendered card {} with template {}", index, tpl);
+    }
+
+    /**
+     * Returns the name of the template a card renders with, relative to the templates directory.
+     */
+    public String templateOf(Card card) {
+        return Optional.ofNullable(card.getTemplate())
+                .filter(s -> !s.isBlank())
+                .orElse(projectManager.getDefaultTemplate());
+    }
+
+    private static PebbleTemplate compileTemplate(PebbleEngine engine, String name) {
+        TemplateCompileEvent event = new TemplateCompileEvent();
+        event.begin();
+        PebbleTemplate template = engine.getTemplate(name);
+        event.end();
+        if (event.shouldCommit()) {
+            event.template = name;
+            event.commit();
+        }
+        return template;
+    }
+
+    /**
+     * Renders a card as UTF-8 into {@code out} through buffers reused by the calling thread. The
+     * stream is flushed but not closed.
+     *
+     * @see #renderCard(int, String, Writer)
+     */
+    public void renderCard(int index, String lang, OutputStream out) throws IOException {
+        renderCard(index, lang, out, null);
+    }
+
+    /**
+     * Renders a card into {@code out} like {@link #renderCard(int, String, OutputStream)},
+     * recording what it reads into {@code dependencies} when not {@code null}.
+     */
+    public void renderCard(int index, String lang, OutputStream out, RenderDependencies dependencies)
+            throws IOException {
+        try (PooledStreamWriter writer = PooledStreamWriter.open(out)) {
+            renderCard(index, lang, writer, dependencies);
+        }
+    }
+
+    /**
+     * Counts the characters written through it, for {@link CardRenderEvent}.
+     */
+    private static final class CountingWriter extends FilterWriter {
+        private long count;
+
+        private CountingWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            out.write(c);
+            count++;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            out.write(cbuf, off, len);
+            count += len;
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            out.write(str, off, len);
+            count += len;
         }
     }
 }
@@ -0,0 +1,323 @@
+package com.spinyowl.cards.service;
+
+import com.spinyowl.cards.model.Card;
+import com.spinyowl.cards.model.ColumnError;
+import com.spinyowl.cards.model.ColumnSchema;
+import com.spinyowl.cards.util.CsvLoader;
+import com.spinyowl.cards.util.DaemonThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Loads the cards of a project from one or more CSV shards declared by {@code cards_file} in
+ * {@code project.yml}. Each entry is a path relative to the project directory or a glob such as
+ * {@code sets/*.csv}; a single string or a list of entries is accepted.
+ * <p>
+ * Configuration and loading happen on one thread at a time; {@link #isSource(Path)} may be called
+ * from any thread, such as a file watcher.
+ * <p>
+ * Shards are parsed concurrently and merged in a deterministic order: entries in declaration
+ * order, and files matched by a glob sorted by their relative path. When a card id occurs more
+ * than once, the first occurrence wins and later ones are reported and skipped. Parsed shards are
+ * kept, so a change to one file only re-reads that file.
+ */
+@Slf4j
+public class CardSourceLoader {
+
+    public static final String DEFAULT_CARDS_FILE = "cards.csv";
+
+    private static final ExecutorService LOADER_EXECUTOR = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors())),
+            DaemonThreadFactory.numbered("card-loader"));
+
+    private volatile Path root;
+    private List<String> entries = List.of(DEFAULT_CARDS_FILE);
+    private volatile List<PathMatcher> globMatchers = List.of();
+    private volatile Set<Path> literalSources = Set.of();
+    private ColumnSchema schema = ColumnSchema.empty();
+    private final Map<Path, Shard> shards = new ConcurrentHashMap<>();
+    private volatile List<Path> sources = List.of();
+    private volatile Map<String, List<Path>> duplicateIds = Map.of();
+    private volatile List<ColumnError> columnErrors = List.of();
+
+    private record Shard(List<Card> cards, List<ColumnError> errors) {
+    }
+
+    public void configure(Path projectDir, Object cardsFileConfig) {
+        configure(projectDir, cardsFileConfig, ColumnSchema.empty());
+    }
+
+    /**
+     * Applies the {@code cards_file} configuration and the column types. Cached shards are dropped
+     * when the project directory, the declared entries or the column types change.
+     */
+    public void configure(Path projectDir, Object cardsFileConfig, ColumnSchema columnSchema) {
+        Path newRoot = projectDir.toAbsolutePath().normalize();
+        List<String> newEntries = parseEntries(cardsFileConfig);
+        if (newRoot.equals(root) && newEntries.equals(entries) && columnSchema.equals(schema)) {
+            return;
+        }
+
+        root = newRoot;
+        entries = newEntries;
+        schema = columnSchema;
+        shards.clear();
+
+        List<PathMatcher> matchers = new ArrayList<>();
+        Set<Path> literals = new HashSet<>();
+        for (String entry : entries) {
+            if (isGlob(entry)) {
+                matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + entry));
+            } else {
+                literals.add(root.resolve(entry).normalize());
+            }
+        }
+        globMatchers = List.copyOf(matchers);
+        literalSources = Set.copyOf(literals);
+    }
+
+    /**
+     * Re-reads every shard.
+     */
+    public List<Card> loadAll() {
+        shards.clear();
+        return reload(null);
+    }
+
+    /**
+     * Re-resolves the shard list and reads shards that are new or listed in {@code changed}; a
+     * {@code null} collection re-reads everything. Returns the merged card list.
+     */
+    public List<Card> reload(Collection<Path> changed) {
+        requireRoot();
+        List<Path> resolved = resolveSources();
+        Set<Path> changedSet = new HashSet<>();
+        if (changed != null) {
+            for (Path path : changed) {
+                changedSet.add(path.toAbsolutePath().normalize());
+            }
+        }
+
+        shards.keySet().retainAll(new HashSet<>(resolved));
+        List<Path> toLoad = new ArrayList<>();
+        for (Path source : resolved) {
+            if (changed == null || changedSet.contains(source) || !shards.containsKey(source)) {
+                toLoad.add(source);
+            }
+        }
+        loadShards(toLoad);
+
+        sources = List.copyOf(resolved);
+        return merge();
+    }
+
+    /**
+     * Returns {@code true} when {@code path} is, or could become, one of the declared shards.
+     */
+    public boolean isSource(Path path) {
+        if (root == null || path == null) {
+            return false;
+        }
+        Path normalized = path.toAbsolutePath().normalize();
+        if (literalSources.contains(normalized) || shards.containsKey(normalized)) {
+            return true;
+        }
+        if (!normalized.startsWith(root) || globMatchers.isEmpty()) {
+            return false;
+        }
+        Path relative = root.relativize(normalized);
+        for (PathMatcher matcher : globMatchers) {
+            if (matcher.matches(relative)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public List<Path> getSources() {
+        return sources;
+    }
+
+    /**
+     * Returns the ids that occurred more than once in the last merge, mapped to every shard that
+     * declared them in merge order.
+     */
+    public Map<String, List<Path>> getDuplicateIds() {
+        return duplicateIds;
+    }
+
+    /**
+     * Returns the cells of the current shards that did not match their declared column type.
+     */
+    public List<ColumnError> getColumnErrors() {
+        return columnErrors;
+    }
+
+    private void loadShards(List<Path> toLoad) {
+        ColumnSchema columnSchema = schema;
+        if (toLoad.size() == 1) {
+            Path source = toLoad.getFirst();
+            shards.put(source, loadShard(source, columnSchema));
+            return;
+        }
+
+        Map<Path, CompletableFuture<Shard>> pending = new LinkedHashMap<>();
+        for (Path source : toLoad) {
+            pending.put(source, CompletableFuture.supplyAsync(() -> loadShard(source, columnSchema), LOADER_EXECUTOR));
+        }
+        pending.forEach((source, future) -> shards.put(source, future.join()));
+    }
+
+    private static Shard loadShard(Path source, ColumnSchema columnSchema) {
+        List<ColumnError> errors = new ArrayList<>();
+        List<Card> cards = CsvLoader.loadCards(source, columnSchema, errors);
+        return new Shard(cards, List.copyOf(errors));
+    }
+
+    private List<Card> merge() {
+        List<Card> merged = new ArrayList<>();
+        Map<String, Path> firstSeen = new HashMap<>();
+        Map<String, List<Path>> duplicates = new LinkedHashMap<>();
+        List<ColumnError> errors = new ArrayList<>();
+        for (Path source : sources) {
+            Shard shard = shards.get(source);
+            if (shard == null) {
+                continue;
+            }
+            errors.addAll(shard.errors());
+            for (Card card : shard.cards()) {
+                Path first = firstSeen.putIfAbsent(card.getId(), source);
+                if (first == null) {
+                    merged.add(card);
+                } else {
+                    duplicates.computeIfAbsent(card.getId(), id -> new ArrayList<>(List.of(first))).add(source);
+                }
+            }
+        }
+
+        duplicates.forEach((id, files) ->
+                log.warn("Duplicate card id '{}' in {} - keeping the first definition", id, files));
+        duplicateIds = Collections.unmodifiableMap(duplicates);
+        columnErrors = List.copyOf(errors);
+        return merged;
+    }
+
+    private List<Path> resolveSources() {
+        Set<Path> resolved = new LinkedHashSet<>();
+        for (String entry : entries) {
+            if (isGlob(entry)) {
+                resolved.addAll(expandGlob(entry));
+            } else {
+                resolved.add(root.resolve(entry).normalize());
+            }
+        }
+        return new ArrayList<>(resolved);
+    }
+
+    private List<Path> expandGlob(String pattern) {
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        Path base = root.resolve(staticPrefix(pattern)).normalize();
+        if (!Files.isDirectory(base)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.walk(base)) {
+            return files.filter(Files::isRegularFile)
+                    .map(file -> file.toAbsolutePath().normalize())
+                    .filter(file -> matcher.matches(root.relativize(file)))
+                    .sorted((a, b) -> root.relativize(a).toString().compareTo(root.relativize(b).toString()))
+                    .toList();
+        } catch (IOException e) {
+            log.warn("Failed to expand cards_file pattern {}", pattern, e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Returns the directory part of {@code pattern} before its first wildcard, so that globbing
+     * only walks the subtree that can match.
+     */
+    private static String staticPrefix(String pattern) {
+        String[] segments = pattern.split("/");
+        StringBuilder prefix = new StringBuilder();
+        for (int i = 0; i < segments.length - 1; i++) {
+            if (isGlob(segments[i])) {
+                break;
+            }
+            if (!prefix.isEmpty()) {
+                prefix.append('/');
+            }
+            prefix.append(segments[i]);
+        }
+        return prefix.toString();
+    }
+
+    private static boolean isGlob(String entry) {
+        for (char c : entry.toCharArray()) {
+            if (c == '*' || c == '?' || c == '[' || c == '{') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> parseEntries(Object config) {
+        List<String> result = new ArrayList<>();
+        if (config instanceof Collection<?> collection) {
+            for (Object item : collection) {
+                addEntry(result, item);
+            }
+        } else {
+            addEntry(result, config);
+        }
+        if (result.isEmpty()) {
+            result.add(DEFAULT_CARDS_FILE);
+        }
+        return List.copyOf(result);
+    }
+
+    private static void addEntry(List<String> entries, Object value) {
+        if (value == null) {
+            return;
+        }
+        String entry = value.toString().trim().replace('\\', '/');
+        if (entry.isEmpty()) {
+            return;
+        }
+        try {
+            if (isGlob(entry)) {
+                FileSystems.getDefault().getPathMatcher("glob:" + entry);
+            } else {
+                Path.of(entry);
+            }
+            entries.add(entry);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring invalid cards_file entry '{}'", value);
+        }
+    }
+
+    private void requireRoot() {
+        if (root == null) {
+            throw new IllegalStateException("Card sources are not configured");
+        }
+    }
+}
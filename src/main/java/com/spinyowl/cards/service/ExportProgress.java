@@ -0,0 +1,13 @@
+package com.spinyowl.cards.service;
+
+/**
+ * Receives the progress of an export. Called from the export's worker threads.
+ */
+@FunctionalInterface
+public interface ExportProgress {
+
+    ExportProgress NONE = (completed, total) -> {
+    };
+
+    void cardCompleted(int completed, int total);
+}
@@ -0,0 +1,50 @@
+package com.spinyowl.cards.service;
+
+import javafx.concurrent.Task;
+
+import java.util.function.Function;
+
+/**
+ * Runs an export in the background, reporting the cards finished so far as the task's progress.
+ * Cancelling the task interrupts the export, which stops its workers and leaves existing outputs
+ * untouched.
+ */
+public class ExportTask<T> extends Task<T> {
+
+    @FunctionalInterface
+    public interface Export<T> {
+        T run(ExportProgress progress) throws Exception;
+    }
+
+    private final int cardCount;
+    private final Export<T> export;
+    private final Function<T, String> summary;
+
+    private ExportTask(int cardCount, Export<T> export, Function<T, String> summary) {
+        this.cardCount = cardCount;
+        this.export = export;
+        this.summary = summary;
+    }
+
+    /**
+     * Creates a task titled {@code title} whose message becomes {@code summary} of the result.
+     */
+    public static <T> ExportTask<T> create(String title, int cardCount, Export<T> export,
+                                           Function<T, String> summary) {
+        ExportTask<T> task = new ExportTask<>(cardCount, export, summary);
+        task.updateTitle(title);
+        return task;
+    }
+
+    @Override
+    protected T call() throws Exception {
+        updateMessage("Rendering " + cardCount + " card(s)");
+        updateProgress(0, cardCount);
+        T result = export.run((completed, total) -> {
+            updateProgress(completed, total);
+            updateMessage("Rendered " + completed + " of " + total + " card(s)");
+        });
+        updateMessage(summary.apply(result));
+        return result;
+    }
+}
@@ -0,0 +1,103 @@
+package com.spinyowl.cards.service;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Opens a project in the background: configuration, cards, translations, and finally the renderer
+ * with its templates precompiled. The task's message and progress describe the running phase, and
+ * its title becomes the project name once the configuration is read. The task can be cancelled
+ * between phases.
+ */
+@Slf4j
+public class OpenProjectTask extends Task<OpenProjectTask.OpenedProject> {
+
+    private static final int TOTAL_STEPS = ProjectManager.OpenPhase.values().length + 1;
+
+    public record OpenedProject(ProjectManager manager, CardRenderer renderer) {
+    }
+
+    private final Path projectDir;
+    private final Consumer<ProjectManager> onConfigurationLoaded;
+
+    private OpenProjectTask(Path projectDir, Consumer<ProjectManager> onConfigurationLoaded) {
+        this.projectDir = Objects.requireNonNull(projectDir, "projectDir");
+        this.onConfigurationLoaded = Objects.requireNonNull(onConfigurationLoaded, "onConfigurationLoaded");
+    }
+
+    /**
+     * Creates a task titled with the directory name until the project name is known.
+     *
+     * @param onConfigurationLoaded called on the FX application thread as soon as the project
+     *                              configuration is read, before cards and translations are loaded
+     */
+    public static OpenProjectTask create(Path projectDir, Consumer<ProjectManager> onConfigurationLoaded) {
+        OpenProjectTask task = new OpenProjectTask(projectDir, onConfigurationLoaded);
+        Path fileName = projectDir.getFileName();
+        task.updateTitle(fileName != null ? fileName.toString() : projectDir.toString());
+        return task;
+    }
+
+    public Path getProjectDir() {
+        return projectDir;
+    }
+
+    @Override
+    protected OpenedProject call() throws Exception {
+        long start = System.nanoTime();
+        ProjectManager manager = new ProjectManager();
+        manager.openProject(projectDir, new ProjectManager.OpenProgress() {
+            @Override
+            public void phaseStarted(ProjectManager.OpenPhase phase) {
+                checkCancelled();
+                updateMessage(describe(phase));
+            }
+
+            @Override
+            public void phaseCompleted(ProjectManager.OpenPhase phase) {
+                updateProgress(phase.ordinal() + 1, TOTAL_STEPS);
+                if (phase == ProjectManager.OpenPhase.CONFIGURATION) {
+                    updateTitle(manager.getProjectName());
+                    Platform.runLater(() -> {
+                        if (!isCancelled()) {
+                            onConfigurationLoaded.accept(manager);
+                        }
+                    });
+                }
+            }
+        });
+
+        checkCancelled();
+        updateMessage("Compiling templates");
+        CardRenderer renderer = CardRenderer.create(manager);
+        renderer.precompileTemplates();
+        checkCancelled();
+
+        updateProgress(TOTAL_STEPS, TOTAL_STEPS);
+        updateMessage("Project loaded");
+        log.info("Opened project {} in {} ms", projectDir,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return new OpenedProject(manager, renderer);
+    }
+
+    private void checkCancelled() {
+        if (isCancelled() || Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Opening " + projectDir + " was cancelled");
+        }
+    }
+
+    private static String describe(ProjectManager.OpenPhase phase) {
+        return switch (phase) {
+            case CONFIGURATION -> "Reading project configuration";
+            case CARDS -> "Loading cards";
+            case TRANSLATIONS -> "Loading translations";
+        };
+    }
+}
@@ -0,0 +1,232 @@
+package com.spinyowl.cards.service;
+
+import com.spinyowl.cards.model.Card;
+import com.spinyowl.cards.util.DaemonThreadFactory;
+import com.spinyowl.cards.util.Futures;
+import com.spinyowl.cards.util.RenderDependencies;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.jsoup.nodes.Document;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exports cards to a print-ready PDF with one page per card, sized to the project card
+ * dimensions. Cards are rendered by {@link CardRenderer} and laid out by {@link CardPageLayout},
+ * so no browser or external process is involved.
+ * <p>
+ * The cards are split into consecutive runs of at least {@link #MIN_CARDS_PER_PART}, one per
+ * worker. Each worker renders its run and lays it out into a document of its own, since layout
+ * takes most of the time of an export; the pages are then imported in order into the exported
+ * document. The {@code .ttf} fonts from the project {@code fonts} directory are loaded once per
+ * worker document, so the pages of a run share one subset of each font. Image files and font
+ * metrics are read once per export.
+ * <p>
+ * The target directory keeps a {@link BuildManifest} of what each PDF was built from. A PDF whose
+ * cards and their inputs are all unchanged is left as it is; otherwise it is written again as a
+ * whole.
+ */
+@Slf4j
+public class PdfExporter {
+
+    /**
+     * Fewest cards given to a worker of their own. Each worker lays out into its own document, and
+     * each of those embeds its own subset of every font, so small exports stay in one.
+     */
+    private static final int MIN_CARDS_PER_PART = 16;
+
+    private final ProjectManager projectManager;
+    private final CardRenderer renderer;
+    private final int workers;
+
+    /**
+     * @param upToDate     {@code true} when the existing file was kept because nothing changed
+     * @param translations the translation lookups of the cards this export rendered that failed or
+     *                     fell back to the default language
+     */
+    public record Result(Path file, int pageCount, boolean upToDate, long elapsedMillis,
+                         TranslationReport translations) {
+    }
+
+    public PdfExporter(ProjectManager projectManager, CardRenderer renderer, int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be positive");
+        }
+        this.projectManager = projectManager;
+        this.renderer = renderer;
+        this.workers = workers;
+    }
+
+    /**
+     * Writes the cards at {@code cardIndexes}, in that order, to {@code target}. The file is
+     * replaced only once the whole document has been written.
+     *
+     * @throws IOException          if a card fails to render or the file cannot be written
+     * @throws InterruptedException if the export is interrupted
+     */
+    public Result export(int[] cardIndexes, String lang, Path target, ExportProgress progress)
+            throws IOException, InterruptedException {
+        if (cardIndexes.length == 0) {
+            throw new IllegalArgumentException("No cards to export");
+        }
+        long start = System.nanoTime();
+        CardPageLayout layout = new CardPageLayout(projectManager);
+        RenderInputs inputs = new RenderInputs(projectManager, renderer,
+                List.of("pdf", layout.pageStyle(), layout.fontsHash()), layout::resourceHash);
+        Path directory = target.toAbsolutePath().getParent();
+        BuildManifest manifest = BuildManifest.load(directory);
+        String artifact = target.getFileName().toString();
+        List<Card> cards = projectManager.getCards();
+        if (isUpToDate(manifest.get(artifact), inputs, cards, cardIndexes, lang, target)) {
+            progress.cardCompleted(cardIndexes.length, cardIndexes.length);
+            int pages;
+            try (PDDocument existing = Loader.loadPDF(target.toFile())) {
+                pages = existing.getNumberOfPages();
+            }
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.info("{} is up to date with its {} cards", target, cardIndexes.length);
+            return new Result(target, pages, true, millis, new TranslationReport.Batch().report());
+        }
+
+        AtomicInteger completed = new AtomicInteger();
+        TranslationReport.Batch translations = new TranslationReport.Batch();
+        int parts = Math.min(workers, (cardIndexes.length + MIN_CARDS_PER_PART - 1) / MIN_CARDS_PER_PART);
+        ExecutorService pool = Executors.newFixedThreadPool(parts, DaemonThreadFactory.numbered("pdf-export"));
+        BuildManifest.Source[] sources = new BuildManifest.Source[cardIndexes.length];
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = Files.createTempFile(parent, artifact, ".tmp");
+        List<Future<PDDocument>> running = new ArrayList<>(parts);
+        try (PDDocument document = new PDDocument(IOUtils.createTempFileOnlyStreamCache())) {
+            for (int part = 0; part < parts; part++) {
+                int from = (int) ((long) cardIndexes.length * part / parts);
+                int to = (int) ((long) cardIndexes.length * (part + 1) / parts);
+                running.add(pool.submit(() -> layOut(layout, cards, cardIndexes, from, to, lang, translations,
+                        sources, () -> progress.cardCompleted(completed.incrementAndGet(), cardIndexes.length))));
+            }
+            for (Future<PDDocument> part : running) {
+                for (PDPage page : Futures.await(part).getPages()) {
+                    document.importPage(page);
+                }
+            }
+            document.save(temp.toFile());
+            int pages = document.getNumberOfPages();
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            List<BuildManifest.Source> built = List.of(sources);
+            manifest.put(artifact, new BuildManifest.Entry(artifact, inputs.hash(built), built));
+            manifest.save();
+
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            renderer.flushRenderSummary();
+            log.info("Exported {} cards ({} pages) to {} in {} ms", cardIndexes.length, pages, target, millis);
+            return new Result(target, pages, false, millis, translations.report());
+        } finally {
+            pool.shutdownNow();
+            closeParts(running);
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Closes the document of every part that was laid out, waiting for parts that are still
+     * running to stop. Failed parts have no document.
+     */
+    private static void closeParts(List<Future<PDDocument>> parts) throws IOException, InterruptedException {
+        for (Future<PDDocument> part : parts) {
+            try {
+                part.get().close();
+            } catch (ExecutionException e) {
+                log.debug("PDF export part failed", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Renders the cards at positions {@code from} to {@code to} of {@code cardIndexes} and lays
+     * them out into a document of their own, recording what each read in {@code sources}. The
+     * fonts are subset before returning, since the document is not saved itself but has its pages
+     * imported into the exported one.
+     */
+    private PDDocument layOut(CardPageLayout layout, List<Card> cards, int[] cardIndexes, int from, int to,
+                              String lang, TranslationReport.Batch translations, BuildManifest.Source[] sources,
+                              Runnable cardDone) throws IOException {
+        PDDocument document = new PDDocument(IOUtils.createTempFileOnlyStreamCache());
+        try {
+            List<PDFont> fonts = layout.loadFonts(document);
+            for (int position = from; position < to; position++) {
+                Document card = renderCard(layout, cards, cardIndexes[position], lang, translations, sources, position);
+                try {
+                    layout.addPages(document, fonts, card);
+                } catch (RuntimeException e) {
+                    throw new IOException("Failed to export card " + cards.get(cardIndexes[position]).getId()
+                            + ": " + e.getMessage(), e);
+                }
+                cardDone.run();
+            }
+            for (PDFont font : fonts) {
+                font.subset();
+            }
+            return document;
+        } catch (IOException | RuntimeException e) {
+            document.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Renders and parses the card at {@code index}, recording what it read at {@code position} of
+     * {@code sources}.
+     */
+    private Document renderCard(CardPageLayout layout, List<Card> cards, int index, String lang,
+                                TranslationReport.Batch translations, BuildManifest.Source[] sources, int position) throws IOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("PDF export cancelled");
+        }
+        try {
+            RenderDependencies dependencies = translations.dependencies();
+            Document card = layout.render(renderer, index, lang, dependencies, null);
+            sources[position] = RenderInputs.source(cards.get(index), lang, dependencies,
+                    layout.localResources(card).keySet());
+            return card;
+        } catch (RuntimeException e) {
+            String id = index >= 0 && index < cards.size() ? cards.get(index).getId() : String.valueOf(index);
+            throw new IOException("Failed to export card " + id + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns {@code true} when {@code target} exists and was built from the same cards, in the
+     * same order and language, whose inputs have not changed since.
+     */
+    private static boolean isUpToDate(BuildManifest.Entry entry, RenderInputs inputs, List<Card> cards,
+                                      int[] cardIndexes, String lang, Path target) {
+        if (entry == null || entry.sources().size() != cardIndexes.length || !Files.isRegularFile(target)) {
+            return false;
+        }
+        for (int i = 0; i < cardIndexes.length; i++) {
+            BuildManifest.Source source = entry.sources().get(i);
+            if (!source.cardId().equals(cards.get(cardIndexes[i]).getId()) || !source.lang().equals(lang)) {
+                return false;
+            }
+        }
+        return entry.inputHash().equals(inputs.hash(entry.sources()));
+    }
+}
@@ -0,0 +1,162 @@
+package com.spinyowl.cards.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Glob rules selecting project paths that the watcher must not register or report. Rules come
+ * from built-in defaults (VCS folders, IDE metadata, editor swap files, OS metadata, the export
+ * directory), the project's {@code .deckignore} file and the {@code ignore} list in
+ * {@code project.yml}.
+ * <p>
+ * Rules follow the usual ignore-file conventions: blank lines and lines starting with {@code #}
+ * are skipped, a pattern without a slash matches a file or directory name at any depth, and a
+ * pattern with a leading or inner slash is matched against the path relative to the project root.
+ * Ignoring a directory ignores everything below it.
+ */
+@Slf4j
+public final class ProjectIgnoreRules {
+
+    public static final String IGNORE_FILE = ".deckignore";
+
+    private static final List<String> DEFAULT_PATTERNS = List.of(
+            ".git", ".svn", ".hg", ".idea", ".vscode",
+            ".DS_Store", "Thumbs.db", "desktop.ini",
+            "*.swp", "*.swo", "*.tmp", "*~", ".#*", "#*#",
+            "/" + ProjectManager.EXPORT_DIRECTORY);
+
+    private static final ProjectIgnoreRules NONE = new ProjectIgnoreRules(null, List.of(), List.of(), List.of());
+
+    private final Path root;
+    private final List<String> patterns;
+    private final List<PathMatcher> nameMatchers;
+    private final List<PathMatcher> pathMatchers;
+
+    private ProjectIgnoreRules(Path root, List<String> patterns, List<PathMatcher> nameMatchers,
+                               List<PathMatcher> pathMatchers) {
+        this.root = root;
+        this.patterns = patterns;
+        this.nameMatchers = nameMatchers;
+        this.pathMatchers = pathMatchers;
+    }
+
+    public static ProjectIgnoreRules none() {
+        return NONE;
+    }
+
+    /**
+     * Builds the rules for {@code root} from the defaults, {@code root/.deckignore} and the given
+     * additional patterns.
+     */
+    public static ProjectIgnoreRules load(Path root, Collection<String> additionalPatterns) {
+        List<String> patterns = new ArrayList<>(DEFAULT_PATTERNS);
+        Path ignoreFile = root.resolve(IGNORE_FILE);
+        if (Files.isRegularFile(ignoreFile)) {
+            try {
+                patterns.addAll(Files.readAllLines(ignoreFile));
+            } catch (IOException e) {
+                log.warn("Failed to read ignore rules from {}", ignoreFile, e);
+            }
+        }
+        if (additionalPatterns != null) {
+            patterns.addAll(additionalPatterns);
+        }
+        return of(root, patterns);
+    }
+
+    public static ProjectIgnoreRules of(Path root, Collection<String> patterns) {
+        List<String> accepted = new ArrayList<>();
+        List<PathMatcher> nameMatchers = new ArrayList<>();
+        List<PathMatcher> pathMatchers = new ArrayList<>();
+        for (String raw : patterns) {
+            if (raw == null) {
+                continue;
+            }
+            String pattern = raw.trim();
+            if (pattern.isEmpty() || pattern.startsWith("#")) {
+                continue;
+            }
+            pattern = pattern.replace('\\', '/');
+            while (pattern.endsWith("/")) {
+                pattern = pattern.substring(0, pattern.length() - 1);
+            }
+            boolean anchored = pattern.startsWith("/");
+            while (pattern.startsWith("/")) {
+                pattern = pattern.substring(1);
+            }
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            try {
+                PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+                if (anchored || pattern.contains("/")) {
+                    pathMatchers.add(matcher);
+                } else {
+                    nameMatchers.add(matcher);
+                }
+                accepted.add((anchored ? "/" : "") + pattern);
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignoring invalid ignore pattern '{}'", raw);
+            }
+        }
+        return new ProjectIgnoreRules(root.toAbsolutePath().normalize(), List.copyOf(accepted),
+                List.copyOf(nameMatchers), List.copyOf(pathMatchers));
+    }
+
+    /**
+     * Returns {@code true} when {@code path}, or one of its ancestors below the project root,
+     * matches an ignore rule. Paths outside the project root are never ignored.
+     */
+    public boolean isIgnored(Path path) {
+        if (root == null || path == null) {
+            return false;
+        }
+        Path normalized = path.toAbsolutePath().normalize();
+        if (!normalized.startsWith(root) || normalized.equals(root)) {
+            return false;
+        }
+
+        Path relative = root.relativize(normalized);
+        for (int i = 0; i < relative.getNameCount(); i++) {
+            Path name = relative.getName(i);
+            for (PathMatcher matcher : nameMatchers) {
+                if (matcher.matches(name)) {
+                    return true;
+                }
+            }
+            if (!pathMatchers.isEmpty()) {
+                Path prefix = relative.subpath(0, i + 1);
+                for (PathMatcher matcher : pathMatchers) {
+                    if (matcher.matches(prefix)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Rules are equal when they have the same root and the same effective patterns, in order.
+     */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ProjectIgnoreRules other
+                && Objects.equals(root, other.root)
+                && patterns.equals(other.patterns);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(root, patterns);
+    }
+}
@@ -1,7 +1,10 @@
 package com.spinyowl.cards.service;
 
+import com.spinyowl.cards.diagnostics.ProjectLoadEvent;
 import com.spinyowl.cards.model.Card;
-import com.spinyowl.cards.util.CsvLoader;
+import com.spinyowl.cards.model.CardDiff;
+import com.spinyowl.cards.model.ColumnError;
+import com.spinyowl.cards.model.ColumnSchema;
 import com.spinyowl.cards.util.TranslationService;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -12,13 +15,22 @@ import java.io.InputStream;
 import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @Slf4j
 public class ProjectManager {
@@ -26,20 +38,78 @@ public class ProjectManager {
     @Getter
     private Path projectDir;
 
+    /**
+     * Directory below the project root that exports are written to by default.
+     */
+    public static final String EXPORT_DIRECTORY = "export";
+
     private static final String DEFAULT_CARD_WIDTH = "2.5in";
     private static final String DEFAULT_CARD_HEIGHT = "3.5in";
     private static final Pattern DIMENSION_PATTERN =
             Pattern.compile("^(\\d+(?:\\.\\d+)?)(px|in|cm|mm)$", Pattern.CASE_INSENSITIVE);
     private static final Pattern NUMERIC_PATTERN = Pattern.compile("^(\\d+(?:\\.\\d+)?)$");
 
+    private static final AtomicLong CONFIG_VERSIONS = new AtomicLong();
+
     private Map<String, Object> config = Collections.emptyMap();
+    private volatile Map<String, Object> projectProperties = Map.of();
+    private volatile long configVersion;
     private List<Card> cards = Collections.emptyList();
+    private Map<String, Integer> cardIndexById = Map.of();
+    private volatile CardIndex cardIndex = new CardIndex(List.of());
+    @Getter
+    private CardDiff lastCardDiff = CardDiff.empty();
+    /**
+     * Whether the last reload changed card rows only, so that cards {@link #getLastCardDiff()} does
+     * not mention render as before.
+     */
+    @Getter
+    private boolean cardsOnlyReload;
+    private final CardSourceLoader cardSources = new CardSourceLoader();
+    /**
+     * Written when the configuration loads and read by the watcher thread.
+     */
+    @Getter
+    private volatile ProjectIgnoreRules ignoreRules = ProjectIgnoreRules.none();
+    private final Set<Path> referencedFiles = ConcurrentHashMap.newKeySet();
     private TranslationService translations;
     private TranslationService cardTranslations;
     private final List<ReloadListener> reloadListeners = new CopyOnWriteArrayList<>();
 
     public interface ReloadListener {
+        /**
+         * Called after the project was opened or reloaded in a way that can change any card, such
+         * as an edit to the configuration, a template or a translation.
+         */
         void onProjectReload(ProjectManager manager);
+
+        /**
+         * Called instead of {@link #onProjectReload(ProjectManager)} when only card rows changed,
+         * with the row-level changes between the previously loaded cards and the freshly loaded
+         * ones. Cards the diff does not mention, and that do not look up one it does, render as
+         * before. Defaults to treating the change like any other reload.
+         */
+        default void onCardsChanged(ProjectManager manager, CardDiff diff) {
+            onProjectReload(manager);
+        }
+    }
+
+    /**
+     * Phases of opening a project, in the order they run.
+     */
+    public enum OpenPhase {
+        CONFIGURATION, CARDS, TRANSLATIONS
+    }
+
+    /**
+     * Receives progress while a project is opened. Throwing from a callback, for example a
+     * {@link java.util.concurrent.CancellationException}, aborts the open.
+     */
+    public interface OpenProgress {
+        void phaseStarted(OpenPhase phase);
+
+        default void phaseCompleted(OpenPhase phase) {
+        }
     }
 
     public void addReloadListener(ReloadListener listener) {
@@ -55,17 +125,85 @@ public class ProjectManager {
     }
 
     public void openProject(Path dir) throws IOException {
+        openProject(dir, phase -> {
+        });
+    }
+
+    /**
+     * Opens the project in {@code dir}, reporting each phase to {@code progress}. Listeners are
+     * notified only once every phase has completed.
+     */
+    public void openProject(Path dir, OpenProgress progress) throws IOException {
         this.projectDir = dir;
-        loadProjectData();
+        this.cards = Collections.emptyList();
+        this.cardIndexById = Map.of();
+        this.cardIndex = new CardIndex(List.of());
+        loadProjectData("open", progress);
         log.info("Opened project: {}", getProjectName());
-        notifyReloadListeners();
+        notifyReloadListeners(false);
     }
 
     public void reloadProject() throws IOException {
         ensureProjectDir();
-        loadProjectData();
+        loadProjectData("reload", phase -> {
+        });
         log.info("Reloaded project configuration for {}", projectDir);
-        notifyReloadListeners();
+        notifyReloadListeners(false);
+    }
+
+    /**
+     * Reloads only what the given changed paths can affect. Changed translation files reload just
+     * those languages in place, keeping every other loaded language hot, and changed card shards
+     * re-read only those shards. Any other change falls back to {@link #reloadProject()}.
+     */
+    public void reloadChanged(Collection<Path> changedPaths) throws IOException {
+        ensureProjectDir();
+        if (changedPaths == null || changedPaths.isEmpty() || translations == null || cardTranslations == null) {
+            reloadProject();
+            return;
+        }
+
+        Map<TranslationService, Set<String>> languages = new LinkedHashMap<>();
+        List<Path> changedShards = new ArrayList<>();
+        for (Path path : changedPaths) {
+            if (cardSources.isSource(path)) {
+                changedShards.add(path);
+                continue;
+            }
+            String lang = cardTranslations.languageOf(path);
+            TranslationService service = cardTranslations;
+            if (lang == null) {
+                lang = translations.languageOf(path);
+                service = translations;
+            }
+            if (lang == null) {
+                reloadProject();
+                return;
+            }
+            languages.computeIfAbsent(service, s -> new LinkedHashSet<>()).add(lang);
+        }
+
+        ProjectLoadEvent event = new ProjectLoadEvent();
+        event.begin();
+        long start = System.nanoTime();
+        languages.forEach((service, langs) -> langs.forEach(service::reload));
+        long translated = System.nanoTime();
+        if (changedShards.isEmpty()) {
+            lastCardDiff = CardDiff.empty();
+        } else {
+            applyCards(cardSources.reload(changedShards));
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.project = String.valueOf(projectDir);
+            event.operation = "incremental reload";
+            event.cardCount = cards.size();
+            event.translationsDuration = translated - start;
+            event.cardsDuration = System.nanoTime() - translated;
+            event.commit();
+        }
+        log.info("Reloaded translations {} and card files {} for {}", languages.values(), changedShards, projectDir);
+        notifyReloadListeners(languages.isEmpty());
     }
 
     public String getProjectName() {
@@ -84,7 +222,24 @@ public class ProjectManager {
         return requireProjectDir().resolve(rel);
     }
 
+    /**
+     * Returns the project configuration as exposed to templates, with the card dimensions
+     * normalized. The view is built once per configuration load and the same unmodifiable
+     * instance is returned until the configuration is loaded again.
+     */
     public Map<String, Object> getProjectProperties() {
+        return projectProperties;
+    }
+
+    /**
+     * Returns a stamp that changes every time the configuration is loaded and is unique across
+     * projects, so caches of values derived from {@link #getProjectProperties()} can key on it.
+     */
+    public long getConfigVersion() {
+        return configVersion;
+    }
+
+    private Map<String, Object> buildProjectProperties() {
         Map<String, Object> view = new LinkedHashMap<>();
         if (config != null) {
             view.putAll(config);
@@ -112,6 +267,58 @@ public class ProjectManager {
         return cards;
     }
 
+    /**
+     * Returns the card with the given id, or {@code null} when there is none. Backed by a hash
+     * index built at load time.
+     */
+    public Card getCard(String id) {
+        int index = indexOfCard(id);
+        return index < 0 ? null : cards.get(index);
+    }
+
+    /**
+     * Returns the position of the card with the given id in {@link #getCards()}, or {@code -1}.
+     */
+    public int indexOfCard(String id) {
+        if (id == null) {
+            return -1;
+        }
+        Integer index = cardIndexById.get(id);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Returns the positions in {@link #getCards()} of the cards matching {@code query}, in the
+     * order the query asks for. Column indexes are built on first use and reused until the cards
+     * are reloaded.
+     */
+    public int[] queryCards(CardQuery query) {
+        return cardIndex.select(query);
+    }
+
+    /**
+     * Returns the card ids that were declared more than once during the last load, mapped to the
+     * files declaring them. Only the first definition of each id is kept.
+     */
+    public Map<String, List<Path>> getDuplicateCardIds() {
+        return cardSources.getDuplicateIds();
+    }
+
+    /**
+     * Returns the cells of the loaded cards that did not match the type declared for their column
+     * under {@code columns} in {@code project.yml}.
+     */
+    public List<ColumnError> getColumnErrors() {
+        return cardSources.getColumnErrors();
+    }
+
+    /**
+     * Returns the card files the current cards were loaded from, in merge order.
+     */
+    public List<Path> getCardFiles() {
+        return cardSources.getSources();
+    }
+
     public TranslationService getTranslations() {
         return translations;
     }
@@ -120,10 +327,89 @@ public class ProjectManager {
         return cardTranslations;
     }
 
+    /**
+     * Scans {@code i18n/} and {@code i18n/cards/} for language files and returns the languages
+     * found, with the default language first and the rest in alphabetical order. Performs file
+     * I/O, so callers on the FX thread should run it in the background.
+     */
+    public List<String> discoverLanguages() {
+        Set<String> found = new TreeSet<>();
+        collectLanguages(resolve("i18n"), found);
+        collectLanguages(resolve("i18n/cards"), found);
+
+        List<String> languages = new ArrayList<>();
+        String defaultLanguage = getDefaultLanguage();
+        languages.add(defaultLanguage);
+        for (String lang : found) {
+            if (!lang.equals(defaultLanguage)) {
+                languages.add(lang);
+            }
+        }
+        return Collections.unmodifiableList(languages);
+    }
+
+    /**
+     * Returns {@code true} when {@code path} is excluded from watching by the project's ignore
+     * rules.
+     */
+    public boolean isIgnored(Path path) {
+        return ignoreRules.isIgnored(path);
+    }
+
+    /**
+     * Returns {@code true} when a change to {@code path} can affect rendered output: the project
+     * configuration and ignore file, the card sources, anything under {@code i18n/},
+     * {@code templates/} or {@code fonts/}, the project root itself (which watchers report when
+     * individual events were lost), and the files rendered cards were found to refer to. Files that
+     * only a stylesheet outside {@code templates/} refers to are not followed.
+     */
+    public boolean affectsRendering(Path path) {
+        if (projectDir == null || path == null) {
+            return false;
+        }
+        Path root = projectDir.toAbsolutePath().normalize();
+        Path normalized = path.toAbsolutePath().normalize();
+        if (normalized.equals(root)) {
+            return true;
+        }
+        if (!normalized.startsWith(root)) {
+            return false;
+        }
+
+        Path relative = root.relativize(normalized);
+        String first = relative.getName(0).toString();
+        if (relative.getNameCount() == 1
+                && (first.equals("project.yml") || first.equals(ProjectIgnoreRules.IGNORE_FILE))) {
+            return true;
+        }
+        if (first.equals("i18n") || first.equals("templates") || first.equals("fonts")) {
+            return true;
+        }
+        return cardSources.isSource(normalized) || referencedFiles.contains(normalized);
+    }
+
+    /**
+     * Records files a rendered card refers to, so that {@link #affectsRendering(Path)} reports
+     * changes to them. Entries are kept for as long as the project stays open.
+     */
+    public void addReferencedFiles(Collection<Path> files) {
+        for (Path file : files) {
+            referencedFiles.add(file.toAbsolutePath().normalize());
+        }
+    }
+
     public Path getTemplatesDirectory() {
         return resolve("templates");
     }
 
+    public Path getFontsDirectory() {
+        return resolve("fonts");
+    }
+
+    public Path getExportDirectory() {
+        return resolve(EXPORT_DIRECTORY);
+    }
+
     private String normalizeDimension(Object value, String fallback) {
         if (value instanceof Number number) {
             return stripTrailingZeros(number) + "px";
@@ -163,10 +449,33 @@ public class ProjectManager {
         return decimal.toPlainString();
     }
 
-    private void loadProjectData() throws IOException {
+    private void loadProjectData(String operation, OpenProgress progress) throws IOException {
+        ProjectLoadEvent event = new ProjectLoadEvent();
+        event.begin();
+
+        long start = System.nanoTime();
+        progress.phaseStarted(OpenPhase.CONFIGURATION);
         loadConfiguration();
+        progress.phaseCompleted(OpenPhase.CONFIGURATION);
+        long configured = System.nanoTime();
+        progress.phaseStarted(OpenPhase.CARDS);
         loadCards();
+        progress.phaseCompleted(OpenPhase.CARDS);
+        long cardsLoaded = System.nanoTime();
+        progress.phaseStarted(OpenPhase.TRANSLATIONS);
         loadTranslations();
+        progress.phaseCompleted(OpenPhase.TRANSLATIONS);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.project = String.valueOf(projectDir);
+            event.operation = operation;
+            event.cardCount = cards.size();
+            event.configurationDuration = configured - start;
+            event.cardsDuration = cardsLoaded - configured;
+            event.translationsDuration = System.nanoTime() - cardsLoaded;
+            event.commit();
+        }
     }
 
     private void loadConfiguration() throws IOException {
@@ -191,25 +500,104 @@ public class ProjectManager {
                 config = new LinkedHashMap<>();
             }
         }
+
+        ignoreRules = ProjectIgnoreRules.load(dir, asStringList(config.get("ignore")));
+        projectProperties = buildProjectProperties();
+        configVersion = CONFIG_VERSIONS.incrementAndGet();
     }
 
     private void loadCards() {
-        Path csvFile = resolve("cards.csv");
-        List<Card> loadedCards = CsvLoader.loadCards(csvFile);
-        this.cards = Collections.unmodifiableList(loadedCards);
-        log.info("Loaded {} cards", cards.size());
+        cardSources.configure(requireProjectDir(), config.get("cards_file"),
+                ColumnSchema.fromConfig(config.get("columns")));
+        applyCards(cardSources.loadAll());
+    }
+
+    private void applyCards(List<Card> merged) {
+        List<Card> loadedCards = Collections.unmodifiableList(merged);
+        this.lastCardDiff = CardDiff.compute(cards, loadedCards);
+        this.cards = loadedCards;
+        this.cardIndexById = indexById(loadedCards);
+        this.cardIndex = new CardIndex(loadedCards);
+        log.info("Loaded {} cards from {} file(s) ({})", cards.size(), cardSources.getSources().size(), lastCardDiff);
+        if (!cardSources.getDuplicateIds().isEmpty()) {
+            log.warn("{} card id(s) are defined more than once: {}", cardSources.getDuplicateIds().size(),
+                    cardSources.getDuplicateIds().keySet());
+        }
+        if (!cardSources.getColumnErrors().isEmpty()) {
+            log.warn("{} cell(s) do not match their declared column type", cardSources.getColumnErrors().size());
+        }
+    }
+
+    private Map<String, Integer> indexById(List<Card> loadedCards) {
+        Map<String, Integer> index = new HashMap<>(loadedCards.size() * 2);
+        for (int i = 0; i < loadedCards.size(); i++) {
+            index.putIfAbsent(loadedCards.get(i).getId(), i);
+        }
+        return Collections.unmodifiableMap(index);
     }
 
     private void loadTranslations() {
         Path dir = requireProjectDir();
-        this.translations = new TranslationService(dir.resolve("i18n"));
-        this.cardTranslations = new TranslationService(dir.resolve("i18n/cards"));
+        this.translations = reuseOrCreate(translations, dir.resolve("i18n"));
+        this.cardTranslations = reuseOrCreate(cardTranslations, dir.resolve("i18n/cards"));
+        List<String> defaultLanguage = List.of(getDefaultLanguage());
+        translations.preload(defaultLanguage);
+        cardTranslations.preload(defaultLanguage);
+    }
+
+    private List<String> asStringList(Object value) {
+        if (value instanceof Collection<?> collection) {
+            List<String> result = new ArrayList<>();
+            for (Object item : collection) {
+                if (item != null) {
+                    result.add(item.toString());
+                }
+            }
+            return result;
+        }
+        if (value instanceof String str && !str.isBlank()) {
+            return List.of(str);
+        }
+        return List.of();
     }
 
-    private void notifyReloadListeners() {
+    private void collectLanguages(Path dir, Set<String> languages) {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(Files::isRegularFile)
+                    .map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(".yml") && name.length() > ".yml".length())
+                    .map(name -> name.substring(0, name.length() - ".yml".length()))
+                    .forEach(languages::add);
+        } catch (IOException e) {
+            log.warn("Failed to scan language files in {}", dir, e);
+        }
+    }
+
+    private TranslationService reuseOrCreate(TranslationService existing, Path dir) {
+        if (existing != null && dir.equals(existing.getDirectory())) {
+            existing.invalidateAll();
+            return existing;
+        }
+        return new TranslationService(dir);
+    }
+
+    /**
+     * Tells every listener about the reload; a listener that throws does not keep the others from
+     * being notified.
+     */
+    private void notifyReloadListeners(boolean cardsOnly) {
+        cardsOnlyReload = cardsOnly;
+        CardDiff diff = lastCardDiff;
         for (ReloadListener listener : reloadListeners) {
             try {
-                listener.onProjectReload(this);
+                if (cardsOnly) {
+                    listener.onCardsChanged(this, diff);
+                } else {
+                    listener.onProjectReload(this);
+                }
             } catch (Exception e) {
                 log.warn("Project reload listener {} failed", listener, e);
             }
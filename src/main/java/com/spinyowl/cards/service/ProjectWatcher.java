@@ -1,105 +1,161 @@
 package com.spinyowl.cards.service;
 
+import com.spinyowl.cards.util.DaemonThreadFactory;
+import io.methvin.watcher.DirectoryChangeEvent;
+import io.methvin.watcher.DirectoryWatcher;
+import io.methvin.watcher.hashing.FileHash;
+import io.methvin.watcher.hashing.FileHasher;
+import io.methvin.watcher.visitor.FileTreeVisitor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
-import java.nio.file.*;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
-
-import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
-import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
-
+import java.util.function.Predicate;
+
+/**
+ * Watches a project directory recursively using the directory-watcher library, which uses the
+ * platform's native recursive file events where available (FSEvents on macOS, recursive
+ * registration on Windows) instead of registering every directory individually. Small files, such
+ * as the configuration, tables, translations and templates, are hashed by content, so saving one
+ * unchanged does not reach the callback; larger files such as images and fonts are compared by
+ * modification time only. An event overflow is reported as a change of the project root.
+ * <p>
+ * Registration walks and hashes the whole tree, so it runs on the watcher's own thread rather than
+ * the caller's; changes made while it is still walking may be missed.
+ * <p>
+ * Paths matching the ignore filter are neither registered, hashed nor reported, and events for
+ * paths the relevance filter rejects are dropped before the callback is invoked.
+ */
 @Slf4j
-public class ProjectWatcher implements AutoCloseable {
+public final class ProjectWatcher implements AutoCloseable {
+
+    /**
+     * Largest file whose content is hashed; larger ones are compared by modification time.
+     */
+    static final long CONTENT_HASH_LIMIT = 256 * 1024;
 
     private final Path root;
-    private final WatchService watchService;
     private final ExecutorService executorService;
     private final Consumer<Path> callback;
-    private final Set<Path> registeredDirectories = ConcurrentHashMap.newKeySet();
+    private DirectoryWatcher watcher;
+    private final Predicate<Path> ignored;
+    private final Predicate<Path> relevant;
     private final AtomicBoolean running = new AtomicBoolean(true);
 
-    public ProjectWatcher(Path root, Consumer<Path> callback) throws IOException {
+    public ProjectWatcher(Path root, Consumer<Path> callback) {
+        this(root, path -> false, path -> true, callback);
+    }
+
+    public ProjectWatcher(Path root,
+                          Predicate<Path> ignored,
+                          Predicate<Path> relevant,
+                          Consumer<Path> callback) {
         this.root = root;
         this.callback = callback;
-        this.watchService = FileSystems.getDefault().newWatchService();
-        this.executorService = Executors.newSingleThreadExecutor(new WatcherThreadFactory());
-        registerAll(root);
-        startWatching();
+        this.ignored = ignored;
+        this.relevant = relevant;
+        this.executorService = Executors.newSingleThreadExecutor(DaemonThreadFactory.named("project-watcher"));
+        executorService.execute(this::watch);
+    }
+
+    private void watch() {
+        DirectoryWatcher directoryWatcher;
+        try {
+            directoryWatcher = DirectoryWatcher.builder()
+                    .path(root)
+                    .listener(this::onEvent)
+                    .fileHasher(ProjectWatcher::hash)
+                    .fileTreeVisitor(this::visitUnignored)
+                    .logger(log)
+                    .build();
+        } catch (IOException e) {
+            log.warn("Unable to watch project directory {}", root, e);
+            return;
+        }
+        synchronized (this) {
+            if (!running.get()) {
+                closeQuietly(directoryWatcher);
+                return;
+            }
+            watcher = directoryWatcher;
+        }
+
         log.info("Started watching project directory {}", root);
+        try {
+            directoryWatcher.watch();
+        } catch (Exception e) {
+            if (running.get()) {
+                log.error("Project watcher for {} stopped unexpectedly", root, e);
+            }
+        }
     }
 
-    private void startWatching() {
-        executorService.submit(() -> {
-            while (running.get()) {
-                WatchKey key;
-                try {
-                    key = watchService.take();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                } catch (ClosedWatchServiceException e) {
-                    break;
-                }
+    private static FileHash hash(Path file) throws IOException {
+        return Files.size(file) <= CONTENT_HASH_LIMIT
+                ? FileHasher.DEFAULT_FILE_HASHER.hash(file)
+                : FileHasher.LAST_MODIFIED_TIME.hash(file);
+    }
 
-                Path dir = (Path) key.watchable();
-                for (WatchEvent<?> event : key.pollEvents()) {
-                    WatchEvent.Kind<?> kind = event.kind();
-                    if (kind == OVERFLOW) {
-                        continue;
-                    }
-
-                    Path name = (Path) event.context();
-                    Path child = dir.resolve(name);
-
-                    if (kind == ENTRY_CREATE && Files.isDirectory(child)) {
-                        try {
-                            registerAll(child);
-                        } catch (IOException e) {
-                            log.warn("Failed to register new directory {}", child, e);
-                        }
-                    }
-
-                    try {
-                        callback.accept(child);
-                    } catch (Exception e) {
-                        log.error("Error processing change notification for {}", child, e);
-                    }
-                }
+    private void onEvent(DirectoryChangeEvent event) {
+        if (!running.get()) {
+            return;
+        }
 
-                boolean valid = key.reset();
-                if (!valid) {
-                    registeredDirectories.remove(dir);
-                }
-            }
-        });
+        Path changed = event.eventType() == DirectoryChangeEvent.EventType.OVERFLOW || event.path() == null
+                ? root
+                : event.path();
+        if (ignored.test(changed) || !relevant.test(changed)) {
+            log.trace("Skipping change notification for {}", changed);
+            return;
+        }
+        try {
+            callback.accept(changed);
+        } catch (Exception e) {
+            log.error("Error processing change notification for {}", changed, e);
+        }
     }
 
-    private void registerAll(Path start) throws IOException {
+    /**
+     * Walks the tree below {@code start} for registration and hashing, pruning ignored subtrees so
+     * they are never watched.
+     */
+    private void visitUnignored(Path start, FileTreeVisitor.Callback onDirectory, FileTreeVisitor.Callback onFile)
+            throws IOException {
+        if (ignored.test(start)) {
+            return;
+        }
         Files.walkFileTree(start, new SimpleFileVisitor<>() {
             @Override
             public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                registerDirectory(dir);
+                if (!dir.equals(start) && ignored.test(dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                onDirectory.call(dir);
                 return FileVisitResult.CONTINUE;
             }
-        });
-    }
 
-    private void registerDirectory(Path dir) throws IOException {
-        if (registeredDirectories.contains(dir)) {
-            return;
-        }
-        dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
-        registeredDirectories.add(dir);
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!ignored.test(file)) {
+                    onFile.call(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                log.debug("Failed to visit {}", file, e);
+                return FileVisitResult.CONTINUE;
+            }
+        });
     }
 
     @Override
@@ -108,17 +164,25 @@ public class ProjectWatcher implements AutoCloseable {
             return;
         }
 
-        watchService.close();
-        executorService.shutdownNow();
+        DirectoryWatcher started;
+        synchronized (this) {
+            started = watcher;
+        }
+        try {
+            if (started != null) {
+                started.close();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
         log.info("Stopped watching project directory {}", root);
     }
 
-    private static class WatcherThreadFactory implements ThreadFactory {
-        @Override
-        public Thread newThread(Runnable r) {
-            Thread thread = new Thread(r, "project-watcher");
-            thread.setDaemon(true);
-            return thread;
+    private void closeQuietly(DirectoryWatcher directoryWatcher) {
+        try {
+            directoryWatcher.close();
+        } catch (IOException e) {
+            log.debug("Failed to close watcher for {}", root, e);
         }
     }
 }
@@ -0,0 +1,407 @@
+package com.spinyowl.cards.service;
+
+import com.spinyowl.cards.model.Card;
+import com.spinyowl.cards.util.ContentHash;
+import com.spinyowl.cards.util.CssDimensions;
+import com.spinyowl.cards.util.DaemonThreadFactory;
+import com.spinyowl.cards.util.Futures;
+import com.spinyowl.cards.util.PngFiles;
+import com.spinyowl.cards.util.RenderDependencies;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.jsoup.nodes.Document;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exports cards as PNGs at a chosen print resolution, optionally with sprite sheets for tabletop
+ * simulators. Cards are laid out by {@link CardPageLayout} and rasterized with PDFBox, so the
+ * export runs offscreen and needs neither JavaFX nor a display.
+ * <p>
+ * Workers claim cards one at a time. Each keeps one document with the project fonts loaded and
+ * drops a card's pages as soon as they are rasterized, so memory is bounded by one card image per
+ * worker, plus one sheet while sheets are assembled.
+ * <p>
+ * The output directory keeps a {@link BuildManifest} of what every image was built from. Cards
+ * whose inputs are unchanged are neither rendered nor rasterized, and images left over from cards
+ * that are no longer exported are deleted. Every PNG also records a hash of the rendered HTML, the
+ * files it references, the fonts, the page size and the resolution, so a card whose inputs changed
+ * without changing its output is not rasterized again.
+ */
+@Slf4j
+public class RasterExporter {
+
+    public static final String SOURCE_HASH_KEY = "DeckBuilder source hash";
+    public static final String SHEETS_DIRECTORY = "sheets";
+    public static final String CARDS_SCOPE = "images";
+    public static final String SHEETS_SCOPE = "sheets";
+
+    private static final double MIN_DPI = 72;
+    private static final double MAX_DPI = 1200;
+    private static final int MAX_SHEET_SIDE = 4096;
+
+    private final ProjectManager projectManager;
+    private final CardRenderer renderer;
+    private final int workers;
+
+    /**
+     * @param sheetColumns columns of the sprite sheets, {@code 0} for no sheets
+     * @param sheetRows    rows of the sprite sheets, {@code 0} for no sheets
+     */
+    public record Options(double dpi, int sheetColumns, int sheetRows) {
+        public Options {
+            if (dpi < MIN_DPI || dpi > MAX_DPI) {
+                throw new IllegalArgumentException("Resolution must be between " + (int) MIN_DPI + " and "
+                        + (int) MAX_DPI + " DPI");
+            }
+            if (sheetColumns < 0 || sheetRows < 0 || (sheetColumns == 0) != (sheetRows == 0)) {
+                throw new IllegalArgumentException("Sheet columns and rows must both be positive or both be 0");
+            }
+            if (sheetColumns * sheetRows == 1) {
+                throw new IllegalArgumentException("A sheet needs at least two slots");
+            }
+        }
+
+        public static Options cardsOnly(double dpi) {
+            return new Options(dpi, 0, 0);
+        }
+
+        /**
+         * Cards plus 10 x 7 sheets, the largest deck sheet Tabletop Simulator accepts.
+         */
+        public static Options withTabletopSheets(double dpi) {
+            return new Options(dpi, 10, 7);
+        }
+
+        public boolean sheets() {
+            return sheetColumns > 0;
+        }
+
+        /**
+         * Cards per sheet. The last slot stays empty; Tabletop Simulator shows it for hidden cards.
+         */
+        public int cardsPerSheet() {
+            return sheetColumns * sheetRows - 1;
+        }
+    }
+
+    /**
+     * @param translations the translation lookups of the cards this export rendered that failed or
+     *                     fell back to the default language
+     */
+    public record Result(Path directory, List<Path> cards, List<Path> sheets, int rendered, int reused,
+                         int removed, long elapsedMillis, TranslationReport translations) {
+    }
+
+    public RasterExporter(ProjectManager projectManager, CardRenderer renderer, int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be positive");
+        }
+        this.projectManager = projectManager;
+        this.renderer = renderer;
+        this.workers = workers;
+    }
+
+    /**
+     * Writes one PNG per card to {@code outputDir}, named after the card id, and the sprite sheets
+     * to its {@value #SHEETS_DIRECTORY} subdirectory. Images written by earlier exports to the same
+     * directory that this export does not produce are deleted, so the directory mirrors the cards
+     * exported last.
+     *
+     * @throws IOException          if a card fails to render or an image cannot be written
+     * @throws InterruptedException if the export is interrupted
+     */
+    public Result export(int[] cardIndexes, String lang, Path outputDir, Options options, ExportProgress progress)
+            throws IOException, InterruptedException {
+        if (cardIndexes.length == 0) {
+            throw new IllegalArgumentException("No cards to export");
+        }
+        long start = System.nanoTime();
+        CardPageLayout layout = new CardPageLayout(projectManager);
+        String fontsHash = layout.fontsHash();
+        RenderInputs inputs = new RenderInputs(projectManager, renderer,
+                List.of("png", options.dpi(), layout.pageStyle(), fontsHash), layout::resourceHash);
+        BuildManifest manifest = BuildManifest.load(outputDir);
+        List<Card> cards = projectManager.getCards();
+        String[] names = fileNames(cards, cardIndexes);
+        String[] hashes = new String[cardIndexes.length];
+        Dimension size = cardSize(options.dpi());
+        AtomicInteger cursor = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger rendered = new AtomicInteger();
+        Runnable cardDone = () -> progress.cardCompleted(completed.incrementAndGet(), cardIndexes.length);
+
+        TranslationReport.Batch translations = new TranslationReport.Batch();
+        int threads = Math.min(workers, cardIndexes.length);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, DaemonThreadFactory.numbered("raster-export"));
+        try {
+            List<Future<?>> running = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                running.add(pool.submit(() -> {
+                    rasterizeCards(layout, inputs, manifest, fontsHash, cardIndexes, lang, options.dpi(), size,
+                            outputDir, names, hashes, cursor, translations, rendered::incrementAndGet, cardDone);
+                    return null;
+                }));
+            }
+            for (Future<?> worker : running) {
+                Futures.await(worker);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<Path> cardFiles = new ArrayList<>(names.length);
+        for (String name : names) {
+            cardFiles.add(outputDir.resolve(name));
+        }
+        List<Path> sheets = options.sheets()
+                ? writeSheets(manifest, cards, cardIndexes, lang, cardFiles, hashes, outputDir, size, options)
+                : List.of();
+
+        List<String> sheetNames = sheets.stream().map(sheet -> artifactName(outputDir, sheet)).toList();
+        int removed = deleteOrphans(outputDir, manifest.retainScope(CARDS_SCOPE, List.of(names)))
+                + deleteOrphans(outputDir, manifest.retainScope(SHEETS_SCOPE, sheetNames));
+        manifest.save();
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        int reused = cardIndexes.length - rendered.get();
+        renderer.flushRenderSummary();
+        log.info("Exported {} card image(s) at {} DPI to {} in {} ms ({} rendered, {} unchanged, {} removed, {} sheet(s))",
+                cardIndexes.length, options.dpi(), outputDir, millis, rendered.get(), reused, removed, sheets.size());
+        return new Result(outputDir, List.copyOf(cardFiles), sheets, rendered.get(), reused, removed, millis,
+                translations.report());
+    }
+
+    private void rasterizeCards(CardPageLayout layout, RenderInputs inputs, BuildManifest manifest, String fontsHash,
+                                int[] cardIndexes, String lang, double dpi, Dimension size, Path outputDir,
+                                String[] names, String[] hashes, AtomicInteger cursor,
+                                TranslationReport.Batch translations, Runnable cardRendered,
+                                Runnable cardDone) throws IOException {
+        List<Card> cards = projectManager.getCards();
+        try (PDDocument document = new PDDocument(IOUtils.createMemoryOnlyStreamCache())) {
+            PDFRenderer pdfRenderer = new PDFRenderer(document);
+            List<PDFont> fonts = null;
+            for (int next = cursor.getAndIncrement(); next < cardIndexes.length; next = cursor.getAndIncrement()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Image export cancelled");
+                }
+                int index = cardIndexes[next];
+                Path file = outputDir.resolve(names[next]);
+                try {
+                    String upToDate = upToDateHash(manifest.get(names[next]), inputs, cards.get(index), lang, file);
+                    if (upToDate != null) {
+                        hashes[next] = upToDate;
+                        cardDone.run();
+                        continue;
+                    }
+
+                    RenderDependencies dependencies = translations.dependencies();
+                    ContentHash output = new ContentHash();
+                    Document card = layout.render(renderer, index, lang, dependencies, output);
+                    SortedMap<String, String> resources = layout.localResources(card);
+                    BuildManifest.Source source = RenderInputs.source(cards.get(index), lang, dependencies,
+                            resources.keySet());
+                    String outputHash = output
+                            .add(resources.toString())
+                            .add(layout.pageStyle())
+                            .add(fontsHash)
+                            .add(dpi)
+                            .hex();
+                    if (!outputHash.equals(PngFiles.readText(file, SOURCE_HASH_KEY))) {
+                        if (fonts == null) {
+                            fonts = layout.loadFonts(document);
+                        }
+                        layout.addPages(document, fonts, card);
+                        BufferedImage image = rasterize(pdfRenderer, document, size);
+                        while (document.getNumberOfPages() > 0) {
+                            document.removePage(0);
+                        }
+                        PngFiles.write(image, file, dpi, Map.of(SOURCE_HASH_KEY, outputHash));
+                        cardRendered.run();
+                    }
+                    hashes[next] = inputs.hash(List.of(source));
+                    manifest.put(names[next], new BuildManifest.Entry(CARDS_SCOPE, hashes[next], List.of(source)));
+                } catch (RuntimeException e) {
+                    String id = index >= 0 && index < cards.size() ? cards.get(index).getId() : String.valueOf(index);
+                    throw new IOException("Failed to export card " + id + ": " + e.getMessage(), e);
+                }
+                cardDone.run();
+            }
+        }
+    }
+
+    /**
+     * Returns the input hash recorded for an image when it was built from {@code card} in
+     * {@code lang}, still exists, and its inputs are unchanged; otherwise {@code null}.
+     */
+    private static String upToDateHash(BuildManifest.Entry entry, RenderInputs inputs, Card card, String lang,
+                                       Path file) {
+        if (entry == null || entry.sources().size() != 1 || !Files.isRegularFile(file)) {
+            return null;
+        }
+        BuildManifest.Source source = entry.sources().get(0);
+        if (!source.cardId().equals(card.getId()) || !source.lang().equals(lang)) {
+            return null;
+        }
+        return entry.inputHash().equals(inputs.hash(entry.sources())) ? entry.inputHash() : null;
+    }
+
+    /**
+     * Draws the first page of {@code document} onto an image of exactly {@code size} pixels, so
+     * rounding in the page box never costs a row or column.
+     */
+    private static BufferedImage rasterize(PDFRenderer pdfRenderer, PDDocument document, Dimension size)
+            throws IOException {
+        PDRectangle page = document.getPage(0).getMediaBox();
+        BufferedImage image = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            pdfRenderer.renderPageToGraphics(0, graphics,
+                    size.width / page.getWidth(), size.height / page.getHeight());
+        } finally {
+            graphics.dispose();
+        }
+        return image;
+    }
+
+    private Dimension cardSize(double dpi) {
+        if (projectManager.getProjectProperties().get("card") instanceof Map<?, ?> card) {
+            return new Dimension(
+                    CssDimensions.toDevicePixels(String.valueOf(card.get("width")), dpi),
+                    CssDimensions.toDevicePixels(String.valueOf(card.get("height")), dpi));
+        }
+        throw new IllegalStateException("Project card size is not available");
+    }
+
+    private List<Path> writeSheets(BuildManifest manifest, List<Card> cards, int[] cardIndexes, String lang,
+                                   List<Path> cardFiles, String[] hashes, Path outputDir, Dimension cardSize,
+                                   Options options) throws IOException {
+        Path sheetsDir = outputDir.resolve(SHEETS_DIRECTORY);
+        double scale = Math.min(1.0, Math.min(
+                (double) MAX_SHEET_SIDE / (cardSize.width * options.sheetColumns()),
+                (double) MAX_SHEET_SIDE / (cardSize.height * options.sheetRows())));
+        int cellWidth = Math.max(1, (int) Math.floor(cardSize.width * scale));
+        int cellHeight = Math.max(1, (int) Math.floor(cardSize.height * scale));
+
+        List<Path> sheets = new ArrayList<>();
+        int perSheet = options.cardsPerSheet();
+        for (int first = 0; first < cardFiles.size(); first += perSheet) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Image export cancelled");
+            }
+            int last = Math.min(first + perSheet, cardFiles.size());
+            Path sheet = sheetsDir.resolve(String.format(Locale.ROOT, "sheet-%02d.png", sheets.size() + 1));
+            ContentHash hash = new ContentHash()
+                    .add(options.sheetColumns())
+                    .add(options.sheetRows())
+                    .add(cellWidth)
+                    .add(cellHeight);
+            List<BuildManifest.Source> sources = new ArrayList<>(last - first);
+            for (int i = first; i < last; i++) {
+                hash.add(hashes[i]);
+                sources.add(BuildManifest.Source.of(cards.get(cardIndexes[i]).getId(), lang));
+            }
+            String sheetHash = hash.hex();
+            manifest.put(artifactName(outputDir, sheet), new BuildManifest.Entry(SHEETS_SCOPE, sheetHash, sources));
+            if (!sheetHash.equals(PngFiles.readText(sheet, SOURCE_HASH_KEY))) {
+                BufferedImage image = composeSheet(cardFiles.subList(first, last), options, cellWidth, cellHeight);
+                PngFiles.write(image, sheet, options.dpi() * scale, Map.of(SOURCE_HASH_KEY, sheetHash));
+            }
+            sheets.add(sheet);
+        }
+        return List.copyOf(sheets);
+    }
+
+    private static BufferedImage composeSheet(List<Path> cardFiles, Options options, int cellWidth, int cellHeight)
+            throws IOException {
+        BufferedImage sheet = new BufferedImage(cellWidth * options.sheetColumns(), cellHeight * options.sheetRows(),
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = sheet.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, sheet.getWidth(), sheet.getHeight());
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            for (int i = 0; i < cardFiles.size(); i++) {
+                BufferedImage card = ImageIO.read(cardFiles.get(i).toFile());
+                if (card == null) {
+                    throw new IOException("Unreadable card image " + cardFiles.get(i));
+                }
+                int x = (i % options.sheetColumns()) * cellWidth;
+                int y = (i / options.sheetColumns()) * cellHeight;
+                graphics.drawImage(card, x, y, cellWidth, cellHeight, null);
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return sheet;
+    }
+
+    /**
+     * Names each output after its card id, made safe for file systems. Names are unique ignoring
+     * case; repeated ids get a numeric suffix.
+     */
+    static String[] fileNames(List<Card> cards, int[] cardIndexes) {
+        String[] names = new String[cardIndexes.length];
+        Set<String> used = new HashSet<>();
+        for (int i = 0; i < cardIndexes.length; i++) {
+            String id = cards.get(cardIndexes[i]).getId();
+            String base = id == null ? "" : id.trim().replaceAll("[^A-Za-z0-9._-]", "_");
+            if (base.isEmpty() || base.startsWith(".")) {
+                base = "card" + base;
+            }
+            String name = base;
+            for (int n = 2; !used.add(name.toLowerCase(Locale.ROOT)); n++) {
+                name = base + "-" + n;
+            }
+            names[i] = name + ".png";
+        }
+        return names;
+    }
+
+    /**
+     * Deletes the files of artifacts dropped from the manifest. Only paths inside
+     * {@code outputDir} are touched, whatever the manifest says.
+     */
+    private static int deleteOrphans(Path outputDir, List<String> orphans) throws IOException {
+        Path root = outputDir.toAbsolutePath().normalize();
+        int deleted = 0;
+        for (String orphan : orphans) {
+            Path file = root.resolve(orphan).normalize();
+            if (file.startsWith(root) && !file.equals(root) && Files.deleteIfExists(file)) {
+                log.debug("Deleted {} left over from an earlier export", file);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private static String artifactName(Path outputDir, Path file) {
+        return outputDir.relativize(file).toString().replace('\\', '/');
+    }
+}
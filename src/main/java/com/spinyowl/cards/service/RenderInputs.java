@@ -0,0 +1,176 @@
+package com.spinyowl.cards.service;
+
+import com.spinyowl.cards.model.Card;
+import com.spinyowl.cards.util.ContentHash;
+import com.spinyowl.cards.util.RenderDependencies;
+import com.spinyowl.cards.util.TranslationService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Hashes the current project state a card render depends on, as listed by a
+ * {@link BuildManifest.Source}: the card row, its template together with every template it
+ * includes, extends or imports, the project properties, the current values of the translation
+ * keys and the rows of the cards it looked up, and a stamp of each file it referenced. One
+ * instance serves one export or validation run and may be shared by its workers; template hashes
+ * are computed once per instance.
+ */
+@Slf4j
+final class RenderInputs {
+
+    private static final Pattern TEMPLATE_TAG = Pattern.compile(
+            "\\{%-?\\s*(?:include|extends|import|embed|from)\\s+(.*?)-?%}", Pattern.DOTALL);
+    private static final Pattern QUOTED_NAME = Pattern.compile("^(['\"])(.*?)\\1");
+
+    private final ProjectManager projectManager;
+    private final CardRenderer renderer;
+    private final Function<String, String> assetStamp;
+    private final Path templatesDir;
+    private final String settingsHash;
+    private final Map<String, String> templateHashes = new ConcurrentHashMap<>();
+
+    /**
+     * @param settings   everything about the export itself that changes its outputs, such as the
+     *                   format and resolution
+     * @param assetStamp maps a project-relative file path to a value that changes whenever the file
+     *                   changes in a way that matters, such as a hash of its contents
+     */
+    RenderInputs(ProjectManager projectManager, CardRenderer renderer, Object settings,
+                 Function<String, String> assetStamp) {
+        this.projectManager = projectManager;
+        this.renderer = renderer;
+        this.assetStamp = assetStamp;
+        this.templatesDir = projectManager.getTemplatesDirectory().toAbsolutePath().normalize();
+        this.settingsHash = new ContentHash()
+                .addValue(settings)
+                .addValue(projectManager.getProjectProperties())
+                .hex();
+    }
+
+    /**
+     * Describes what a render of {@code card} read, from what the renderer recorded and the local
+     * files its output references.
+     */
+    static BuildManifest.Source source(Card card, String lang, RenderDependencies dependencies,
+                                       Collection<String> assets) {
+        return new BuildManifest.Source(card.getId(), lang, List.copyOf(dependencies.translations()),
+                List.copyOf(dependencies.cardTranslations()), List.copyOf(dependencies.cards()), List.copyOf(assets));
+    }
+
+    /**
+     * Returns the hash of the current inputs of an artifact built from {@code sources}, or
+     * {@code null} when one of its cards no longer exists.
+     */
+    String hash(List<BuildManifest.Source> sources) {
+        ContentHash hash = new ContentHash().add(settingsHash).add(sources.size());
+        for (BuildManifest.Source source : sources) {
+            Card card = projectManager.getCard(source.cardId());
+            if (card == null) {
+                return null;
+            }
+            hash.add(source.cardId())
+                    .add(source.lang())
+                    .addValue(card.asMap())
+                    .add(templateHash(renderer.templateOf(card)));
+            addTranslations(hash, projectManager.getTranslations(), source.translations());
+            addTranslations(hash, projectManager.getCardTranslations(), source.cardTranslations());
+            hash.add(source.cards().size());
+            for (String id : source.cards()) {
+                Card looked = projectManager.getCard(id);
+                hash.add(id).addValue(looked == null ? null : looked.asMap());
+            }
+            hash.add(source.assets().size());
+            for (String asset : source.assets()) {
+                hash.add(asset).add(assetStamp.apply(asset));
+            }
+        }
+        return hash.hex();
+    }
+
+    private void addTranslations(ContentHash hash, TranslationService translations, List<String> keys) {
+        String fallback = projectManager.getDefaultLanguage();
+        hash.add(keys.size());
+        for (String entry : keys) {
+            int separator = entry.indexOf(':');
+            String lang = separator < 0 ? "" : entry.substring(0, separator);
+            String key = entry.substring(separator + 1);
+            hash.add(entry).add(translations.peek(lang, key, fallback));
+        }
+    }
+
+    private String templateHash(String name) {
+        return templateHashes.computeIfAbsent(name, this::hashTemplateClosure);
+    }
+
+    /**
+     * Hashes a template and the templates it references, following literal names. A reference
+     * computed at render time could point anywhere, so it makes the whole templates directory part
+     * of the hash.
+     */
+    private String hashTemplateClosure(String name) {
+        SortedMap<String, String> files = new TreeMap<>();
+        if (!collectTemplates(templatesDir.resolve(name).normalize(), files)) {
+            files.clear();
+            try (Stream<Path> all = Files.walk(templatesDir)) {
+                for (Path file : all.filter(Files::isRegularFile).sorted().toList()) {
+                    files.put(relative(file), ContentHash.ofFile(file));
+                }
+            } catch (IOException e) {
+                log.debug("Failed to list templates in {}", templatesDir, e);
+                return "unreadable";
+            }
+        }
+        ContentHash hash = new ContentHash().add(files.size());
+        files.forEach((file, contents) -> hash.add(file).add(contents));
+        return hash.hex();
+    }
+
+    private boolean collectTemplates(Path file, SortedMap<String, String> files) {
+        String key = relative(file);
+        if (files.containsKey(key)) {
+            return true;
+        }
+        String source;
+        try {
+            source = Files.readString(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            files.put(key, "missing");
+            return true;
+        }
+        files.put(key, ContentHash.of(source));
+
+        Matcher tag = TEMPLATE_TAG.matcher(source);
+        while (tag.find()) {
+            Matcher quoted = QUOTED_NAME.matcher(tag.group(1).trim());
+            if (!quoted.find()) {
+                return false;
+            }
+            String reference = quoted.group(2);
+            Path referenced = reference.startsWith("./") || reference.startsWith("../")
+                    ? file.resolveSibling(reference).normalize()
+                    : templatesDir.resolve(reference).normalize();
+            if (!collectTemplates(referenced, files)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String relative(Path file) {
+        return (file.startsWith(templatesDir) ? templatesDir.relativize(file) : file).toString().replace('\\', '/');
+    }
+}
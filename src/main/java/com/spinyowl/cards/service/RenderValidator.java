@@ -0,0 +1,198 @@
+package com.spinyowl.cards.service;
+
+import com.spinyowl.cards.model.Card;
+import com.spinyowl.cards.model.RenderDiagnostic;
+import com.spinyowl.cards.util.DaemonThreadFactory;
+import com.spinyowl.cards.util.RenderDependencies;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Renders every card in every language in the background, discarding the output, to find cards
+ * that fail, name templates that do not exist, refer to missing files or look up missing
+ * translations, without anyone paging through them. Work is spread over all but one core, so the
+ * preview stays responsive.
+ * <p>
+ * The result for each card and language is kept together with what that render read, and a card
+ * is rendered again only when one of those inputs changed since: its row, its templates, the
+ * project properties, the translations and cards it looked up, or whether the files it refers to
+ * exist. Starting a run abandons the previous one; its future completes exceptionally with a
+ * {@link CancellationException}.
+ */
+@Slf4j
+public class RenderValidator implements AutoCloseable {
+
+    private final ProjectManager projectManager;
+    private final CardRenderer renderer;
+    private final int workers;
+    private final ExecutorService pool;
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<String, CachedCheck> cache = new ConcurrentHashMap<>();
+
+    private record CachedCheck(String inputHash, BuildManifest.Source source, List<RenderDiagnostic> diagnostics) {
+    }
+
+    /**
+     * @param cardCount       number of cards checked, each in every language
+     * @param rendered        card and language pairs rendered by this run
+     * @param reused          pairs whose inputs were unchanged since an earlier run
+     * @param cardsWithErrors ids of the cards with at least one error, in card order
+     * @param diagnostics     every problem found, errors first
+     */
+    public record Report(List<String> languages, int cardCount, int rendered, int reused,
+                         List<String> cardsWithErrors, List<RenderDiagnostic> diagnostics, long elapsedMillis) {
+        public boolean hasErrors() {
+            return !cardsWithErrors.isEmpty();
+        }
+
+        public long warningCount() {
+            return diagnostics.stream().filter(diagnostic -> !diagnostic.isError()).count();
+        }
+    }
+
+    public RenderValidator(ProjectManager projectManager, CardRenderer renderer) {
+        this(projectManager, renderer, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    public RenderValidator(ProjectManager projectManager, CardRenderer renderer, int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be positive");
+        }
+        this.projectManager = projectManager;
+        this.renderer = renderer;
+        this.workers = workers;
+        this.pool = Executors.newFixedThreadPool(workers, DaemonThreadFactory.numbered("render-validator").withPriority(Thread.NORM_PRIORITY - 1));
+    }
+
+    /**
+     * Checks every card in each of {@code languages}, replacing any run still in progress.
+     */
+    public CompletableFuture<Report> validate(List<String> languages) {
+        long run = generation.incrementAndGet();
+        long start = System.nanoTime();
+        List<String> langs = List.copyOf(languages);
+        List<Card> cards = projectManager.getCards();
+        int pairs = cards.size() * langs.size();
+        RenderInputs inputs = new RenderInputs(projectManager, renderer, "validation", this::assetStamp);
+        AtomicReferenceArray<List<RenderDiagnostic>> results = new AtomicReferenceArray<>(pairs);
+        AtomicInteger cursor = new AtomicInteger();
+        AtomicInteger rendered = new AtomicInteger();
+
+        int threads = Math.max(1, Math.min(workers, pairs));
+        CompletableFuture<?>[] running = new CompletableFuture<?>[threads];
+        for (int i = 0; i < threads; i++) {
+            running[i] = CompletableFuture.runAsync(() -> {
+                for (int pair = cursor.getAndIncrement(); pair < pairs; pair = cursor.getAndIncrement()) {
+                    if (generation.get() != run) {
+                        throw new CancellationException("Validation superseded");
+                    }
+                    int index = pair / langs.size();
+                    String lang = langs.get(pair % langs.size());
+                    results.set(pair, check(inputs, cards.get(index), index, lang, rendered));
+                }
+            }, pool);
+        }
+        return CompletableFuture.allOf(running).thenApply(ignored -> {
+            if (generation.get() != run) {
+                throw new CancellationException("Validation superseded");
+            }
+            Set<String> checked = new HashSet<>();
+            for (Card card : cards) {
+                for (String lang : langs) {
+                    checked.add(cacheKey(card.getId(), lang));
+                }
+            }
+            cache.keySet().retainAll(checked);
+
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            renderer.flushRenderSummary();
+            Report report = report(langs, cards.size(), rendered.get(), pairs - rendered.get(), results, millis);
+            log.info("Checked {} card(s) in {} language(s) in {} ms ({} rendered, {} unchanged): {} with errors, {} warning(s)",
+                    cards.size(), langs.size(), millis, report.rendered(), report.reused(),
+                    report.cardsWithErrors().size(), report.warningCount());
+            return report;
+        });
+    }
+
+    /**
+     * Abandons the run in progress, if any.
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    @Override
+    public void close() {
+        cancel();
+        pool.shutdownNow();
+    }
+
+    private List<RenderDiagnostic> check(RenderInputs inputs, Card card, int index, String lang,
+                                         AtomicInteger rendered) {
+        String key = cacheKey(card.getId(), lang);
+        CachedCheck cached = cache.get(key);
+        if (cached != null && cached.inputHash().equals(inputs.hash(List.of(cached.source())))) {
+            return cached.diagnostics();
+        }
+        RenderDependencies dependencies = new RenderDependencies();
+        CardRenderer.Checked checked = renderer.renderChecked(index, lang, dependencies);
+        rendered.incrementAndGet();
+        BuildManifest.Source source = RenderInputs.source(card, lang, dependencies, checked.assets());
+        String inputHash = inputs.hash(List.of(source));
+        if (inputHash != null) {
+            cache.put(key, new CachedCheck(inputHash, source, checked.diagnostics()));
+        }
+        return checked.diagnostics();
+    }
+
+    /**
+     * Only whether a referenced file exists changes the result of a check, not its contents.
+     */
+    private String assetStamp(String path) {
+        Path projectDir = projectManager.getProjectDir();
+        return projectDir != null && Files.isRegularFile(projectDir.resolve(path)) ? "present" : "missing";
+    }
+
+    private static String cacheKey(String cardId, String lang) {
+        return cardId + '\n' + lang;
+    }
+
+    private static Report report(List<String> languages, int cardCount, int rendered, int reused,
+                                 AtomicReferenceArray<List<RenderDiagnostic>> results, long millis) {
+        List<RenderDiagnostic> diagnostics = new ArrayList<>();
+        Set<String> withErrors = new LinkedHashSet<>();
+        for (int i = 0; i < results.length(); i++) {
+            List<RenderDiagnostic> found = results.get(i);
+            if (found == null) {
+                continue;
+            }
+            for (RenderDiagnostic diagnostic : found) {
+                diagnostics.add(diagnostic);
+                if (diagnostic.isError()) {
+                    withErrors.add(diagnostic.cardId());
+                }
+            }
+        }
+        diagnostics.sort(Comparator.comparing(RenderDiagnostic::severity));
+        return new Report(languages, cardCount, rendered, reused, List.copyOf(withErrors), List.copyOf(diagnostics),
+                millis);
+    }
+}
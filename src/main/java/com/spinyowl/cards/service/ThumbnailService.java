@@ -0,0 +1,347 @@
+package com.spinyowl.cards.service;
+
+import com.spinyowl.cards.model.Card;
+import com.spinyowl.cards.model.CardDiff;
+import com.spinyowl.cards.util.ContentHash;
+import com.spinyowl.cards.util.CssDimensions;
+import com.spinyowl.cards.util.DaemonThreadFactory;
+import com.spinyowl.cards.util.FxImages;
+import com.spinyowl.cards.util.HtmlReferences;
+import com.spinyowl.cards.util.RenderDependencies;
+import javafx.scene.image.Image;
+import lombok.extern.slf4j.Slf4j;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Produces downscaled card thumbnails. Cards are rendered to HTML on a bounded worker pool,
+ * rasterized by a {@link CardRasterizer} and cached both in memory (LRU) and on disk. Cache
+ * entries are keyed by a hash of the rendered HTML, the card size and the size and modification
+ * time of every local file the HTML refers to, so an edit that does not change a card's output
+ * keeps its thumbnail, and stale entries are never served. The disk cache keeps the most recently
+ * used files up to {@value #MAX_DISK_BYTES} bytes.
+ * <p>
+ * The key of each card's latest thumbnail is remembered by card id and language. A reload that
+ * changed only card rows forgets just the cards it changed or removed and the cards that looked
+ * one of them up; any other reload forgets all of them.
+ */
+@Slf4j
+public class ThumbnailService implements ProjectManager.ReloadListener {
+
+    private static final int MAX_MEMORY_ENTRIES = 512;
+    static final long MAX_DISK_BYTES = 256L * 1024 * 1024;
+
+    private final ProjectManager projectManager;
+    private final CardRenderer renderer;
+    private final CardRasterizer rasterizer;
+    private final Path cacheDir;
+    private final double thumbnailWidth;
+    private final ExecutorService workers;
+    private final AtomicLong diskBytes = new AtomicLong(-1);
+    private final Map<String, KnownKey> keysByCard = new ConcurrentHashMap<>();
+    private final Map<String, Image> memoryCache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Image> eldest) {
+            return size() > MAX_MEMORY_ENTRIES;
+        }
+    };
+
+    private ThumbnailService(ProjectManager projectManager,
+                             CardRenderer renderer,
+                             CardRasterizer rasterizer,
+                             Path cacheDir,
+                             double thumbnailWidth) {
+        this.projectManager = projectManager;
+        this.renderer = renderer;
+        this.rasterizer = rasterizer;
+        this.cacheDir = cacheDir;
+        this.thumbnailWidth = thumbnailWidth;
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+        this.workers = Executors.newFixedThreadPool(threads, DaemonThreadFactory.numbered("thumbnail"));
+    }
+
+    /**
+     * Creates a service for the project of {@code projectManager} that follows its reloads until
+     * {@link #dispose()}.
+     */
+    public static ThumbnailService create(ProjectManager projectManager,
+                                          CardRenderer renderer,
+                                          CardRasterizer rasterizer,
+                                          Path cacheDir,
+                                          double thumbnailWidth) {
+        ThumbnailService service = new ThumbnailService(projectManager, renderer, rasterizer, cacheDir, thumbnailWidth);
+        projectManager.addReloadListener(service);
+        return service;
+    }
+
+    @Override
+    public void onProjectReload(ProjectManager manager) {
+        keysByCard.clear();
+    }
+
+    @Override
+    public void onCardsChanged(ProjectManager manager, CardDiff diff) {
+        Set<String> changed = new HashSet<>();
+        for (List<Card> cards : List.of(diff.getAdded(), diff.getRemoved(), diff.getModified())) {
+            for (Card card : cards) {
+                changed.add(card.getId());
+            }
+        }
+        if (!changed.isEmpty()) {
+            keysByCard.values().removeIf(known -> known.cards().stream().anyMatch(changed::contains));
+        }
+    }
+
+    public double getThumbnailWidth() {
+        return thumbnailWidth;
+    }
+
+    /**
+     * Returns the height of a thumbnail for the current project card size.
+     */
+    public double getThumbnailHeight() {
+        CardSize size = currentCardSize();
+        return thumbnailWidth * size.height() / size.width();
+    }
+
+    /**
+     * Requests the thumbnail of card {@code index} in {@code lang}. Cancelling the returned future
+     * before a worker picks the request up skips rendering it altogether.
+     */
+    public CompletableFuture<Image> getThumbnail(int index, String lang) {
+        CompletableFuture<Image> result = new CompletableFuture<>();
+        List<Card> cards = projectManager.getCards();
+        if (index < 0 || index >= cards.size()) {
+            result.completeExceptionally(new IndexOutOfBoundsException("Card index " + index + " out of bounds"));
+            return result;
+        }
+        String cardKey = cards.get(index).getId() + "|" + lang;
+        KnownKey knownKey = keysByCard.get(cardKey);
+        if (knownKey != null) {
+            Image cached = getFromMemory(knownKey.key());
+            if (cached != null) {
+                result.complete(cached);
+                return result;
+            }
+        }
+
+        workers.execute(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                produce(index, lang, cardKey, result);
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    public void dispose() {
+        projectManager.removeReloadListener(this);
+        workers.shutdownNow();
+        synchronized (memoryCache) {
+            memoryCache.clear();
+        }
+    }
+
+    private void produce(int index, String lang, String cardKey, CompletableFuture<Image> result) {
+        RenderDependencies dependencies = new RenderDependencies();
+        CardRenderer.Checked checked = renderer.renderChecked(index, lang, dependencies);
+        String html = checked.failed() ? "<p>Error rendering card.</p>" : checked.html();
+        CardSize size = currentCardSize();
+        String key = cacheKey(html, size);
+        List<Card> cards = projectManager.getCards();
+        if (index < cards.size() && cardKey.equals(cards.get(index).getId() + "|" + lang)) {
+            Set<String> read = new HashSet<>(dependencies.cards());
+            read.add(cards.get(index).getId());
+            keysByCard.put(cardKey, new KnownKey(key, Set.copyOf(read)));
+        }
+
+        Image cached = getFromMemory(key);
+        if (cached != null) {
+            result.complete(cached);
+            return;
+        }
+
+        Path file = cacheDir.resolve(key + ".png");
+        if (Files.isRegularFile(file)) {
+            Image image = new Image(file.toUri().toString());
+            if (!image.isError()) {
+                touch(file);
+                putInMemory(key, image);
+                result.complete(image);
+                return;
+            }
+        }
+
+        if (result.isDone()) {
+            return;
+        }
+        double scale = thumbnailWidth / size.width();
+        CompletableFuture<Image> raster = rasterizer.rasterize(html, size.width(), size.height(), scale);
+        result.whenComplete((image, error) -> {
+            if (result.isCancelled()) {
+                raster.cancel(false);
+            }
+        });
+        raster.whenComplete((image, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error);
+                return;
+            }
+            putInMemory(key, image);
+            result.complete(image);
+            BufferedImage buffered = FxImages.toBufferedImage(image);
+            workers.execute(() -> store(buffered, file));
+        });
+    }
+
+    /**
+     * Hashes what a thumbnail shows: the card HTML, the card and thumbnail size, and a stamp of each
+     * local file the HTML refers to, so replacing an image or stylesheet changes the key.
+     */
+    private String cacheKey(String html, CardSize size) {
+        ContentHash hash = new ContentHash().add(html).add(size.width()).add(size.height()).add(thumbnailWidth);
+        Path projectDir = projectManager.getProjectDir();
+        if (projectDir != null) {
+            SortedSet<Path> files = HtmlReferences.localFiles(html, projectDir);
+            hash.add(files.size());
+            for (Path file : files) {
+                hash.add(file.toString()).add(stamp(file));
+            }
+        }
+        return hash.hex();
+    }
+
+    private static String stamp(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return attributes.size() + "@" + attributes.lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            return "missing";
+        }
+    }
+
+    private void store(BufferedImage image, Path file) {
+        try {
+            FxImages.writePng(image, file);
+            long written = Files.size(file);
+            if (diskBytes.get() < 0 || diskBytes.addAndGet(written) > MAX_DISK_BYTES) {
+                diskBytes.set(trimDirectory(cacheDir, MAX_DISK_BYTES));
+            }
+        } catch (IOException e) {
+            log.warn("Failed to write thumbnail {}", file, e);
+        }
+    }
+
+    /**
+     * Marks a cached file as recently used, so trimming removes it last.
+     */
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            log.debug("Failed to touch thumbnail {}", file, e);
+        }
+    }
+
+    /**
+     * Deletes the least recently modified images of {@code dir} until they take at most three
+     * quarters of {@code maxBytes}, when they take more than {@code maxBytes}, and returns the size
+     * of the files kept.
+     */
+    static synchronized long trimDirectory(Path dir, long maxBytes) throws IOException {
+        record Entry(Path file, long size, FileTime modified) {
+        }
+        List<Entry> entries = new ArrayList<>();
+        long total = 0;
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (IOException e) {
+                    continue;
+                }
+                if (attributes.isRegularFile() && file.getFileName().toString().endsWith(".png")) {
+                    entries.add(new Entry(file, attributes.size(), attributes.lastModifiedTime()));
+                    total += attributes.size();
+                }
+            }
+        }
+        if (total <= maxBytes) {
+            return total;
+        }
+
+        entries.sort(Comparator.comparing(Entry::modified));
+        long target = maxBytes / 4 * 3;
+        int removed = 0;
+        for (Entry entry : entries) {
+            if (total <= target) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(entry.file());
+                total -= entry.size();
+                removed++;
+            } catch (IOException e) {
+                log.debug("Failed to delete thumbnail {}", entry.file(), e);
+            }
+        }
+        log.debug("Removed {} cached thumbnail(s) from {}", removed, dir);
+        return total;
+    }
+
+    private Image getFromMemory(String key) {
+        synchronized (memoryCache) {
+            return memoryCache.get(key);
+        }
+    }
+
+    private void putInMemory(String key, Image image) {
+        synchronized (memoryCache) {
+            memoryCache.put(key, image);
+        }
+    }
+
+    private CardSize currentCardSize() {
+        Object card = projectManager.getProjectProperties().get("card");
+        if (card instanceof Map<?, ?> map) {
+            return new CardSize(
+                    CssDimensions.toCssPixels(String.valueOf(map.get("width"))),
+                    CssDimensions.toCssPixels(String.valueOf(map.get("height"))));
+        }
+        throw new IllegalStateException("Project card size is not available");
+    }
+
+    private record CardSize(double width, double height) {
+    }
+
+    /**
+     * The cache key of a card's latest thumbnail and the ids of the cards its render read.
+     */
+    private record KnownKey(String key, Set<String> cards) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.spinyowl.cards.service;
+
+import com.spinyowl.cards.util.RenderDependencies;
+import com.spinyowl.cards.util.TranslationService;
+import com.spinyowl.cards.util.TranslationStatistics;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * The translation keys renders could not find, or found only in the default language, per
+ * language and with the number of lookups: either of every render since the project was last
+ * loaded, or of one {@link Batch}. Card translations that were missing show the value of the card
+ * row instead.
+ */
+public record TranslationReport(TranslationStatistics.Snapshot translations,
+                                TranslationStatistics.Snapshot cardTranslations) {
+
+    /**
+     * Takes the counts of the project's translation services as they are now.
+     */
+    public static TranslationReport of(ProjectManager projectManager) {
+        return new TranslationReport(snapshot(projectManager.getTranslations()),
+                snapshot(projectManager.getCardTranslations()));
+    }
+
+    /**
+     * Counts the lookups of one batch of renders, such as an export, apart from anything else
+     * rendered meanwhile. Renders take part by using dependencies from {@link #dependencies()}.
+     */
+    public static final class Batch {
+        private final TranslationStatistics translations = new TranslationStatistics();
+        private final TranslationStatistics cardTranslations = new TranslationStatistics();
+
+        public RenderDependencies dependencies() {
+            return new RenderDependencies(translations, cardTranslations);
+        }
+
+        public TranslationReport report() {
+            return new TranslationReport(translations.snapshot(), cardTranslations.snapshot());
+        }
+    }
+
+    public boolean isEmpty() {
+        return translations.isEmpty() && cardTranslations.isEmpty();
+    }
+
+    /**
+     * Returns one line per language with missing or fallback keys, such as
+     * {@code "de: 3 missing, 1 from the default language; cards: 2 missing, 0 from the default language"}.
+     */
+    public List<String> summary() {
+        SortedSet<String> languages = new TreeSet<>();
+        for (TranslationStatistics.Snapshot snapshot : List.of(translations, cardTranslations)) {
+            languages.addAll(snapshot.missing().keySet());
+            languages.addAll(snapshot.fallbacks().keySet());
+        }
+        List<String> lines = new ArrayList<>();
+        for (String lang : languages) {
+            lines.add(lang + ": " + translations.missingCount(lang) + " missing, "
+                    + translations.fallbackCount(lang) + " from the default language; cards: "
+                    + cardTranslations.missingCount(lang) + " missing, "
+                    + cardTranslations.fallbackCount(lang) + " from the default language");
+        }
+        return lines;
+    }
+
+    /**
+     * Writes the report to {@code file} as YAML, grouped by kind, then language, then key.
+     */
+    public void write(Path file) throws IOException {
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("translations", section(translations));
+        root.put("card_translations", section(cardTranslations));
+
+        DumperOptions options = new DumperOptions();
+        options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        options.setIndent(2);
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            new Yaml(options).dump(root, out);
+        }
+    }
+
+    private static TranslationStatistics.Snapshot snapshot(TranslationService service) {
+        return service != null ? service.getStatistics().snapshot() : new TranslationStatistics().snapshot();
+    }
+
+    private static Map<String, Object> section(TranslationStatistics.Snapshot snapshot) {
+        Map<String, Object> section = new LinkedHashMap<>();
+        section.put("missing", plain(snapshot.missing()));
+        section.put("fallback", plain(snapshot.fallbacks()));
+        return section;
+    }
+
+    private static Map<String, Map<String, Long>> plain(SortedMap<String, SortedMap<String, Long>> counts) {
+        Map<String, Map<String, Long>> plain = new LinkedHashMap<>();
+        counts.forEach((lang, keys) -> plain.put(lang, new LinkedHashMap<>(keys)));
+        return plain;
+    }
+}
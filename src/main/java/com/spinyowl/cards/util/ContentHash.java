@@ -0,0 +1,105 @@
+package com.spinyowl.cards.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Incremental SHA-256 over strings, numbers and file contents, for keys that must be stable across
+ * runs and machines. Every value is length-prefixed so {@code ("ab", "c")} and {@code ("a", "bc")}
+ * hash differently. Not thread-safe.
+ */
+public final class ContentHash {
+
+    private final MessageDigest digest;
+
+    public ContentHash() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public ContentHash add(String value) {
+        if (value == null) {
+            return add(-1L);
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        add(bytes.length);
+        digest.update(bytes);
+        return this;
+    }
+
+    public ContentHash add(byte[] bytes, int offset, int length) {
+        add(length);
+        digest.update(bytes, offset, length);
+        return this;
+    }
+
+    public ContentHash add(long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            digest.update((byte) (value >>> shift));
+        }
+        return this;
+    }
+
+    public ContentHash add(double value) {
+        return add(Double.doubleToLongBits(value));
+    }
+
+    /**
+     * Adds a value as loaded from YAML or CSV: maps in key order regardless of their iteration
+     * order, collections in their own order, and scalars tagged with their type so {@code 1} and
+     * {@code "1"} differ.
+     */
+    public ContentHash addValue(Object value) {
+        if (value == null) {
+            return add("null");
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            map.forEach((key, entry) -> sorted.put(String.valueOf(key), entry));
+            add("map").add(sorted.size());
+            sorted.forEach((key, entry) -> add(key).addValue(entry));
+            return this;
+        }
+        if (value instanceof Collection<?> collection) {
+            add("list").add(collection.size());
+            collection.forEach(this::addValue);
+            return this;
+        }
+        return add(value.getClass().getSimpleName()).add(value.toString());
+    }
+
+    public String hex() {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static String of(String value) {
+        return new ContentHash().add(value).hex();
+    }
+
+    /**
+     * Returns the hash of a file's bytes.
+     */
+    public static String ofFile(Path file) throws IOException {
+        ContentHash hash = new ContentHash();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                hash.digest.update(buffer, 0, read);
+            }
+        }
+        return hash.hex();
+    }
+}
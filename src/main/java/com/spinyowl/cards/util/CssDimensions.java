@@ -0,0 +1,49 @@
+package com.spinyowl.cards.util;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Converts the normalized card dimensions produced by {@code ProjectManager} (a number followed
+ * by {@code px}, {@code in}, {@code cm} or {@code mm}) into CSS pixels and physical inches. CSS
+ * defines one inch as 96 pixels.
+ */
+public final class CssDimensions {
+
+    public static final double CSS_PIXELS_PER_INCH = 96.0;
+
+    private static final Pattern DIMENSION_PATTERN =
+            Pattern.compile("^(\\d+(?:\\.\\d+)?)(px|in|cm|mm)$", Pattern.CASE_INSENSITIVE);
+
+    private CssDimensions() {
+    }
+
+    public static double toCssPixels(String dimension) {
+        return toInches(dimension) * CSS_PIXELS_PER_INCH;
+    }
+
+    public static double toInches(String dimension) {
+        if (dimension == null) {
+            throw new IllegalArgumentException("Dimension is required");
+        }
+        Matcher matcher = DIMENSION_PATTERN.matcher(dimension.trim());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Unsupported dimension: " + dimension);
+        }
+        double value = Double.parseDouble(matcher.group(1));
+        return switch (matcher.group(2).toLowerCase(Locale.ROOT)) {
+            case "in" -> value;
+            case "cm" -> value / 2.54;
+            case "mm" -> value / 25.4;
+            default -> value / CSS_PIXELS_PER_INCH;
+        };
+    }
+
+    /**
+     * Returns the number of device pixels a dimension spans when printed at {@code dpi}.
+     */
+    public static int toDevicePixels(String dimension, double dpi) {
+        return (int) Math.round(toInches(dimension) * dpi);
+    }
+}
@@ -1,6 +1,9 @@
 package com.spinyowl.cards.util;
 
+import com.spinyowl.cards.diagnostics.CsvParseEvent;
 import com.spinyowl.cards.model.Card;
+import com.spinyowl.cards.model.ColumnError;
+import com.spinyowl.cards.model.ColumnSchema;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
@@ -27,10 +30,22 @@ public class CsvLoader {
             .build();
 
     public static List<Card> loadCards(Path csvPath) {
+        return loadCards(csvPath, ColumnSchema.empty(), new ArrayList<>());
+    }
+
+    /**
+     * Loads the cards of {@code csvPath}, converting cells of typed columns according to
+     * {@code schema}. Cells that do not match their type are loaded as {@code null} and added to
+     * {@code errors}.
+     */
+    public static List<Card> loadCards(Path csvPath, ColumnSchema schema, List<ColumnError> errors) {
         if (csvPath == null || !Files.exists(csvPath)) {
             return Collections.emptyList();
         }
 
+        CsvParseEvent event = new CsvParseEvent();
+        event.begin();
+        int errorsBefore = errors.size();
         List<Card> list = new ArrayList<>();
         try (Reader reader = Files.newBufferedReader(csvPath);
              CSVParser parser = CSV_FORMAT.parse(reader)) {
@@ -43,7 +58,7 @@ public class CsvLoader {
                         continue;
                     }
                     String value = record.get(header);
-                    properties.put(header, value);
+                    properties.put(header, convert(schema, header, value, csvPath, record, errors));
                 }
 
                 try {
@@ -55,6 +70,30 @@ public class CsvLoader {
         } catch (IOException e) {
             log.error("Failed to load cards from {}", csvPath, e);
         }
+        event.end();
+        if (event.shouldCommit()) {
+            event.file = csvPath.toString();
+            event.cardCount = list.size();
+            event.cellErrors = errors.size() - errorsBefore;
+            event.commit();
+        }
         return list;
     }
+
+    private static Object convert(ColumnSchema schema, String header, String value, Path csvPath,
+                                  CSVRecord record, List<ColumnError> errors) {
+        if (schema.isEmpty()) {
+            return value;
+        }
+        try {
+            return schema.typeOf(header).parse(value);
+        } catch (IllegalArgumentException e) {
+            String cardId = record.isSet("id") ? record.get("id") : null;
+            ColumnError error = new ColumnError(csvPath, record.getRecordNumber(), cardId, header, value,
+                    e.getMessage());
+            log.warn("Invalid cell in {}", error);
+            errors.add(error);
+            return null;
+        }
+    }
 }
@@ -0,0 +1,54 @@
+package com.spinyowl.cards.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates daemon threads for the application's background pools, so that no pool keeps the JVM
+ * alive after the window is closed. Threads are named after the pool, numbered when the pool may
+ * have several.
+ */
+public final class DaemonThreadFactory implements ThreadFactory {
+
+    private final String name;
+    private final boolean numbered;
+    private final int priority;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    private DaemonThreadFactory(String name, boolean numbered, int priority) {
+        this.name = name;
+        this.numbered = numbered;
+        this.priority = priority;
+    }
+
+    /**
+     * Threads named {@code name}, for single-threaded executors.
+     */
+    public static DaemonThreadFactory named(String name) {
+        return new DaemonThreadFactory(name, false, Thread.NORM_PRIORITY);
+    }
+
+    /**
+     * Threads named {@code prefix-1}, {@code prefix-2} and so on.
+     */
+    public static DaemonThreadFactory numbered(String prefix) {
+        return new DaemonThreadFactory(prefix, true, Thread.NORM_PRIORITY);
+    }
+
+    /**
+     * Returns a factory for the same names whose threads run at {@code priority}.
+     */
+    public DaemonThreadFactory withPriority(int priority) {
+        return new DaemonThreadFactory(name, numbered, priority);
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, numbered ? name + "-" + counter.incrementAndGet() : name);
+        thread.setDaemon(true);
+        if (priority != Thread.NORM_PRIORITY) {
+            thread.setPriority(priority);
+        }
+        return thread;
+    }
+}
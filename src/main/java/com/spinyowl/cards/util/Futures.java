@@ -0,0 +1,33 @@
+package com.spinyowl.cards.util;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Helpers for waiting on work submitted to background pools.
+ */
+public final class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * Waits for {@code future} and returns its result, rethrowing an {@link IOException} or
+     * unchecked exception of the task as is and wrapping anything else in an {@link IOException}.
+     */
+    public static <T> T await(Future<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
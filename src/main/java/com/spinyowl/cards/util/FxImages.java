@@ -0,0 +1,63 @@
+package com.spinyowl.cards.util;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Bridges JavaFX images to {@link ImageIO} without depending on the {@code javafx.swing} module.
+ */
+public final class FxImages {
+
+    private FxImages() {
+    }
+
+    public static BufferedImage toBufferedImage(Image image) {
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        PixelReader reader = image.getPixelReader();
+        if (reader == null) {
+            throw new IllegalArgumentException("Image pixels are not readable");
+        }
+        int[] pixels = new int[width * height];
+        reader.getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+
+        BufferedImage buffered = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        buffered.setRGB(0, 0, width, height, pixels, 0, width);
+        return buffered;
+    }
+
+    /**
+     * Writes {@code image} as a PNG. The file is written to a sibling temporary file first and
+     * moved into place, so concurrent readers never observe a partially written image.
+     */
+    public static void writePng(Image image, Path target) throws IOException {
+        writePng(toBufferedImage(image), target);
+    }
+
+    public static void writePng(BufferedImage image, Path target) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                if (!ImageIO.write(image, "png", out)) {
+                    throw new IOException("No PNG writer available");
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.spinyowl.cards.util;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Finds the local files rendered card HTML refers to through {@code src} attributes and
+ * stylesheet links. Relative references resolve against the document's base URI, which for cards
+ * is the project directory.
+ */
+public final class HtmlReferences {
+
+    private HtmlReferences() {
+    }
+
+    /**
+     * Returns the absolute, normalized paths of the {@code file:} resources {@code document} refers
+     * to, whether they exist or not.
+     */
+    public static SortedSet<Path> localFiles(Document document) {
+        SortedSet<Path> files = new TreeSet<>();
+        for (Element element : document.select("[src], link[href]")) {
+            String url = element.hasAttr("src") ? element.absUrl("src") : element.absUrl("href");
+            Path file = toLocalFile(url);
+            if (file != null) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Parses {@code html} with {@code baseDir} as its base and returns the files it refers to.
+     */
+    public static SortedSet<Path> localFiles(String html, Path baseDir) {
+        return localFiles(Jsoup.parse(html, baseDir.toAbsolutePath().normalize().toUri().toString()));
+    }
+
+    private static Path toLocalFile(String url) {
+        if (url == null || !url.startsWith("file:")) {
+            return null;
+        }
+        try {
+            return Path.of(URI.create(url)).toAbsolutePath().normalize();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
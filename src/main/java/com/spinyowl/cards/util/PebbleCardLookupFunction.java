@@ -0,0 +1,58 @@
+package com.spinyowl.cards.util;
+
+import com.spinyowl.cards.model.Card;
+import io.pebbletemplates.pebble.extension.Function;
+import io.pebbletemplates.pebble.template.EvaluationContext;
+import io.pebbletemplates.pebble.template.PebbleTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Pebble function used in templates to reference other cards by id, e.g.
+ * {@code {{ card('token_3').name }}}. Returns the card's properties, or {@code null} when no card
+ * has the given id.
+ */
+public class PebbleCardLookupFunction implements Function {
+    private final java.util.function.Function<String, Card> lookup;
+    private final ThreadLocal<RenderDependencies> dependencies = new ThreadLocal<>();
+
+    public PebbleCardLookupFunction(java.util.function.Function<String, Card> lookup) {
+        this.lookup = Objects.requireNonNull(lookup, "lookup");
+    }
+
+    /**
+     * Records the ids looked up on this thread into {@code recorder}, or stops recording when
+     * {@code null}.
+     */
+    public void setDependencies(RenderDependencies recorder) {
+        if (recorder == null) {
+            dependencies.remove();
+        } else {
+            dependencies.set(recorder);
+        }
+    }
+
+    @Override
+    public List<String> getArgumentNames() {
+        return List.of("id");
+    }
+
+    @Override
+    public Object execute(Map<String, Object> args, PebbleTemplate self, EvaluationContext context, int lineNumber) {
+        Object id = args.get("id");
+        if (id == null) {
+            id = args.get("0");
+        }
+        if (id == null) {
+            return null;
+        }
+        RenderDependencies recorder = dependencies.get();
+        if (recorder != null) {
+            recorder.card(id.toString());
+        }
+        Card card = lookup.apply(id.toString());
+        return card != null ? card.asMap() : null;
+    }
+}
@@ -21,6 +21,7 @@ public class PebbleCardTranslationFunction implements Function {
     private final ThreadLocal<String> currentLanguage = new ThreadLocal<>();
     private final ThreadLocal<String> currentCardId = new ThreadLocal<>();
     private final ThreadLocal<Map<String, ?>> fallbackValues = new ThreadLocal<>();
+    private final ThreadLocal<RenderDependencies> dependencies = new ThreadLocal<>();
 
     public PebbleCardTranslationFunction(TranslationService translations,
                                          Supplier<String> defaultLanguageSupplier) {
@@ -59,6 +60,18 @@ public class PebbleCardTranslationFunction implements Function {
         fallbackValues.remove();
     }
 
+    /**
+     * Records the keys looked up on this thread into {@code recorder}, or stops recording when
+     * {@code null}.
+     */
+    public void setDependencies(RenderDependencies recorder) {
+        if (recorder == null) {
+            dependencies.remove();
+        } else {
+            dependencies.set(recorder);
+        }
+    }
+
     @Override
     public List<String> getArgumentNames() {
         return Arrays.asList("key", "lang");
@@ -66,7 +79,7 @@ public class PebbleCardTranslationFunction implements Function {
 
     @Override
     public Object execute(Map<String, Object> args, PebbleTemplate self, EvaluationContext context, int lineNumber) {
-        Object keyObj = firstNonNull(args, "key", "0");
+        Object keyObj = argument(args, "key", "0", true);
         if (keyObj == null) {
             return "";
         }
@@ -79,15 +92,23 @@ public class PebbleCardTranslationFunction implements Function {
         }
 
         String translationKey = cardId + "." + key;
-        String translated = translations.get(lang, translationKey, resolveFallbackLanguage());
-        if (translationKey.equals(translated)) {
+        RenderDependencies recorder = dependencies.get();
+        if (recorder != null) {
+            recorder.cardTranslation(lang, translationKey);
+        }
+        String translated = translations.find(lang, translationKey, resolveFallbackLanguage(),
+                recorder != null ? recorder.cardTranslationCounts() : null);
+        if (translated == null) {
+            if (recorder != null) {
+                recorder.miss(true, lang, translationKey, self != null ? self.getName() : null, lineNumber);
+            }
             return fallbackValue(key);
         }
         return translated;
     }
 
     private String resolveLanguage(Map<String, Object> args) {
-        Object langObj = firstNonNull(args, "lang", "1");
+        Object langObj = argument(args, "lang", "1", false);
         String lang = langObj != null ? langObj.toString() : currentLanguage.get();
         if (lang == null || lang.isBlank()) {
             lang = resolveFallbackLanguage();
@@ -102,7 +123,11 @@ public class PebbleCardTranslationFunction implements Function {
                 .orElse("en");
     }
 
-    private Object firstNonNull(Map<String, Object> args, String primaryKey, String positionalKey) {
+    /**
+     * Returns the named or positional argument. Only the key may be given under any other name;
+     * an absent language must stay absent so that the current one is used.
+     */
+    private Object argument(Map<String, Object> args, String primaryKey, String positionalKey, boolean anyName) {
         Object value = args.get(primaryKey);
         if (value != null) {
             return value;
@@ -111,7 +136,7 @@ public class PebbleCardTranslationFunction implements Function {
         if (value != null) {
             return value;
         }
-        if (!args.isEmpty()) {
+        if (anyName && !args.isEmpty()) {
             return args.values().iterator().next();
         }
         return null;
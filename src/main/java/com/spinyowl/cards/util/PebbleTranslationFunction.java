@@ -14,6 +14,7 @@ public class PebbleTranslationFunction implements Function {
     private final TranslationService translations;
     private final Supplier<String> defaultLanguageSupplier;
     private final ThreadLocal<String> currentLanguage = new ThreadLocal<>();
+    private final ThreadLocal<RenderDependencies> dependencies = new ThreadLocal<>();
 
     public PebbleTranslationFunction(TranslationService translations, Supplier<String> defaultLanguageSupplier) {
         this.translations = Objects.requireNonNull(translations, "translations");
@@ -32,6 +33,18 @@ public class PebbleTranslationFunction implements Function {
         currentLanguage.remove();
     }
 
+    /**
+     * Records the keys looked up on this thread into {@code recorder}, or stops recording when
+     * {@code null}.
+     */
+    public void setDependencies(RenderDependencies recorder) {
+        if (recorder == null) {
+            dependencies.remove();
+        } else {
+            dependencies.set(recorder);
+        }
+    }
+
     @Override
     public List<String> getArgumentNames() {
         return Arrays.asList("key", "lang");
@@ -39,13 +52,13 @@ public class PebbleTranslationFunction implements Function {
 
     @Override
     public Object execute(Map<String, Object> args, PebbleTemplate self, EvaluationContext context, int lineNumber) {
-        Object keyObj = firstNonNull(args, "key", "0");
+        Object keyObj = argument(args, "key", "0", true);
         if (keyObj == null) {
             return "";
         }
         String key = keyObj.toString();
 
-        Object langObj = firstNonNull(args, "lang", "1");
+        Object langObj = argument(args, "lang", "1", false);
         String lang = langObj != null ? langObj.toString() : currentLanguage.get();
         String fallbackLang = Optional.ofNullable(defaultLanguageSupplier.get())
                 .map(String::trim)
@@ -56,10 +69,23 @@ public class PebbleTranslationFunction implements Function {
             lang = fallbackLang;
         }
 
-        return translations.get(lang, key, fallbackLang);
+        RenderDependencies recorder = dependencies.get();
+        String translated = translations.find(lang, key, fallbackLang,
+                recorder != null ? recorder.translationCounts() : null);
+        if (recorder != null) {
+            recorder.translation(lang, key);
+            if (translated == null) {
+                recorder.miss(false, lang, key, self != null ? self.getName() : null, lineNumber);
+            }
+        }
+        return translated != null ? translated : key;
     }
 
-    private Object firstNonNull(Map<String, Object> args, String primaryKey, String positionalKey) {
+    /**
+     * Returns the named or positional argument. Only the key may be given under any other name;
+     * an absent language must stay absent so that the current one is used.
+     */
+    private Object argument(Map<String, Object> args, String primaryKey, String positionalKey, boolean anyName) {
         Object value = args.get(primaryKey);
         if (value != null) {
             return value;
@@ -68,7 +94,7 @@ public class PebbleTranslationFunction implements Function {
         if (value != null) {
             return value;
         }
-        if (!args.isEmpty()) {
+        if (anyName && !args.isEmpty()) {
             return args.values().iterator().next();
         }
         return null;
@@ -0,0 +1,146 @@
+package com.spinyowl.cards.util;
+
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Writes PNGs carrying their print resolution ({@code pHYs}) and text entries ({@code tEXt}), and
+ * reads those entries back without decoding the pixels. Exports store the hash of their inputs
+ * in a text entry to recognize outputs that are still up to date.
+ */
+public final class PngFiles {
+
+    private static final String FORMAT = "javax_imageio_png_1.0";
+    private static final double METERS_PER_INCH = 0.0254;
+
+    private PngFiles() {
+    }
+
+    /**
+     * Writes {@code image} to {@code target} through a sibling temporary file, so readers never see
+     * a partially written image.
+     *
+     * @param dpi  resolution recorded in the file, or {@code 0} to record none
+     * @param text {@code tEXt} entries to embed
+     */
+    public static void write(BufferedImage image, Path target, double dpi, Map<String, String> text)
+            throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("png");
+        if (!writers.hasNext()) {
+            throw new IOException("No PNG writer available");
+        }
+        ImageWriter writer = writers.next();
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+        try {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            IIOMetadata metadata = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(image), param);
+            metadata.mergeTree(FORMAT, metadataTree(dpi, text));
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, metadata), param);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            writer.dispose();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Returns the value of the {@code tEXt} entry {@code keyword}, or {@code null} when the file is
+     * missing, unreadable or has no such entry.
+     */
+    public static String readText(Path file, String keyword) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, false);
+                IIOMetadata metadata = reader.getImageMetadata(0);
+                if (metadata == null || !contains(metadata.getMetadataFormatNames(), FORMAT)) {
+                    return null;
+                }
+                return findText(metadata.getAsTree(FORMAT), keyword);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static IIOMetadataNode metadataTree(double dpi, Map<String, String> text) {
+        IIOMetadataNode root = new IIOMetadataNode(FORMAT);
+        if (dpi > 0) {
+            String pixelsPerMeter = Long.toString(Math.round(dpi / METERS_PER_INCH));
+            IIOMetadataNode phys = new IIOMetadataNode("pHYs");
+            phys.setAttribute("pixelsPerUnitXAxis", pixelsPerMeter);
+            phys.setAttribute("pixelsPerUnitYAxis", pixelsPerMeter);
+            phys.setAttribute("unitSpecifier", "meter");
+            root.appendChild(phys);
+        }
+        if (!text.isEmpty()) {
+            IIOMetadataNode entries = new IIOMetadataNode("tEXt");
+            text.forEach((keyword, value) -> {
+                IIOMetadataNode entry = new IIOMetadataNode("tEXtEntry");
+                entry.setAttribute("keyword", keyword);
+                entry.setAttribute("value", value);
+                entries.appendChild(entry);
+            });
+            root.appendChild(entries);
+        }
+        return root;
+    }
+
+    private static String findText(Node node, String keyword) {
+        if ("tEXtEntry".equals(node.getNodeName()) && node instanceof IIOMetadataNode entry
+                && keyword.equals(entry.getAttribute("keyword"))) {
+            return entry.getAttribute("value");
+        }
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            String value = findText(child, keyword);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static boolean contains(String[] values, String value) {
+        if (values != null) {
+            for (String candidate : values) {
+                if (value.equals(candidate)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,170 @@
+package com.spinyowl.cards.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * UTF-8 {@link Writer} over an {@link OutputStream} whose character and byte buffers and encoder
+ * are reused by every writer opened on the same thread, so streaming a rendered card to a file or
+ * socket allocates neither a whole-document string nor fresh buffers per card.
+ * <p>
+ * A writer is confined to the thread that opened it. {@link #close()} flushes everything to the
+ * stream and returns the buffers to the thread's pool, but leaves the stream open. A writer opened
+ * while another one is still open on the same thread gets private buffers.
+ */
+public final class PooledStreamWriter extends Writer {
+
+    private static final int CHAR_BUFFER_SIZE = 8 * 1024;
+    private static final int BYTE_BUFFER_SIZE = 3 * CHAR_BUFFER_SIZE;
+    private static final ThreadLocal<Buffers> POOL = ThreadLocal.withInitial(Buffers::new);
+
+    private final OutputStream out;
+    private final Buffers buffers;
+    private final boolean pooled;
+    private int count;
+    private boolean closed;
+
+    private PooledStreamWriter(OutputStream out, Buffers buffers, boolean pooled) {
+        this.out = out;
+        this.buffers = buffers;
+        this.pooled = pooled;
+    }
+
+    public static PooledStreamWriter open(OutputStream out) {
+        Objects.requireNonNull(out, "out");
+        Buffers buffers = POOL.get();
+        if (buffers.inUse) {
+            return new PooledStreamWriter(out, new Buffers(), false);
+        }
+        buffers.inUse = true;
+        buffers.encoder.reset();
+        buffers.bytes.clear();
+        return new PooledStreamWriter(out, buffers, true);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        ensureOpen();
+        if (count == buffers.chars.length) {
+            encode(false);
+        }
+        buffers.chars[count++] = (char) c;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, cbuf.length);
+        ensureOpen();
+        while (len > 0) {
+            if (count == buffers.chars.length) {
+                encode(false);
+            }
+            int chunk = Math.min(len, buffers.chars.length - count);
+            System.arraycopy(cbuf, off, buffers.chars, count, chunk);
+            count += chunk;
+            off += chunk;
+            len -= chunk;
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, str.length());
+        ensureOpen();
+        while (len > 0) {
+            if (count == buffers.chars.length) {
+                encode(false);
+            }
+            int chunk = Math.min(len, buffers.chars.length - count);
+            str.getChars(off, off + chunk, buffers.chars, count);
+            count += chunk;
+            off += chunk;
+            len -= chunk;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        encode(false);
+        drainBytes();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            encode(true);
+            CharsetEncoder encoder = buffers.encoder;
+            while (encoder.flush(buffers.bytes).isOverflow()) {
+                drainBytes();
+            }
+            drainBytes();
+            out.flush();
+        } finally {
+            closed = true;
+            count = 0;
+            if (pooled) {
+                buffers.inUse = false;
+            }
+        }
+    }
+
+    /**
+     * Encodes the buffered characters, keeping a trailing high surrogate for the next round unless
+     * this is the end of the input.
+     */
+    private void encode(boolean endOfInput) throws IOException {
+        CharBuffer in = CharBuffer.wrap(buffers.chars, 0, count);
+        while (true) {
+            CoderResult result = buffers.encoder.encode(in, buffers.bytes, endOfInput);
+            if (result.isOverflow()) {
+                drainBytes();
+                continue;
+            }
+            if (result.isError()) {
+                result.throwException();
+            }
+            break;
+        }
+        int remaining = in.remaining();
+        if (remaining > 0) {
+            System.arraycopy(buffers.chars, in.position(), buffers.chars, 0, remaining);
+        }
+        count = remaining;
+    }
+
+    private void drainBytes() throws IOException {
+        ByteBuffer bytes = buffers.bytes;
+        if (bytes.position() > 0) {
+            out.write(bytes.array(), 0, bytes.position());
+            bytes.clear();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Writer closed");
+        }
+    }
+
+    private static final class Buffers {
+        private final char[] chars = new char[CHAR_BUFFER_SIZE];
+        private final ByteBuffer bytes = ByteBuffer.allocate(BYTE_BUFFER_SIZE);
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private boolean inUse;
+    }
+}
@@ -0,0 +1,93 @@
+package com.spinyowl.cards.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Collects what one card render read besides its own row and template: the translation keys looked
+ * up through {@code t} and {@code card_t}, and the cards looked up through {@code card}. Keys are
+ * recorded as {@code lang:key}. Used by exports to tell whether an output is still current without
+ * rendering it again. Lookups that resolved in no language are also kept as {@link Miss}es, with
+ * the template line asking for them. Confined to the rendering thread.
+ * <p>
+ * When given statistics, missing and fallback lookups are also counted into them, so a batch of
+ * renders can report on its own lookups.
+ */
+public final class RenderDependencies {
+
+    private final SortedSet<String> translations = new TreeSet<>();
+    private final SortedSet<String> cardTranslations = new TreeSet<>();
+    private final SortedSet<String> cards = new TreeSet<>();
+    private final List<Miss> misses = new ArrayList<>();
+    private final TranslationStatistics translationCounts;
+    private final TranslationStatistics cardTranslationCounts;
+
+    /**
+     * A translation lookup that found nothing.
+     *
+     * @param cardTranslation {@code true} for {@code card_t}, {@code false} for {@code t}
+     * @param template        the template containing the lookup
+     * @param line            its line within {@code template}
+     */
+    public record Miss(boolean cardTranslation, String lang, String key, String template, int line) {
+    }
+
+    public RenderDependencies() {
+        this(null, null);
+    }
+
+    /**
+     * @param translationCounts     counts the lookups of {@code t}, may be {@code null}
+     * @param cardTranslationCounts counts the lookups of {@code card_t}, may be {@code null}
+     */
+    public RenderDependencies(TranslationStatistics translationCounts, TranslationStatistics cardTranslationCounts) {
+        this.translationCounts = translationCounts;
+        this.cardTranslationCounts = cardTranslationCounts;
+    }
+
+    TranslationStatistics translationCounts() {
+        return translationCounts;
+    }
+
+    TranslationStatistics cardTranslationCounts() {
+        return cardTranslationCounts;
+    }
+
+    void translation(String lang, String key) {
+        translations.add(lang + ":" + key);
+    }
+
+    void cardTranslation(String lang, String key) {
+        cardTranslations.add(lang + ":" + key);
+    }
+
+    void miss(boolean cardTranslation, String lang, String key, String template, int line) {
+        misses.add(new Miss(cardTranslation, lang, key, template, line));
+    }
+
+    void card(String id) {
+        cards.add(id);
+    }
+
+    public SortedSet<String> translations() {
+        return Collections.unmodifiableSortedSet(translations);
+    }
+
+    public SortedSet<String> cardTranslations() {
+        return Collections.unmodifiableSortedSet(cardTranslations);
+    }
+
+    public SortedSet<String> cards() {
+        return Collections.unmodifiableSortedSet(cards);
+    }
+
+    /**
+     * Returns the lookups that found nothing, in the order they happened.
+     */
+    public List<Miss> misses() {
+        return Collections.unmodifiableList(misses);
+    }
+}
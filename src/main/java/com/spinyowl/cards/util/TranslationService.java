@@ -1,95 +1,377 @@
 package com.spinyowl.cards.util;
 
+import com.spinyowl.cards.diagnostics.TranslationLoadEvent;
+import lombok.extern.slf4j.Slf4j;
 import org.yaml.snakeyaml.Yaml;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Resolves dotted translation keys from per-language YAML files ({@code <lang>.yml}) in a
+ * directory. Language files are loaded lazily on first use, or ahead of time via
+ * {@link #preload(Collection)}, and at most {@code maxLoadedLanguages} tables are kept in memory;
+ * the least recently used one is evicted when the limit is exceeded.
+ * <p>
+ * File I/O never happens while holding a map lock: the first caller for a language publishes a
+ * pending entry and loads the file itself, concurrent callers for the same language wait for that
+ * entry, and callers for other languages are not affected. A load that overlaps a
+ * {@link #reload(String)} of its language reads the file again, so it never hands out the table
+ * it read before the change.
+ * <p>
+ * Lookups through {@code get} that find nothing, or find a value only in the fallback language,
+ * are counted in {@link #getStatistics()} until the language is reloaded or invalidated.
+ */
+@Slf4j
 public class TranslationService {
+    public static final int DEFAULT_MAX_LOADED_LANGUAGES = 16;
+
+    private static final ExecutorService PRELOAD_EXECUTOR = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)),
+            DaemonThreadFactory.numbered("translation-preload"));
+
     private final Path dir;
-    private final Yaml yaml = new Yaml();
-    private final Map<String, Map<String, Object>> cache = new ConcurrentHashMap<>();
+    private final int maxLoadedLanguages;
+    private final Map<String, LoadedLanguage> cache = new ConcurrentHashMap<>();
+    private final Set<String> missingLanguages = ConcurrentHashMap.newKeySet();
+    private final AtomicLong accessClock = new AtomicLong();
+    private final TranslationStatistics statistics = new TranslationStatistics();
+    private final Object evictionLock = new Object();
+    private final Object reloadLock = new Object();
+    /**
+     * How often each language was reloaded, guarded by {@code reloadLock}.
+     */
+    private final Map<String, Long> reloadCounts = new HashMap<>();
 
     public TranslationService(Path dir) {
+        this(dir, DEFAULT_MAX_LOADED_LANGUAGES);
+    }
+
+    public TranslationService(Path dir, int maxLoadedLanguages) {
+        if (maxLoadedLanguages < 1) {
+            throw new IllegalArgumentException("maxLoadedLanguages must be positive");
+        }
         this.dir = dir;
+        this.maxLoadedLanguages = maxLoadedLanguages;
     }
 
     public String get(String lang, String key) {
-        return translate(buildCandidatesWithoutFallback(lang), key);
+        return orKey(translate(lang, buildCandidatesWithoutFallback(lang), key, true, null), key);
     }
 
     public String get(String lang, String key, String fallbackLanguage) {
-        return translate(buildCandidatesWithFallback(lang, fallbackLanguage), key);
+        return orKey(translate(lang, buildCandidatesWithFallback(lang, fallbackLanguage), key, true, null), key);
     }
 
-    private String translate(List<String> candidates, String key) {
+    /**
+     * Same as {@link #get(String, String, String)}, also counting a miss or fallback into
+     * {@code batch} when it is not {@code null}, to report on one batch of renders.
+     */
+    public String get(String lang, String key, String fallbackLanguage, TranslationStatistics batch) {
+        return orKey(find(lang, key, fallbackLanguage, batch), key);
+    }
+
+    /**
+     * Same as {@link #get(String, String, String, TranslationStatistics)} but returns {@code null}
+     * when neither language has the key, so that a miss can be told apart from a translation that
+     * equals its key.
+     */
+    public String find(String lang, String key, String fallbackLanguage, TranslationStatistics batch) {
+        return translate(lang, buildCandidatesWithFallback(lang, fallbackLanguage), key, true, batch);
+    }
+
+    /**
+     * Same as {@link #get(String, String, String)} but not counted in the statistics, for reading
+     * translations outside of rendering.
+     */
+    public String peek(String lang, String key, String fallbackLanguage) {
+        return orKey(translate(lang, buildCandidatesWithFallback(lang, fallbackLanguage), key, false, null), key);
+    }
+
+    public TranslationStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Loads the given languages on a background pool so that the first render in each of them
+     * does not pay for file I/O. Languages that are already loaded are skipped. Only the first
+     * {@code maxLoadedLanguages} languages are loaded, so callers list the most needed ones first;
+     * loading more would only evict the earlier ones again.
+     */
+    public CompletableFuture<Void> preload(Collection<String> languages) {
+        return preload(languages, PRELOAD_EXECUTOR);
+    }
+
+    public CompletableFuture<Void> preload(Collection<String> languages, Executor executor) {
+        if (languages == null || languages.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<?>[] tasks = languages.stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(lang -> !lang.isEmpty())
+                .distinct()
+                .limit(maxLoadedLanguages)
+                .filter(lang -> !cache.containsKey(lang))
+                .map(lang -> CompletableFuture.runAsync(() -> loadLanguage(lang), executor))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(tasks);
+    }
+
+    /**
+     * Re-reads a single language file and atomically swaps in its new table. Lookups running
+     * concurrently see either the complete old table or the complete new one. Languages that are
+     * not currently loaded are only marked for lazy reloading, and a deleted file drops the
+     * language. Other languages are left untouched.
+     */
+    public void reload(String lang) {
+        if (lang == null || lang.isBlank()) {
+            return;
+        }
+        String trimmed = lang.trim();
+        Path file = dir.resolve(trimmed + ".yml");
+        boolean exists = Files.exists(file);
+        synchronized (reloadLock) {
+            reloadCounts.merge(trimmed, 1L, Long::sum);
+            if (exists) {
+                missingLanguages.remove(trimmed);
+            } else {
+                missingLanguages.add(trimmed);
+                cache.remove(trimmed);
+            }
+        }
+        resetStatistics(trimmed);
+        if (!exists) {
+            log.debug("Dropped translations for language {} from {}", trimmed, dir);
+            return;
+        }
+        if (!cache.containsKey(trimmed)) {
+            return;
+        }
+
+        LoadedLanguage replacement = new LoadedLanguage();
+        try {
+            replacement.table.complete(readLanguageFile(file));
+        } catch (RuntimeException e) {
+            log.warn("Failed to reload translations for language {} from {}", trimmed, dir, e);
+            replacement.table.complete(Collections.emptyMap());
+        }
+        replacement.lastAccess = accessClock.incrementAndGet();
+        cache.put(trimmed, replacement);
+        log.debug("Reloaded translations for language {} from {}", trimmed, dir);
+    }
+
+    /**
+     * Drops every loaded table so that each language is re-read on its next use, and resets the
+     * statistics.
+     */
+    public void invalidateAll() {
+        cache.clear();
+        missingLanguages.clear();
+        statistics.reset();
+    }
+
+    /**
+     * Returns the language whose file is {@code file}, or {@code null} when the path is not a
+     * language file of this service.
+     */
+    public String languageOf(Path file) {
+        if (file == null || dir == null) {
+            return null;
+        }
+        Path parent = file.toAbsolutePath().normalize().getParent();
+        if (parent == null || !parent.equals(dir.toAbsolutePath().normalize())) {
+            return null;
+        }
+        String name = file.getFileName().toString();
+        if (!name.endsWith(".yml") || name.length() == ".yml".length()) {
+            return null;
+        }
+        return name.substring(0, name.length() - ".yml".length());
+    }
+
+    public Path getDirectory() {
+        return dir;
+    }
+
+    /**
+     * Returns the languages whose tables are currently held in memory.
+     */
+    public Set<String> getLoadedLanguages() {
+        return Collections.unmodifiableSet(new TreeSet<>(cache.keySet()));
+    }
+
+    /**
+     * Forgets the counts of every requested language that reads {@code fileLanguage} as its own,
+     * such as {@code de-DE} and {@code de_AT} for {@code de}.
+     */
+    private void resetStatistics(String fileLanguage) {
+        statistics.reset(lang -> buildCandidatesWithoutFallback(lang).names().contains(fileLanguage));
+    }
+
+    private String translate(String lang, Candidates candidates, String key, boolean counted,
+                             TranslationStatistics batch) {
         if (key == null || key.isEmpty()) {
             return "";
         }
 
         String[] parts = key.split("\\.");
-        for (String candidate : candidates) {
-            if (candidate == null) {
-                continue;
-            }
-            Map<String, Object> data = loadLanguage(candidate);
+        List<String> names = candidates.names();
+        for (int i = 0; i < names.size(); i++) {
+            Map<String, Object> data = loadLanguage(names.get(i));
             if (data.isEmpty()) {
                 continue;
             }
 
             Object value = resolve(data, parts);
             if (value != null) {
+                if (counted && i >= candidates.own() && candidates.own() > 0) {
+                    statistics.recordFallback(lang.trim(), key);
+                    if (batch != null) {
+                        batch.recordFallback(lang.trim(), key);
+                    }
+                }
                 return value.toString();
             }
         }
-        return key;
+        if (counted) {
+            String requested = lang != null ? lang.trim() : "";
+            statistics.recordMissing(requested, key);
+            if (batch != null) {
+                batch.recordMissing(requested, key);
+            }
+        }
+        return null;
     }
 
-    private Map<String, Object> loadLanguage(String lang) {
-        return cache.computeIfAbsent(lang, this::readLanguageFile);
+    private static String orKey(String translated, String key) {
+        return translated != null ? translated : key;
     }
 
-    private Map<String, Object> readLanguageFile(String lang) {
-        if (lang == null || lang.isBlank()) {
+    private Map<String, Object> loadLanguage(String lang) {
+        if (lang == null || lang.isBlank() || missingLanguages.contains(lang)) {
             return Collections.emptyMap();
         }
 
-        Path file = dir.resolve(lang + ".yml");
-        if (!Files.exists(file)) {
-            return Collections.emptyMap();
+        LoadedLanguage entry = cache.get(lang);
+        if (entry == null) {
+            LoadedLanguage created = new LoadedLanguage();
+            created.lastAccess = accessClock.incrementAndGet();
+            entry = cache.putIfAbsent(lang, created);
+            if (entry == null) {
+                entry = created;
+                populate(lang, created);
+            }
+        }
+        entry.lastAccess = accessClock.incrementAndGet();
+        return entry.table.join();
+    }
+
+    private void populate(String lang, LoadedLanguage entry) {
+        Map<String, Object> table = Collections.emptyMap();
+        try {
+            Path file = dir.resolve(lang + ".yml");
+            while (true) {
+                long reloads = reloadCount(lang);
+                boolean exists = Files.exists(file);
+                table = exists ? readLanguageFile(file) : Collections.emptyMap();
+                synchronized (reloadLock) {
+                    if (reloads == reloadCount(lang)) {
+                        if (!exists) {
+                            missingLanguages.add(lang);
+                            cache.remove(lang, entry);
+                        }
+                        break;
+                    }
+                }
+                log.debug("Translations for language {} changed while loading, reading them again", lang);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to load translations for language {} from {}", lang, dir, e);
+            table = Collections.emptyMap();
+        } finally {
+            entry.table.complete(table);
         }
+        evictIfNecessary();
+    }
 
+    private long reloadCount(String lang) {
+        synchronized (reloadLock) {
+            return reloadCounts.getOrDefault(lang, 0L);
+        }
+    }
+
+    private Map<String, Object> readLanguageFile(Path file) {
+        TranslationLoadEvent event = new TranslationLoadEvent();
+        event.begin();
+        Map<String, Object> table = Collections.emptyMap();
         try (InputStream in = Files.newInputStream(file)) {
-            Object loaded = yaml.load(in);
+            Object loaded = new Yaml().load(in);
             if (loaded instanceof Map<?, ?> map) {
-                return deepCopy(map);
+                table = deepCopy(map);
             }
         } catch (IOException ignored) {
             // fall through to empty map
         }
 
-        return Collections.emptyMap();
+        event.end();
+        if (event.shouldCommit()) {
+            event.file = file.toString();
+            event.keyCount = table.size();
+            event.commit();
+        }
+        return table;
+    }
+
+    private void evictIfNecessary() {
+        if (cache.size() <= maxLoadedLanguages) {
+            return;
+        }
+        synchronized (evictionLock) {
+            while (cache.size() > maxLoadedLanguages) {
+                Map.Entry<String, LoadedLanguage> eldest = null;
+                for (Map.Entry<String, LoadedLanguage> candidate : cache.entrySet()) {
+                    if (!candidate.getValue().table.isDone()) {
+                        continue;
+                    }
+                    if (eldest == null || candidate.getValue().lastAccess < eldest.getValue().lastAccess) {
+                        eldest = candidate;
+                    }
+                }
+                if (eldest == null) {
+                    return;
+                }
+                cache.remove(eldest.getKey(), eldest.getValue());
+                log.debug("Evicted translations for language {} from {}", eldest.getKey(), dir);
+            }
+        }
     }
 
-    private List<String> buildCandidatesWithoutFallback(String lang) {
+    private Candidates buildCandidatesWithoutFallback(String lang) {
         LinkedHashSet<String> candidates = new LinkedHashSet<>();
         addLanguageCandidates(candidates, lang);
-        return new ArrayList<>(candidates);
+        return new Candidates(new ArrayList<>(candidates), candidates.size());
     }
 
-    private List<String> buildCandidatesWithFallback(String lang, String fallbackLanguage) {
+    private Candidates buildCandidatesWithFallback(String lang, String fallbackLanguage) {
         LinkedHashSet<String> candidates = new LinkedHashSet<>();
         addLanguageCandidates(candidates, lang);
+        int own = candidates.size();
 
         String fallback = fallbackLanguage;
         if (fallback == null || fallback.isBlank()) {
             fallback = "en";
         }
         addLanguageCandidates(candidates, fallback);
-        return new ArrayList<>(candidates);
+        return new Candidates(new ArrayList<>(candidates), own);
     }
 
     private void addLanguageCandidates(Set<String> candidates, String lang) {
@@ -148,4 +430,16 @@ public class TranslationService {
         }
         return copy;
     }
+
+    /**
+     * @param own how many of {@code names} belong to the requested language rather than the
+     *            fallback
+     */
+    private record Candidates(List<String> names, int own) {
+    }
+
+    private static final class LoadedLanguage {
+        private final CompletableFuture<Map<String, Object>> table = new CompletableFuture<>();
+        private volatile long lastAccess;
+    }
 }
@@ -0,0 +1,92 @@
+package com.spinyowl.cards.util;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Counts, per language and key, the lookups no table could answer and the ones only the fallback
+ * language could. Counting is safe from any number of render threads: once a key has been seen,
+ * recording it again is two map reads and a {@link LongAdder} increment, without locks.
+ */
+public final class TranslationStatistics {
+
+    private final Map<String, Map<String, LongAdder>> missing = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, LongAdder>> fallbacks = new ConcurrentHashMap<>();
+
+    /**
+     * Counts of each key per language, both sorted.
+     *
+     * @param missing   keys that resolved to nothing and were shown as the key itself
+     * @param fallbacks keys that resolved only through the fallback language
+     */
+    public record Snapshot(SortedMap<String, SortedMap<String, Long>> missing,
+                           SortedMap<String, SortedMap<String, Long>> fallbacks) {
+        public boolean isEmpty() {
+            return missing.isEmpty() && fallbacks.isEmpty();
+        }
+
+        public int missingCount(String lang) {
+            return missing.getOrDefault(lang, Collections.emptySortedMap()).size();
+        }
+
+        public int fallbackCount(String lang) {
+            return fallbacks.getOrDefault(lang, Collections.emptySortedMap()).size();
+        }
+    }
+
+    void recordMissing(String lang, String key) {
+        counter(missing, lang, key).increment();
+    }
+
+    void recordFallback(String lang, String key) {
+        counter(fallbacks, lang, key).increment();
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(copy(missing), copy(fallbacks));
+    }
+
+    /**
+     * Forgets the counts of the languages {@code languages} accepts, for example because a table
+     * they read was replaced.
+     */
+    public void reset(Predicate<String> languages) {
+        missing.keySet().removeIf(languages);
+        fallbacks.keySet().removeIf(languages);
+    }
+
+    public void reset() {
+        missing.clear();
+        fallbacks.clear();
+    }
+
+    private static LongAdder counter(Map<String, Map<String, LongAdder>> counts, String lang, String key) {
+        String language = lang != null ? lang : "";
+        Map<String, LongAdder> keys = counts.get(language);
+        if (keys == null) {
+            keys = counts.computeIfAbsent(language, ignored -> new ConcurrentHashMap<>());
+        }
+        LongAdder counter = keys.get(key);
+        if (counter == null) {
+            counter = keys.computeIfAbsent(key, ignored -> new LongAdder());
+        }
+        return counter;
+    }
+
+    private static SortedMap<String, SortedMap<String, Long>> copy(Map<String, Map<String, LongAdder>> counts) {
+        SortedMap<String, SortedMap<String, Long>> copy = new TreeMap<>();
+        counts.forEach((lang, keys) -> {
+            SortedMap<String, Long> values = new TreeMap<>();
+            keys.forEach((key, counter) -> values.put(key, counter.sum()));
+            if (!values.isEmpty()) {
+                copy.put(lang, Collections.unmodifiableSortedMap(values));
+            }
+        });
+        return Collections.unmodifiableSortedMap(copy);
+    }
+}
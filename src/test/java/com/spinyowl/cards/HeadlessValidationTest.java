@@ -0,0 +1,75 @@
+package com.spinyowl.cards;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeadlessValidationTest {
+
+    @TempDir
+    Path projectDir;
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final PrintStream out = new PrintStream(output, true, StandardCharsets.UTF_8);
+
+    @BeforeEach
+    void createProject() throws IOException {
+        Files.writeString(projectDir.resolve("project.yml"), "name: Test\ndefault_template: default.html\n");
+        Files.writeString(projectDir.resolve("cards.csv"), "id,name\nsword,Sword\n");
+        Files.createDirectories(projectDir.resolve("templates"));
+        Files.writeString(projectDir.resolve("templates/default.html"), "<p>{{ name }} {{ t('label.power') }}</p>\n");
+        Files.createDirectories(projectDir.resolve("i18n"));
+        Files.writeString(projectDir.resolve("i18n/en.yml"), "label:\n  other: Other\n");
+    }
+
+    @Test
+    void passesWithWarningsUnlessStrict() {
+        assertEquals(HeadlessValidation.EXIT_OK, run(projectDir.toString(), "--lang=en"));
+        assertTrue(printed().contains("label.power"), printed());
+        assertEquals(HeadlessValidation.EXIT_PROBLEMS, run(projectDir.toString(), "--lang=en", "--strict"));
+    }
+
+    @Test
+    void writesTheTranslationReport() throws IOException {
+        Path report = projectDir.resolve("out/missing.yml");
+
+        assertEquals(HeadlessValidation.EXIT_OK,
+                run(projectDir.toString(), "--lang=en", "--translation-report=" + report));
+        assertTrue(printed().contains("Translations en: 1 missing"), printed());
+        String written = Files.readString(report);
+        assertTrue(written.contains("missing:\n    en:\n      label.power: 1"), written);
+    }
+
+    @Test
+    void failsWhenACardHasErrors() throws IOException {
+        Files.writeString(projectDir.resolve("templates/default.html"), "<p>{{ name | nosuchfilter }}</p>\n");
+
+        assertEquals(HeadlessValidation.EXIT_PROBLEMS, run(projectDir.toString()));
+        assertTrue(printed().contains("1 of 1 card(s) with errors"), printed());
+    }
+
+    @Test
+    void rejectsBadArguments() {
+        assertEquals(HeadlessValidation.EXIT_USAGE, run());
+        assertEquals(HeadlessValidation.EXIT_USAGE, run(projectDir.toString(), "--verbose"));
+        assertEquals(HeadlessValidation.EXIT_USAGE, run(projectDir.resolve("missing").toString()));
+    }
+
+    private int run(String... args) {
+        return HeadlessValidation.run(args, out);
+    }
+
+    private String printed() {
+        return output.toString(StandardCharsets.UTF_8);
+    }
+}
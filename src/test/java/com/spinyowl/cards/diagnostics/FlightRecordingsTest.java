@@ -0,0 +1,52 @@
+package com.spinyowl.cards.diagnostics;
+
+import com.spinyowl.cards.config.AppPaths;
+import com.spinyowl.cards.util.CsvLoader;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightRecordingsTest {
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        FlightRecordings.stopAndDump();
+        System.clearProperty(AppPaths.CONFIG_DIR_PROPERTY);
+    }
+
+    @Test
+    void recordsApplicationEventsIntoTheLogDirectory() throws IOException {
+        System.setProperty(AppPaths.CONFIG_DIR_PROPERTY, dir.toString());
+        Path csv = dir.resolve("cards.csv");
+        Files.writeString(csv, "id,name\n1,Sword\n2,Shield\n");
+
+        FlightRecordings.start();
+        assertTrue(FlightRecordings.isRecording());
+        CsvLoader.loadCards(csv);
+        Path recording = FlightRecordings.stopAndDump();
+
+        assertFalse(FlightRecordings.isRecording());
+        assertTrue(recording.startsWith(dir));
+        List<RecordedEvent> parses = RecordingFile.readAllEvents(recording).stream()
+                .filter(event -> event.getEventType().getName().equals("com.spinyowl.cards.CsvParse"))
+                .toList();
+        assertEquals(1, parses.size());
+        assertEquals(2, parses.getFirst().getInt("cardCount"));
+        assertNull(FlightRecordings.stopAndDump());
+    }
+}
@@ -0,0 +1,20 @@
+package com.spinyowl.cards.logging;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RenderSummaryTest {
+
+    @Test
+    void formatsCountAndDuration() {
+        assertEquals("Rendered 4,000 cards in 3.1s (12.3s render time)",
+                RenderSummary.format("Rendered", "cards", 4000, 0, 3_100_000_000L, 12_340_000_000L));
+    }
+
+    @Test
+    void mentionsFailures() {
+        assertEquals("Rendered 3 cards in 0.0s (0.0s render time, 1 failed)",
+                RenderSummary.format("Rendered", "cards", 3, 1, 1_000_000L, 1_000_000L));
+    }
+}
@@ -0,0 +1,67 @@
+package com.spinyowl.cards.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CardDiffTest {
+
+    @Test
+    void identicalListsProduceEmptyDiff() {
+        List<Card> cards = List.of(card("1", "Sword"), card("2", "Shield"));
+
+        CardDiff diff = CardDiff.compute(cards, List.of(card("1", "Sword"), card("2", "Shield")));
+
+        assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    void detectsAddedRemovedAndModifiedCards() {
+        List<Card> previous = List.of(card("1", "Sword"), card("2", "Shield"), card("3", "Bow"));
+        List<Card> current = List.of(card("1", "Sword"), card("3", "Longbow"), card("4", "Axe"));
+
+        CardDiff diff = CardDiff.compute(previous, current);
+
+        assertEquals(List.of("4"), ids(diff.getAdded()));
+        assertEquals(List.of("2"), ids(diff.getRemoved()));
+        assertEquals(List.of("3"), ids(diff.getModified()));
+        assertTrue(diff.getMoved().isEmpty());
+        assertTrue(diff.affects("3"));
+        assertFalse(diff.affects("1"));
+    }
+
+    @Test
+    void insertionDoesNotMarkFollowingCardsAsMoved() {
+        List<Card> previous = List.of(card("1", "a"), card("2", "b"), card("3", "c"));
+        List<Card> current = List.of(card("0", "z"), card("1", "a"), card("2", "b"), card("3", "c"));
+
+        CardDiff diff = CardDiff.compute(previous, current);
+
+        assertEquals(List.of("0"), ids(diff.getAdded()));
+        assertTrue(diff.getMoved().isEmpty());
+    }
+
+    @Test
+    void reportsCardsWhoseRelativeOrderChanged() {
+        List<Card> previous = List.of(card("1", "a"), card("2", "b"), card("3", "c"), card("4", "d"));
+        List<Card> current = List.of(card("1", "a"), card("3", "c"), card("4", "d"), card("2", "b"));
+
+        CardDiff diff = CardDiff.compute(previous, current);
+
+        assertEquals(List.of("2"), ids(diff.getMoved()));
+        assertEquals(1, diff.size());
+    }
+
+    private static Card card(String id, String name) {
+        return new Card(Map.of("id", id, "name", name));
+    }
+
+    private static List<String> ids(List<Card> cards) {
+        return cards.stream().map(Card::getId).toList();
+    }
+}
@@ -0,0 +1,52 @@
+package com.spinyowl.cards.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BuildManifestTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsAndWritesTheSameFileForTheSameEntries() throws Exception {
+        BuildManifest.Source source = new BuildManifest.Source("sword", "en", List.of("en:title", "en:attack"),
+                List.of("en:sword.name"), List.of("shield"), List.of("images/sword.png"));
+        BuildManifest first = BuildManifest.load(dir);
+        first.put("sword.png", new BuildManifest.Entry("images", "abc", List.of(source)));
+        first.put("bow.png", new BuildManifest.Entry("images", "def", List.of(BuildManifest.Source.of("bow", "en"))));
+        first.save();
+        String written = Files.readString(dir.resolve(BuildManifest.FILE_NAME));
+
+        BuildManifest second = BuildManifest.load(dir);
+        assertEquals(new BuildManifest.Entry("images", "abc", List.of(source)), second.get("sword.png"));
+        second.save();
+        assertEquals(written, Files.readString(dir.resolve(BuildManifest.FILE_NAME)));
+    }
+
+    @Test
+    void retainScopeReturnsOrphansOfThatScopeOnly() {
+        BuildManifest manifest = BuildManifest.load(dir);
+        manifest.put("a.png", new BuildManifest.Entry("images", "1", List.of()));
+        manifest.put("b.png", new BuildManifest.Entry("images", "2", List.of()));
+        manifest.put("sheets/sheet-01.png", new BuildManifest.Entry("sheets", "3", List.of()));
+
+        assertEquals(List.of("b.png"), manifest.retainScope("images", List.of("a.png")));
+        assertNull(manifest.get("b.png"));
+        assertEquals("3", manifest.get("sheets/sheet-01.png").inputHash());
+    }
+
+    @Test
+    void unreadableManifestIsEmpty() throws Exception {
+        Files.writeString(dir.resolve(BuildManifest.FILE_NAME), "artifacts: [");
+
+        assertNull(BuildManifest.load(dir).get("a.png"));
+    }
+}
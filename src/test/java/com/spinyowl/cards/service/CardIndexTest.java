@@ -0,0 +1,85 @@
+package com.spinyowl.cards.service;
+
+import com.spinyowl.cards.model.Card;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CardIndexTest {
+
+    private final CardIndex index = new CardIndex(List.of(
+            card("1", "Sword", "rare", "3", List.of("melee")),
+            card("2", "Shield", "Common", "10", List.of()),
+            card("3", "Bow", "rare", "1", List.of("ranged", "melee")),
+            card("4", "Staff", "epic", "", List.of("magic"))));
+
+    @Test
+    void filtersByEqualityAndNumericRanges() {
+        assertArrayEquals(new int[]{0, 2}, index.select(CardQuery.parse("rarity=RARE")));
+        assertArrayEquals(new int[]{0, 2}, index.select(CardQuery.parse("cost<10")));
+        assertArrayEquals(new int[]{1}, index.select(CardQuery.parse("cost>=3.0 and rarity!=rare")));
+        assertArrayEquals(new int[]{0, 2}, index.select(CardQuery.parse("tags=melee")));
+        assertArrayEquals(new int[]{1, 3}, index.select(CardQuery.parse("name~\"s\" name!=sword")));
+        assertArrayEquals(new int[0], index.select(CardQuery.parse("unknown=1")));
+    }
+
+    @Test
+    void sortsNumericallyWithBlanksLast() {
+        assertArrayEquals(new int[]{2, 0, 1, 3}, index.select(CardQuery.parse("sort:cost")));
+        assertArrayEquals(new int[]{1, 0, 2, 3}, index.select(CardQuery.parse("sort:-cost")));
+        assertArrayEquals(new int[]{2, 0, 1}, index.select(CardQuery.parse("sort:-rarity,name cost>0")));
+    }
+
+    @Test
+    void selectsFromLargeDecksQuickly() {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            cards.add(card(Integer.toString(i), "Card " + i, i % 10 == 0 ? "rare" : "common",
+                    Integer.toString(i % 7), List.of()));
+        }
+        CardIndex large = new CardIndex(cards);
+
+        int[] result = large.select(CardQuery.parse("rarity=rare cost<=3 sort:-cost"));
+
+        assertEquals(10_000 * 4 / 7, result.length, 2);
+        assertEquals("3", cards.get(result[0]).getPropertyAsString("cost"));
+    }
+
+    @Test
+    void sortsByEveryKeyKeepingDeckOrderForTies() {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            cards.add(card(Integer.toString(i), "Card " + (i % 13), i % 3 == 0 ? "rare" : "common",
+                    Integer.toString(i % 5), List.of()));
+        }
+
+        int[] result = new CardIndex(cards).select(CardQuery.parse("sort:-rarity,cost"));
+
+        int[] expected = IntStream.range(0, cards.size()).boxed()
+                .sorted(Comparator.<Integer, String>comparing(i -> cards.get(i).getPropertyAsString("rarity"))
+                        .reversed()
+                        .thenComparing(i -> cards.get(i).getPropertyAsString("cost")))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        assertArrayEquals(expected, result);
+    }
+
+    @Test
+    void rejectsMalformedQueries() {
+        assertThrows(IllegalArgumentException.class, () -> CardQuery.parse("rarity"));
+        assertThrows(IllegalArgumentException.class, () -> CardQuery.parse("name=\"open"));
+        assertEquals("rarity=rare sort:-cost,name", CardQuery.parse("rarity=rare  sort:-cost,name").toString());
+    }
+
+    private static Card card(String id, String name, String rarity, String cost, List<String> tags) {
+        return new Card(Map.of("id", id, "name", name, "rarity", rarity, "cost", cost, "tags", tags));
+    }
+}
@@ -0,0 +1,69 @@
+package com.spinyowl.cards.service;
+
+import com.spinyowl.cards.model.Card;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CardSourceLoaderTest {
+
+    @TempDir
+    Path projectDir;
+
+    @Test
+    void mergesGlobMatchesInPathOrderAndSkipsDuplicateIds() throws IOException {
+        Files.createDirectories(projectDir.resolve("sets"));
+        Files.writeString(projectDir.resolve("sets/b.csv"), "id,name\n3,Bow\n1,Other Sword\n");
+        Files.writeString(projectDir.resolve("sets/a.csv"), "id,name\n1,Sword\n2,Shield\n");
+
+        CardSourceLoader loader = new CardSourceLoader();
+        loader.configure(projectDir, "sets/*.csv");
+        List<Card> cards = loader.loadAll();
+
+        assertEquals(List.of("1", "2", "3"), cards.stream().map(Card::getId).toList());
+        assertEquals("Sword", cards.getFirst().getPropertyAsString("name"));
+        assertEquals(List.of("1"), List.copyOf(loader.getDuplicateIds().keySet()));
+        assertTrue(loader.isSource(projectDir.resolve("sets/c.csv")));
+        assertFalse(loader.isSource(projectDir.resolve("cards.csv")));
+    }
+
+    @Test
+    void skipsMalformedGlobEntries() throws IOException {
+        Files.createDirectories(projectDir.resolve("sets"));
+        Files.writeString(projectDir.resolve("sets/a.csv"), "id,name\n1,Sword\n");
+
+        CardSourceLoader loader = new CardSourceLoader();
+        loader.configure(projectDir, List.of("sets/[.csv", "sets/*.csv"));
+        List<Card> cards = loader.loadAll();
+
+        assertEquals(List.of("1"), cards.stream().map(Card::getId).toList());
+        assertEquals(List.of(projectDir.resolve("sets/a.csv").toAbsolutePath().normalize()), loader.getSources());
+    }
+
+    @Test
+    void reloadsOnlyChangedShardAndPicksUpNewFiles() throws IOException {
+        Files.writeString(projectDir.resolve("base.csv"), "id,name\n1,Sword\n");
+        Files.createDirectories(projectDir.resolve("extra"));
+        Files.writeString(projectDir.resolve("extra/x.csv"), "id,name\n2,Shield\n");
+
+        CardSourceLoader loader = new CardSourceLoader();
+        loader.configure(projectDir, List.of("base.csv", "extra/*.csv"));
+        loader.loadAll();
+
+        Files.writeString(projectDir.resolve("base.csv"), "id,name\n1,Longsword\n");
+        Files.writeString(projectDir.resolve("extra/x.csv"), "id,name\n2,Tower Shield\n");
+        Files.writeString(projectDir.resolve("extra/y.csv"), "id,name\n3,Bow\n");
+        List<Card> cards = loader.reload(List.of(projectDir.resolve("base.csv")));
+
+        assertEquals(List.of("Longsword", "Shield", "Bow"),
+                cards.stream().map(card -> card.getPropertyAsString("name")).toList());
+    }
+}
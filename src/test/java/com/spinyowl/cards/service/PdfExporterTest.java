@@ -0,0 +1,186 @@
+package com.spinyowl.cards.service;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class PdfExporterTest {
+
+    @TempDir
+    Path projectDir;
+
+    @Test
+    void writesOneCardSizedPagePerCardInOrder() throws Exception {
+        Files.writeString(projectDir.resolve("project.yml"),
+                "name: Test\ndefault_template: default.html\ncard:\n  width: 2.5in\n  height: 3.5in\n");
+        Files.writeString(projectDir.resolve("cards.csv"), "id,name\n1,Sword\n2,Shield\n3,Bow\n4,Axe\n5,Staff\n");
+        Files.createDirectories(projectDir.resolve("templates"));
+        Files.writeString(projectDir.resolve("templates/default.html"), "<html><body><p>{{ name }}</p></body></html>");
+        ProjectManager manager = new ProjectManager();
+        manager.openProject(projectDir);
+        CardRenderer renderer = CardRenderer.create(manager);
+        AtomicInteger progress = new AtomicInteger();
+
+        Path target = projectDir.resolve("export/deck.pdf");
+        PdfExporter.Result result = new PdfExporter(manager, renderer, 3)
+                .export(new int[]{4, 0, 1, 2, 3}, "en", target, (completed, total) -> progress.incrementAndGet());
+
+        assertEquals(5, result.pageCount());
+        assertEquals(5, progress.get());
+        assertFalse(result.upToDate());
+        try (PDDocument document = Loader.loadPDF(target.toFile())) {
+            assertEquals(5, document.getNumberOfPages());
+            PDRectangle size = document.getPage(0).getMediaBox();
+            assertEquals(2.5f * 72, size.getWidth(), 1f);
+            assertEquals(3.5f * 72, size.getHeight(), 1f);
+        }
+    }
+
+    @Test
+    void keepsAnUnchangedPdfAndRebuildsAChangedOne() throws Exception {
+        Files.writeString(projectDir.resolve("project.yml"),
+                "name: Test\ndefault_template: default.html\ncard:\n  width: 2.5in\n  height: 3.5in\n");
+        Files.writeString(projectDir.resolve("cards.csv"), "id,name\n1,Sword\n2,Shield\n");
+        Files.createDirectories(projectDir.resolve("templates"));
+        Files.writeString(projectDir.resolve("templates/default.html"), "<html><body><p>{{ name }}</p></body></html>");
+        ProjectManager manager = new ProjectManager();
+        manager.openProject(projectDir);
+        Path target = projectDir.resolve("export/deck.pdf");
+        new PdfExporter(manager, CardRenderer.create(manager), 1).export(new int[]{0, 1}, "en", target, ExportProgress.NONE);
+
+        PdfExporter.Result unchanged = new PdfExporter(manager, CardRenderer.create(manager), 1)
+                .export(new int[]{0, 1}, "en", target, ExportProgress.NONE);
+        Files.writeString(projectDir.resolve("templates/default.html"), "<html><body><h1>{{ name }}</h1></body></html>");
+        PdfExporter.Result changed = new PdfExporter(manager, CardRenderer.create(manager), 1)
+                .export(new int[]{0, 1}, "en", target, ExportProgress.NONE);
+
+        assertTrue(unchanged.upToDate());
+        assertEquals(2, unchanged.pageCount());
+        assertFalse(changed.upToDate());
+    }
+
+    @Test
+    void reportsOnlyTheTranslationsItsOwnCardsLookedUp() throws Exception {
+        Files.writeString(projectDir.resolve("project.yml"), "name: Test\ndefault_template: default.html\n");
+        Files.writeString(projectDir.resolve("cards.csv"), "id,name\n1,Sword\n2,Shield\n");
+        Files.createDirectories(projectDir.resolve("templates"));
+        Files.writeString(projectDir.resolve("templates/default.html"),
+                "<html><body><p>{{ name }} {{ t('label.' + name) }}</p></body></html>");
+        Files.createDirectories(projectDir.resolve("i18n"));
+        Files.writeString(projectDir.resolve("i18n/en.yml"), "label:\n  Other: Other\n");
+        ProjectManager manager = new ProjectManager();
+        manager.openProject(projectDir);
+        CardRenderer renderer = CardRenderer.create(manager);
+        renderer.renderCard(1, "en");
+
+        PdfExporter.Result result = new PdfExporter(manager, renderer, 1)
+                .export(new int[]{0}, "en", projectDir.resolve("export/deck.pdf"), ExportProgress.NONE);
+
+        assertEquals(Map.of("en", Map.of("label.Sword", 1L)), result.translations().translations().missing());
+        assertEquals(Set.of("label.Sword", "label.Shield"),
+                TranslationReport.of(manager).translations().missing().get("en").keySet());
+    }
+
+    @Test
+    void embedsEachFontOnceForAllPages() throws Exception {
+        Path font = Path.of("/usr/share/fonts/truetype/dejavu/DejaVuSerif.ttf");
+        assumeTrue(Files.isRegularFile(font), "DejaVu Serif is not installed");
+        Files.writeString(projectDir.resolve("project.yml"),
+                "name: Test\ndefault_template: default.html\ncard:\n  width: 2.5in\n  height: 3.5in\n");
+        Files.writeString(projectDir.resolve("cards.csv"), "id,name\n1,Sword\n2,Shield\n3,Bow\n4,Axe\n");
+        Files.createDirectories(projectDir.resolve("templates"));
+        Files.writeString(projectDir.resolve("templates/default.html"),
+                "<html><body style=\"font-family: 'DejaVu Serif'\"><p>{{ name }}</p></body></html>");
+        Files.createDirectories(projectDir.resolve("fonts"));
+        Files.copy(font, projectDir.resolve("fonts/DejaVuSerif.ttf"));
+        ProjectManager manager = new ProjectManager();
+        manager.openProject(projectDir);
+
+        Path target = projectDir.resolve("export/deck.pdf");
+        new PdfExporter(manager, CardRenderer.create(manager), 4).export(new int[]{0, 1, 2, 3}, "en", target,
+                ExportProgress.NONE);
+
+        Set<COSBase> fonts = new HashSet<>();
+        try (PDDocument document = Loader.loadPDF(target.toFile())) {
+            for (PDPage page : document.getPages()) {
+                PDResources resources = page.getResources();
+                for (COSName name : resources.getFontNames()) {
+                    fonts.add(resources.getCOSObject().getCOSDictionary(COSName.FONT).getDictionaryObject(name));
+                }
+            }
+        }
+        assertEquals(1, fonts.size());
+    }
+
+    @Test
+    void laysOutLargeExportsOnSeveralWorkersInCardOrder() throws Exception {
+        Path font = Path.of("/usr/share/fonts/truetype/dejavu/DejaVuSerif.ttf");
+        assumeTrue(Files.isRegularFile(font), "DejaVu Serif is not installed");
+        Files.writeString(projectDir.resolve("project.yml"),
+                "name: Test\ndefault_template: default.html\ncard:\n  width: 2.5in\n  height: 3.5in\n");
+        StringBuilder csv = new StringBuilder("id,name\n");
+        for (int i = 0; i < 40; i++) {
+            csv.append(i).append(",Card").append(i).append('\n');
+        }
+        Files.writeString(projectDir.resolve("cards.csv"), csv);
+        Files.createDirectories(projectDir.resolve("templates"));
+        Files.writeString(projectDir.resolve("templates/default.html"),
+                "<html><body style=\"font-family: 'DejaVu Serif'\"><p>{{ name }}</p></body></html>");
+        Files.createDirectories(projectDir.resolve("fonts"));
+        Files.copy(font, projectDir.resolve("fonts/DejaVuSerif.ttf"));
+        ProjectManager manager = new ProjectManager();
+        manager.openProject(projectDir);
+        AtomicInteger progress = new AtomicInteger();
+
+        Path target = projectDir.resolve("export/deck.pdf");
+        PdfExporter.Result result = new PdfExporter(manager, CardRenderer.create(manager), 3)
+                .export(IntStream.range(0, 40).map(i -> 39 - i).toArray(), "en", target,
+                        (completed, total) -> progress.incrementAndGet());
+
+        assertEquals(40, result.pageCount());
+        assertEquals(40, progress.get());
+        Set<COSBase> fonts = new HashSet<>();
+        try (PDDocument document = Loader.loadPDF(target.toFile())) {
+            PDFTextStripper text = new PDFTextStripper();
+            for (int page : new int[]{1, 14, 27, 40}) {
+                text.setStartPage(page);
+                text.setEndPage(page);
+                assertEquals("Card" + (40 - page), text.getText(document).trim());
+            }
+            for (PDPage page : document.getPages()) {
+                PDResources resources = page.getResources();
+                for (COSName name : resources.getFontNames()) {
+                    fonts.add(resources.getCOSObject().getCOSDictionary(COSName.FONT).getDictionaryObject(name));
+                }
+            }
+        }
+        assertEquals(3, fonts.size());
+    }
+
+    @Test
+    void pageStyleUsesNormalizedCardSize() {
+        assertEquals("@page { size: 63mm 88mm; margin: 0; }",
+                CardPageLayout.pageStyle(Map.of("card", Map.of("width", "63mm", "height", "88mm"))));
+    }
+}
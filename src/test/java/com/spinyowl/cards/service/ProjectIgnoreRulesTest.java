@@ -0,0 +1,53 @@
+package com.spinyowl.cards.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProjectIgnoreRulesTest {
+
+    @TempDir
+    Path projectDir;
+
+    @Test
+    void ignoresDefaultMetadataAndEverythingBelowIt() {
+        ProjectIgnoreRules rules = ProjectIgnoreRules.load(projectDir, List.of());
+
+        assertTrue(rules.isIgnored(projectDir.resolve(".git/objects/ab/cdef")));
+        assertTrue(rules.isIgnored(projectDir.resolve("templates/.default.html.swp")));
+        assertTrue(rules.isIgnored(projectDir.resolve("images/.DS_Store")));
+        assertFalse(rules.isIgnored(projectDir.resolve("templates/default.html")));
+        assertFalse(rules.isIgnored(projectDir));
+    }
+
+    @Test
+    void readsPatternsFromIgnoreFileAndConfiguration() throws IOException {
+        Files.writeString(projectDir.resolve(ProjectIgnoreRules.IGNORE_FILE), "# exports\nexport/\n*.bak\n");
+
+        ProjectIgnoreRules rules = ProjectIgnoreRules.load(projectDir, List.of("assets/raw/**"));
+
+        assertTrue(rules.isIgnored(projectDir.resolve("export/cards/1.png")));
+        assertTrue(rules.isIgnored(projectDir.resolve("i18n/en.yml.bak")));
+        assertTrue(rules.isIgnored(projectDir.resolve("assets/raw/source.psd")));
+        assertFalse(rules.isIgnored(projectDir.resolve("assets/sword.png")));
+        assertFalse(rules.isIgnored(projectDir.resolve("exports.csv")));
+    }
+
+    @Test
+    void rulesWithTheSameEffectivePatternsAreEqual() {
+        ProjectIgnoreRules rules = ProjectIgnoreRules.of(projectDir, List.of("build/", "# comment", "*.bak"));
+
+        assertEquals(rules, ProjectIgnoreRules.of(projectDir, List.of("build", "*.bak")));
+        assertNotEquals(rules, ProjectIgnoreRules.of(projectDir, List.of("*.bak")));
+        assertNotEquals(rules, ProjectIgnoreRules.of(projectDir, List.of("/build", "*.bak")));
+    }
+}
@@ -0,0 +1,117 @@
+package com.spinyowl.cards.service;
+
+import com.spinyowl.cards.model.CardDiff;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProjectManagerTest {
+
+    @TempDir
+    Path projectDir;
+
+    @Test
+    void projectPropertiesAreBuiltOncePerConfigurationLoad() throws IOException {
+        Files.writeString(projectDir.resolve("project.yml"), "name: Test\ncard:\n  width: 63 mm\n");
+        Files.writeString(projectDir.resolve("cards.csv"), "id,name\n1,Sword\n");
+        ProjectManager manager = new ProjectManager();
+        manager.openProject(projectDir);
+
+        Map<String, Object> properties = manager.getProjectProperties();
+        long version = manager.getConfigVersion();
+
+        assertSame(properties, manager.getProjectProperties());
+        assertEquals("63mm", ((Map<?, ?>) properties.get("card")).get("width"));
+
+        Files.writeString(projectDir.resolve("project.yml"), "name: Renamed\n");
+        manager.reloadProject();
+
+        assertNotEquals(version, manager.getConfigVersion());
+        assertEquals("Renamed", manager.getProjectProperties().get("name"));
+    }
+
+    @Test
+    void reportsOpenPhasesInOrder() throws IOException {
+        Files.writeString(projectDir.resolve("project.yml"), "name: Test\n");
+        Files.writeString(projectDir.resolve("cards.csv"), "id,name\n1,Sword\n");
+        List<String> events = new ArrayList<>();
+
+        new ProjectManager().openProject(projectDir, new ProjectManager.OpenProgress() {
+            @Override
+            public void phaseStarted(ProjectManager.OpenPhase phase) {
+                events.add("start " + phase);
+            }
+
+            @Override
+            public void phaseCompleted(ProjectManager.OpenPhase phase) {
+                events.add("done " + phase);
+            }
+        });
+
+        assertEquals(List.of("start CONFIGURATION", "done CONFIGURATION", "start CARDS", "done CARDS",
+                "start TRANSLATIONS", "done TRANSLATIONS"), events);
+    }
+
+    @Test
+    void treatsSourcesAndReferencedFilesAsAffectingRenderingButNotUnrelatedFiles() throws IOException {
+        Files.writeString(projectDir.resolve("project.yml"), "name: Test\n");
+        Files.writeString(projectDir.resolve("cards.csv"), "id,name\n1,Sword\n");
+        ProjectManager manager = new ProjectManager();
+        manager.openProject(projectDir);
+        manager.addReferencedFiles(List.of(projectDir.resolve("images/../images/frame.png")));
+
+        assertTrue(manager.affectsRendering(projectDir.resolve("cards.csv")));
+        assertTrue(manager.affectsRendering(projectDir.resolve("project.yml")));
+        assertTrue(manager.affectsRendering(projectDir.resolve("templates/style.css")));
+        assertTrue(manager.affectsRendering(projectDir.resolve("images/frame.png")));
+        assertTrue(manager.affectsRendering(projectDir.resolve("fonts/Title.ttf")));
+        assertFalse(manager.affectsRendering(projectDir.resolve("images/unused.png")));
+        assertFalse(manager.affectsRendering(projectDir.resolve("README.md")));
+        assertFalse(manager.affectsRendering(projectDir.resolve("notes/prices.csv")));
+        assertTrue(manager.isIgnored(manager.getExportDirectory().resolve("deck.pdf")));
+        assertFalse(manager.isIgnored(projectDir.resolve("images/export/frame.png")));
+    }
+
+    @Test
+    void reportsCardOnlyReloadsAsDiffsAndKeepsNotifyingAfterAFailingListener() throws IOException {
+        Files.writeString(projectDir.resolve("project.yml"), "name: Test\n");
+        Files.writeString(projectDir.resolve("cards.csv"), "id,name\n1,Sword\n2,Shield\n");
+        ProjectManager manager = new ProjectManager();
+        manager.openProject(projectDir);
+        List<String> events = new ArrayList<>();
+        manager.addReloadListener(m -> {
+            throw new IllegalStateException("listener failed");
+        });
+        manager.addReloadListener(new ProjectManager.ReloadListener() {
+            @Override
+            public void onProjectReload(ProjectManager m) {
+                events.add("reload");
+            }
+
+            @Override
+            public void onCardsChanged(ProjectManager m, CardDiff diff) {
+                events.add("cards " + diff.getModified().getFirst().getId());
+            }
+        });
+
+        Files.writeString(projectDir.resolve("cards.csv"), "id,name\n1,Sword\n2,Buckler\n");
+        manager.reloadChanged(List.of(projectDir.resolve("cards.csv")));
+        assertTrue(manager.isCardsOnlyReload());
+        manager.reloadProject();
+        assertFalse(manager.isCardsOnlyReload());
+
+        assertEquals(List.of("cards 2", "reload"), events);
+    }
+}
@@ -0,0 +1,134 @@
+package com.spinyowl.cards.service;
+
+import com.spinyowl.cards.model.Card;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RasterExporterTest {
+
+    @TempDir
+    Path projectDir;
+
+    private ProjectManager manager;
+    private CardRenderer renderer;
+
+    @BeforeEach
+    void openProject() throws IOException {
+        Files.writeString(projectDir.resolve("project.yml"),
+                "name: Test\ndefault_template: default.html\ncard:\n  width: 1in\n  height: 1.5in\n");
+        Files.writeString(projectDir.resolve("cards.csv"), "id,name\nsword,Sword\nshield,Shield\nbow,Bow\n");
+        Files.createDirectories(projectDir.resolve("templates"));
+        Files.writeString(projectDir.resolve("templates/default.html"), "<html><body><p>{{ name }}</p></body></html>");
+        manager = new ProjectManager();
+        manager.openProject(projectDir);
+        renderer = CardRenderer.create(manager);
+    }
+
+    @Test
+    void rendersCardsAtTheRequestedResolution() throws Exception {
+        Path out = projectDir.resolve("export/png");
+        RasterExporter.Result result = new RasterExporter(manager, renderer, 2)
+                .export(new int[]{0, 1, 2}, "en", out, RasterExporter.Options.cardsOnly(300), ExportProgress.NONE);
+
+        assertEquals(List.of(out.resolve("sword.png"), out.resolve("shield.png"), out.resolve("bow.png")), result.cards());
+        assertEquals(3, result.rendered());
+        BufferedImage image = ImageIO.read(out.resolve("sword.png").toFile());
+        assertEquals(300, image.getWidth());
+        assertEquals(450, image.getHeight());
+    }
+
+    @Test
+    void reusesUnchangedImagesAndRebuildsChangedOnes() throws Exception {
+        Path out = projectDir.resolve("export/png");
+        RasterExporter exporter = new RasterExporter(manager, renderer, 2);
+        exporter.export(new int[]{0, 1, 2}, "en", out, RasterExporter.Options.withTabletopSheets(100), ExportProgress.NONE);
+
+        Files.writeString(projectDir.resolve("cards.csv"), "id,name\nsword,Sword\nshield,Tower Shield\nbow,Bow\n");
+        manager.reloadProject();
+        RasterExporter.Result result = exporter.export(new int[]{0, 1, 2}, "en", out,
+                RasterExporter.Options.withTabletopSheets(100), ExportProgress.NONE);
+
+        assertEquals(1, result.rendered());
+        assertEquals(2, result.reused());
+        assertEquals(List.of(out.resolve("sheets/sheet-01.png")), result.sheets());
+        BufferedImage sheet = ImageIO.read(result.sheets().get(0).toFile());
+        assertEquals(1000, sheet.getWidth());
+        assertEquals(1050, sheet.getHeight());
+    }
+
+    @Test
+    void manifestSkipsUnchangedCardsAcrossRestartsAndTracksTranslations() throws Exception {
+        Files.writeString(projectDir.resolve("templates/default.html"),
+                "<html><body><p>{{ name }} {{ t('label.power') }}</p></body></html>");
+        Files.createDirectories(projectDir.resolve("i18n"));
+        Files.writeString(projectDir.resolve("i18n/en.yml"), "label:\n  power: Power\n  unused: Unused\n");
+        manager.reloadProject();
+        Path out = projectDir.resolve("export/png");
+        new RasterExporter(manager, renderer, 2)
+                .export(new int[]{0, 1, 2}, "en", out, RasterExporter.Options.cardsOnly(100), ExportProgress.NONE);
+        Files.delete(out.resolve("bow.png"));
+
+        RasterExporter.Result restarted = new RasterExporter(manager, CardRenderer.create(manager), 2)
+                .export(new int[]{0, 1, 2}, "en", out, RasterExporter.Options.cardsOnly(100), ExportProgress.NONE);
+        assertEquals(1, restarted.rendered());
+        assertEquals(2, restarted.reused());
+
+        Files.writeString(projectDir.resolve("i18n/en.yml"), "label:\n  power: Power\n  unused: Changed\n");
+        manager.reloadProject();
+        RasterExporter.Result unusedKeyChanged = new RasterExporter(manager, renderer, 2)
+                .export(new int[]{0, 1, 2}, "en", out, RasterExporter.Options.cardsOnly(100), ExportProgress.NONE);
+        assertEquals(0, unusedKeyChanged.rendered());
+
+        Files.writeString(projectDir.resolve("i18n/en.yml"), "label:\n  power: Strength\n  unused: Changed\n");
+        manager.reloadProject();
+        RasterExporter.Result usedKeyChanged = new RasterExporter(manager, renderer, 2)
+                .export(new int[]{0, 1, 2}, "en", out, RasterExporter.Options.cardsOnly(100), ExportProgress.NONE);
+        assertEquals(3, usedKeyChanged.rendered());
+    }
+
+    @Test
+    void removesImagesOfCardsNoLongerExported() throws Exception {
+        Path out = projectDir.resolve("export/png");
+        Files.createDirectories(out);
+        Files.writeString(out.resolve("notes.txt"), "kept");
+        RasterExporter exporter = new RasterExporter(manager, renderer, 2);
+        exporter.export(new int[]{0, 1, 2}, "en", out, RasterExporter.Options.withTabletopSheets(72), ExportProgress.NONE);
+
+        Files.writeString(projectDir.resolve("cards.csv"), "id,name\nsword,Sword\nbow,Bow\n");
+        manager.reloadProject();
+        RasterExporter.Result result = exporter.export(new int[]{0, 1}, "en", out,
+                RasterExporter.Options.cardsOnly(72), ExportProgress.NONE);
+
+        assertEquals(2, result.removed());
+        assertFalse(Files.exists(out.resolve("shield.png")));
+        assertFalse(Files.exists(out.resolve("sheets/sheet-01.png")));
+        assertTrue(Files.exists(out.resolve("notes.txt")));
+        assertEquals(0, result.rendered());
+    }
+
+    @Test
+    void fileNamesAreSafeAndUnique() {
+        List<Card> cards = List.of(card("a/b"), card("A/B"), card(".x"), card("x"));
+
+        assertArrayEquals(new String[]{"a_b.png", "A_B-2.png", "card.x.png", "x.png"},
+                RasterExporter.fileNames(cards, new int[]{0, 1, 2, 3}));
+    }
+
+    private static Card card(String id) {
+        return new Card(Map.of("id", id));
+    }
+}
@@ -0,0 +1,127 @@
+package com.spinyowl.cards.service;
+
+import com.spinyowl.cards.model.RenderDiagnostic;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RenderValidatorTest {
+
+    @TempDir
+    Path projectDir;
+
+    private ProjectManager manager;
+    private CardRenderer renderer;
+    private RenderValidator validator;
+
+    @BeforeEach
+    void openProject() throws IOException {
+        Files.writeString(projectDir.resolve("project.yml"), "name: Test\ndefault_template: default.html\n");
+        Files.writeString(projectDir.resolve("cards.csv"),
+                "id,name,template\nsword,Sword,\nbomb,Bomb,broken.html\nbow,Bow,\n");
+        Files.createDirectories(projectDir.resolve("templates"));
+        Files.writeString(projectDir.resolve("templates/default.html"),
+                "<p>{{ name }}</p>\n<p>{{ t('label.power') }}</p>\n<p>{{ card_t('name') }}</p>\n");
+        Files.writeString(projectDir.resolve("templates/broken.html"), "<p>\n{{ name | nosuchfilter }}</p>\n");
+        Files.createDirectories(projectDir.resolve("i18n/cards"));
+        Files.writeString(projectDir.resolve("i18n/en.yml"), "label:\n  other: Other\n");
+        Files.writeString(projectDir.resolve("i18n/cards/en.yml"), "sword:\n  name: Blade\nbow:\n  name: Longbow\n");
+        manager = new ProjectManager();
+        manager.openProject(projectDir);
+        renderer = CardRenderer.create(manager);
+        validator = new RenderValidator(manager, renderer, 2);
+    }
+
+    @AfterEach
+    void closeValidator() {
+        validator.close();
+    }
+
+    @Test
+    void reportsFailuresWithTemplateAndLine() {
+        CardRenderer.Checked checked = renderer.renderChecked(1, "en");
+
+        assertTrue(checked.failed());
+        assertNull(checked.html());
+        RenderDiagnostic failure = checked.diagnostics().get(0);
+        assertEquals(RenderDiagnostic.Kind.RENDER_FAILED, failure.kind());
+        assertEquals("bomb", failure.cardId());
+        assertTrue(failure.location().startsWith("broken.html"), failure.location());
+        assertEquals(2, failure.line());
+    }
+
+    @Test
+    void reportsMissingTranslationsOfCardsThatRender() {
+        CardRenderer.Checked checked = renderer.renderChecked(0, "en");
+
+        assertFalse(checked.failed());
+        assertTrue(checked.html().contains("Blade"));
+        assertEquals(List.of(new RenderDiagnostic(RenderDiagnostic.Kind.MISSING_TRANSLATION, "sword", "en",
+                "default.html", 2, "label.power", "No translation 'label.power'")), checked.diagnostics());
+    }
+
+    @Test
+    void translatesInTheRenderedLanguage() throws IOException {
+        Files.writeString(projectDir.resolve("i18n/de.yml"), "label:\n  power: Kraft\n");
+        Files.writeString(projectDir.resolve("i18n/cards/de.yml"), "sword:\n  name: Klinge\n");
+        manager.reloadProject();
+
+        CardRenderer.Checked checked = renderer.renderChecked(0, "de");
+
+        assertTrue(checked.html().contains("Kraft"), checked.html());
+        assertTrue(checked.html().contains("Klinge"), checked.html());
+        assertEquals(List.of(), checked.diagnostics());
+    }
+
+    @Test
+    void reportsUnknownTemplatesAndMissingFiles() throws IOException {
+        Files.writeString(projectDir.resolve("cards.csv"),
+                "id,name,template\nsword,Sword,nosuch.html\nbow,Bow,image.html\n");
+        Files.writeString(projectDir.resolve("templates/image.html"), "<img src=\"images/bow.png\">\n");
+        manager.reloadProject();
+
+        CardRenderer.Checked unknown = renderer.renderChecked(0, "en");
+        CardRenderer.Checked image = renderer.renderChecked(1, "en");
+
+        assertEquals(RenderDiagnostic.Kind.UNKNOWN_TEMPLATE, unknown.diagnostics().get(0).kind());
+        assertEquals(RenderDiagnostic.Kind.BROKEN_ASSET, image.diagnostics().get(0).kind());
+        assertEquals(List.of("images/bow.png"), image.assets());
+    }
+
+    @Test
+    void checksEveryCardInEveryLanguage() throws Exception {
+        RenderValidator.Report report = validator.validate(List.of("en", "de")).get(30, TimeUnit.SECONDS);
+
+        assertEquals(3, report.cardCount());
+        assertEquals(6, report.rendered());
+        assertEquals(List.of("bomb"), report.cardsWithErrors());
+        assertTrue(report.diagnostics().get(0).isError());
+        assertEquals(RenderDiagnostic.Kind.RENDER_FAILED, report.diagnostics().get(1).kind());
+        assertTrue(report.warningCount() > 0);
+    }
+
+    @Test
+    void rendersOnlyCardsWhoseInputsChanged() throws Exception {
+        validator.validate(List.of("en")).get(30, TimeUnit.SECONDS);
+        Files.writeString(projectDir.resolve("i18n/cards/en.yml"), "sword:\n  name: Sabre\nbow:\n  name: Longbow\n");
+        manager.reloadProject();
+
+        RenderValidator.Report report = validator.validate(List.of("en")).get(30, TimeUnit.SECONDS);
+
+        assertEquals(1, report.rendered());
+        assertEquals(2, report.reused());
+        assertEquals(List.of("bomb"), report.cardsWithErrors());
+    }
+}
@@ -0,0 +1,37 @@
+package com.spinyowl.cards.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThumbnailServiceTest {
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    void trimsTheLeastRecentlyUsedImagesOnceOverTheLimit() throws IOException {
+        for (int i = 0; i < 4; i++) {
+            Path file = Files.write(cacheDir.resolve(i + ".png"), new byte[100]);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(1_000_000L * (i + 1)));
+        }
+        Files.write(cacheDir.resolve("3.png1234.tmp"), new byte[100]);
+
+        assertEquals(400, ThumbnailService.trimDirectory(cacheDir, 400));
+        assertTrue(Files.exists(cacheDir.resolve("0.png")));
+
+        assertEquals(200, ThumbnailService.trimDirectory(cacheDir, 399));
+        assertFalse(Files.exists(cacheDir.resolve("0.png")));
+        assertFalse(Files.exists(cacheDir.resolve("1.png")));
+        assertTrue(Files.exists(cacheDir.resolve("2.png")));
+        assertTrue(Files.exists(cacheDir.resolve("3.png1234.tmp")));
+    }
+}
@@ -0,0 +1,39 @@
+package com.spinyowl.cards.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class ContentHashTest {
+
+    @Test
+    void valuesAreFramed() {
+        assertNotEquals(new ContentHash().add("ab").add("c").hex(), new ContentHash().add("a").add("bc").hex());
+        assertNotEquals(new ContentHash().add((String) null).hex(), new ContentHash().add("").hex());
+    }
+
+    @Test
+    void isStable() {
+        assertEquals(new ContentHash().add("card").add(300.0).hex(), new ContentHash().add("card").add(300.0).hex());
+        assertEquals(64, ContentHash.of("card").length());
+    }
+
+    @Test
+    void valuesHashByContentNotOrder() {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("a", 1);
+        first.put("b", List.of("x", "y"));
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("b", List.of("x", "y"));
+        second.put("a", 1);
+
+        assertEquals(new ContentHash().addValue(first).hex(), new ContentHash().addValue(second).hex());
+        assertNotEquals(new ContentHash().addValue(1).hex(), new ContentHash().addValue("1").hex());
+        assertNotEquals(new ContentHash().addValue(List.of("x", "y")).hex(), new ContentHash().addValue(List.of("y", "x")).hex());
+    }
+}
@@ -0,0 +1,70 @@
+package com.spinyowl.cards.util;
+
+import com.spinyowl.cards.model.Card;
+import com.spinyowl.cards.model.ColumnError;
+import com.spinyowl.cards.model.ColumnSchema;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CsvLoaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void convertsTypedColumnsOnceAtLoad() throws IOException {
+        Path csv = dir.resolve("cards.csv");
+        Files.writeString(csv, "id,cost,weight,unique,tags,name\n1,3,1.5,yes,fire| melee,Sword\n2,,,no,,Shield\n");
+        ColumnSchema schema = ColumnSchema.fromConfig(Map.of(
+                "cost", "int",
+                "weight", "decimal",
+                "unique", "bool",
+                "tags", Map.of("type", "list", "separator", "|")));
+
+        List<ColumnError> errors = new ArrayList<>();
+        List<Card> cards = CsvLoader.loadCards(csv, schema, errors);
+
+        Card sword = cards.getFirst();
+        assertEquals(3L, sword.getProperty("cost"));
+        assertEquals(new BigDecimal("1.5"), sword.getProperty("weight"));
+        assertEquals(Boolean.TRUE, sword.getProperty("unique"));
+        assertEquals(List.of("fire", "melee"), sword.getProperty("tags"));
+        assertEquals("Sword", sword.getProperty("name"));
+
+        Card shield = cards.get(1);
+        assertNull(shield.getProperty("cost"));
+        assertEquals(List.of(), shield.getProperty("tags"));
+        assertEquals(List.of(), errors);
+    }
+
+    @Test
+    void reportsCellsThatDoNotMatchTheirType() throws IOException {
+        Path csv = dir.resolve("cards.csv");
+        Files.writeString(csv, "id,cost,tags\n1,3,1;2\n2,three,1;x\n");
+        ColumnSchema schema = ColumnSchema.fromConfig(Map.of(
+                "cost", "int",
+                "tags", Map.of("type", "list", "of", "int")));
+
+        List<ColumnError> errors = new ArrayList<>();
+        List<Card> cards = CsvLoader.loadCards(csv, schema, errors);
+
+        assertEquals(List.of(1L, 2L), cards.getFirst().getProperty("tags"));
+        assertNull(cards.get(1).getProperty("cost"));
+        assertEquals(2, errors.size());
+        assertEquals("cost", errors.getFirst().column());
+        assertEquals(2, errors.getFirst().row());
+        assertEquals("2", errors.getFirst().cardId());
+        assertEquals("tags", errors.get(1).column());
+    }
+}
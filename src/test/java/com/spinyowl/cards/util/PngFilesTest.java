@@ -0,0 +1,38 @@
+package com.spinyowl.cards.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PngFilesTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackTextEntries() throws Exception {
+        Path file = dir.resolve("card.png");
+        PngFiles.write(new BufferedImage(4, 3, BufferedImage.TYPE_INT_ARGB), file, 300, Map.of("hash", "abc123"));
+
+        assertEquals("abc123", PngFiles.readText(file, "hash"));
+        assertNull(PngFiles.readText(file, "other"));
+        assertEquals(4, ImageIO.read(file.toFile()).getWidth());
+    }
+
+    @Test
+    void missingOrForeignFilesHaveNoText() throws Exception {
+        Path foreign = dir.resolve("foreign.png");
+        Files.writeString(foreign, "not a png");
+
+        assertNull(PngFiles.readText(dir.resolve("missing.png"), "hash"));
+        assertNull(PngFiles.readText(foreign, "hash"));
+    }
+}
@@ -0,0 +1,50 @@
+package com.spinyowl.cards.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PooledStreamWriterTest {
+
+    @Test
+    void encodesMultiByteTextAcrossBufferBoundaries() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            text.append("ä€🂡x");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (PooledStreamWriter writer = PooledStreamWriter.open(out)) {
+            writer.write(text.toString());
+            writer.write('!');
+        }
+
+        assertEquals(text + "!", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void reusesBuffersAfterCloseAndIsolatesNestedWriters() throws IOException {
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+
+        PooledStreamWriter outer = PooledStreamWriter.open(first);
+        outer.write("outer ");
+        try (PooledStreamWriter inner = PooledStreamWriter.open(second)) {
+            inner.write("inner");
+        }
+        outer.write("done");
+        outer.close();
+        try (PooledStreamWriter again = PooledStreamWriter.open(second)) {
+            again.write(" again");
+        }
+
+        assertEquals("outer done", first.toString(StandardCharsets.UTF_8));
+        assertEquals("inner again", second.toString(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> outer.write("late"));
+    }
+}
@@ -6,8 +6,16 @@ import org.junit.jupiter.api.io.TempDir;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TranslationServiceTest {
 
@@ -47,4 +55,122 @@ class TranslationServiceTest {
 
         assertEquals("missing.key", service.get("fr", "missing.key", "de"));
     }
+
+    @Test
+    void preloadsLanguagesInBackground() throws IOException {
+        Files.writeString(tempDir.resolve("en.yml"), "greeting: Hello\n");
+        Files.writeString(tempDir.resolve("de.yml"), "greeting: Hallo\n");
+
+        TranslationService service = new TranslationService(tempDir);
+        service.preload(List.of("en", "de", "fr")).join();
+
+        assertEquals(Set.of("en", "de"), service.getLoadedLanguages());
+    }
+
+    @Test
+    void preloadsNoMoreLanguagesThanItKeeps() throws IOException {
+        for (String lang : List.of("en", "de", "fr")) {
+            Files.writeString(tempDir.resolve(lang + ".yml"), "greeting: " + lang + "\n");
+        }
+
+        TranslationService service = new TranslationService(tempDir, 2);
+        service.preload(List.of("fr", "en", "fr", "de")).join();
+
+        assertEquals(Set.of("fr", "en"), service.getLoadedLanguages());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedLanguageWhenLimitExceeded() throws IOException {
+        Files.writeString(tempDir.resolve("en.yml"), "greeting: Hello\n");
+        Files.writeString(tempDir.resolve("de.yml"), "greeting: Hallo\n");
+        Files.writeString(tempDir.resolve("fr.yml"), "greeting: Bonjour\n");
+
+        TranslationService service = new TranslationService(tempDir, 2);
+        service.get("en", "greeting");
+        service.get("de", "greeting");
+        service.get("en", "greeting");
+        service.get("fr", "greeting");
+
+        assertEquals(Set.of("en", "fr"), service.getLoadedLanguages());
+        assertEquals("Hallo", service.get("de", "greeting"));
+        assertTrue(service.getLoadedLanguages().contains("de"));
+    }
+
+    @Test
+    void reloadSwapsSingleLanguageAndKeepsOthersLoaded() throws IOException {
+        Files.writeString(tempDir.resolve("en.yml"), "greeting: Hello\n");
+        Files.writeString(tempDir.resolve("de.yml"), "greeting: Hallo\n");
+
+        TranslationService service = new TranslationService(tempDir);
+        service.get("en", "greeting");
+        service.get("de", "greeting");
+
+        Files.writeString(tempDir.resolve("de.yml"), "greeting: Guten Tag\n");
+        service.reload(service.languageOf(tempDir.resolve("de.yml")));
+
+        assertEquals("Guten Tag", service.get("de", "greeting"));
+        assertEquals(Set.of("en", "de"), service.getLoadedLanguages());
+    }
+
+    @Test
+    void findTellsMissesFromTranslationsThatEqualTheirKey() throws IOException {
+        Files.writeString(tempDir.resolve("en.yml"), "OK: OK\n");
+        TranslationService service = new TranslationService(tempDir);
+        TranslationStatistics batch = new TranslationStatistics();
+
+        assertEquals("OK", service.find("en", "OK", "en", batch));
+        assertNull(service.find("en", "Cancel", "en", batch));
+        assertEquals("Cancel", service.get("en", "Cancel", "en"));
+
+        assertEquals(Map.of("en", Map.of("Cancel", 1L)), batch.snapshot().missing());
+    }
+
+    @Test
+    void countsMissingAndFallbackKeysPerLanguage() throws IOException {
+        Files.writeString(tempDir.resolve("en.yml"), "greeting: Hello\nfarewell: Bye\n");
+        Files.writeString(tempDir.resolve("de.yml"), "greeting: Hallo\n");
+        TranslationService service = new TranslationService(tempDir);
+
+        service.get("de", "greeting", "en");
+        service.get("de", "farewell", "en");
+        service.get("de-AT", "farewell", "en");
+        service.get("fr", "farewell", "en");
+        service.get("de", "missing.key", "en");
+        service.get("de", "missing.key", "en");
+        service.peek("de", "other.key", "en");
+
+        TranslationStatistics.Snapshot snapshot = service.getStatistics().snapshot();
+        assertEquals(Map.of("de", Map.of("missing.key", 2L)), snapshot.missing());
+        assertEquals(Map.of("de", Map.of("farewell", 1L), "de-AT", Map.of("farewell", 1L),
+                "fr", Map.of("farewell", 1L)), snapshot.fallbacks());
+
+        service.reload("de");
+        assertEquals(Set.of("fr"), service.getStatistics().snapshot().fallbacks().keySet());
+        assertTrue(service.getStatistics().snapshot().missing().isEmpty());
+        service.invalidateAll();
+        assertTrue(service.getStatistics().snapshot().isEmpty());
+    }
+
+    @Test
+    void countsLookupsFromManyThreads() throws Exception {
+        Files.writeString(tempDir.resolve("en.yml"), "greeting: Hello\n");
+        TranslationService service = new TranslationService(tempDir);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            for (int i = 0; i < 4; i++) {
+                pool.execute(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        service.get("fr", "missing." + (j % 10), "en");
+                    }
+                });
+            }
+        } finally {
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        }
+
+        Map<String, Long> counts = service.getStatistics().snapshot().missing().get("fr");
+        assertEquals(10, counts.size());
+        assertEquals(400L, counts.get("missing.3"));
+    }
 }